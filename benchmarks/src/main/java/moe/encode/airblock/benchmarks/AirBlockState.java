@@ -0,0 +1,69 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.benchmarks;
+
+import moe.encode.airblock.commands.Commands;
+import moe.encode.airblock.commands.Executor;
+import moe.encode.airblock.commands.contrib.annotations.SimpleAnnotationRegistrar;
+import moe.encode.airblock.commands.core.settings.Environment;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A fully initialized environment running on the stub backend.
+ */
+@State(Scope.Benchmark)
+public class AirBlockState {
+
+    /**
+     * The environment.
+     */
+    public Environment environment;
+
+    /**
+     * The executor running the commands.
+     */
+    public Executor executor;
+
+    /**
+     * The command handler with the benchmark commands.
+     */
+    public Commands commands;
+
+    /**
+     * The instance the commands are registered on.
+     */
+    public BenchmarkCommands instance;
+
+    @Setup
+    public void setup() {
+        this.environment = new Environment(new StubBackendHandle());
+        this.executor = this.environment.getBackend().wrap(new StubExecutorHandle("Player", false));
+
+        this.instance = new BenchmarkCommands();
+        this.commands = this.environment.createCommands();
+        this.commands.addRegistrar(new SimpleAnnotationRegistrar());
+        this.commands.register(this.instance);
+
+        // Resolve the lazily registered default components before measuring.
+        this.environment.getTranslationManager().translate(this.executor, "benchmark");
+        this.environment.getBackend().isInMainThread();
+    }
+}
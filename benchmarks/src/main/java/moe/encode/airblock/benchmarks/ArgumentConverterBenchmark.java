@@ -0,0 +1,71 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.benchmarks;
+
+import moe.encode.airblock.commands.arguments.ArgumentConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ArgumentConverter#parse}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ArgumentConverterBenchmark {
+
+    private ArgumentConverter converter;
+
+    @Setup
+    public void setup(AirBlockState state) {
+        this.converter = state.environment.getArgumentConverter();
+    }
+
+    @Benchmark
+    public Object parseInt(AirBlockState state) {
+        return this.converter.parse(state.executor, int.class, "12345");
+    }
+
+    @Benchmark
+    public Object parseDouble(AirBlockState state) {
+        return this.converter.parse(state.executor, double.class, "-3.25");
+    }
+
+    @Benchmark
+    public Object parseBoolean(AirBlockState state) {
+        return this.converter.parse(state.executor, boolean.class, "true");
+    }
+
+    @Benchmark
+    public Object parseString(AirBlockState state) {
+        return this.converter.parse(state.executor, String.class, "Notch");
+    }
+
+    @Benchmark
+    public Object parseArray(AirBlockState state) {
+        return this.converter.parse(state.executor, int[].class, "1,2,3,4");
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.benchmarks;
+
+import moe.encode.airblock.commands.Executor;
+import moe.encode.airblock.commands.arguments.list.ArgumentList;
+import moe.encode.airblock.commands.contrib.annotations.Command;
+import moe.encode.airblock.commands.contrib.annotations.injections.Argument;
+import moe.encode.airblock.commands.contrib.annotations.injections.Flag;
+import moe.encode.airblock.commands.contrib.annotations.injections.ScopeObject;
+
+/**
+ * The commands that are executed by the benchmarks.
+ */
+public class BenchmarkCommands {
+
+    /**
+     * The sum of all values passed to the commands so the JIT cannot remove the calls.
+     */
+    public long sink = 0;
+
+    @Command(
+            value = "give",
+            aliases = {"i"},
+            executors = {Command.Executor.PLAYER, Command.Executor.CONSOLE}
+    )
+    public void give(ArgumentList list) {
+        this.sink += list.get(0).length() + list.getInt(1) + list.getInt(2, 1);
+    }
+
+    @Command(
+            value = "tp",
+            executors = {Command.Executor.PLAYER, Command.Executor.CONSOLE},
+            strategy = Command.Strategy.INJECTION
+    )
+    public void teleport(
+            @ScopeObject(ScopeObject.Type.EXECUTOR) Executor executor,
+            @Argument(0) String target,
+            @Argument(1) int x,
+            @Argument(2) int y,
+            @Argument(3) int z,
+            @Flag('s') boolean silent
+    ) {
+        this.sink += target.length() + x + y + z + (silent ? 1 : 0);
+    }
+}
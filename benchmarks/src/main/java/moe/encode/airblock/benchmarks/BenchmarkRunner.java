@@ -0,0 +1,52 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>Runs the benchmarks with allocation profiling enabled.</p>
+ * <p>
+ *     Build with {@code mvn -P benchmarks package}, then run
+ *     {@code java -jar benchmarks/target/benchmarks.jar [jmh options]}. All
+ *     options of JMH are accepted, e.g. {@code ComponentBenchmark -f 1}.
+ * </p>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(cmd)
+                .addProfiler(GCProfiler.class);
+
+        // Run everything if the user did not select any benchmark.
+        if (cmd.getIncludes().isEmpty())
+            options.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+
+        new Runner(options.build()).run();
+    }
+}
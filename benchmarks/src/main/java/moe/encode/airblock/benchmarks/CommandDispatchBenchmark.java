@@ -0,0 +1,58 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the full path from {@link moe.encode.airblock.commands.Commands#execute} to the command method.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CommandDispatchBenchmark {
+
+    @Benchmark
+    public long directStrategy(AirBlockState state) {
+        state.commands.execute(state.executor, "give", "stone 64 2");
+        return state.instance.sink;
+    }
+
+    @Benchmark
+    public long alias(AirBlockState state) {
+        state.commands.execute(state.executor, "I", "stone 64");
+        return state.instance.sink;
+    }
+
+    @Benchmark
+    public long injectingStrategy(AirBlockState state) {
+        state.commands.execute(state.executor, "tp", "-s Notch 100 64 -200");
+        return state.instance.sink;
+    }
+
+    @Benchmark
+    public long unknownCommand(AirBlockState state) {
+        state.commands.execute(state.executor, "unknown", "some arguments");
+        return state.instance.sink;
+    }
+}
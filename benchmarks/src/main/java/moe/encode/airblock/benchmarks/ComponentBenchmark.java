@@ -0,0 +1,56 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.benchmarks;
+
+import moe.encode.airblock.commands.contrib.locales.LocaleResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures calls through the component proxies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ComponentBenchmark {
+
+    @Benchmark
+    public Locale executorComponent(AirBlockState state) {
+        return state.executor.getComponent(LocaleResolver.class).getLocale();
+    }
+
+    @Benchmark
+    public boolean backendComponent(AirBlockState state) {
+        return state.environment.getBackend().isInMainThread();
+    }
+
+    @Benchmark
+    public boolean hasComponent(AirBlockState state) {
+        return state.executor.hasComponent(LocaleResolver.class);
+    }
+
+    @Benchmark
+    public boolean hasPermission(AirBlockState state) {
+        return state.executor.hasPermission("airblock.benchmark");
+    }
+}
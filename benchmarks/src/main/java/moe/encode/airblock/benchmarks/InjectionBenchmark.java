@@ -0,0 +1,65 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.benchmarks;
+
+import moe.encode.airblock.commands.contrib.annotations.AnnotationCommand;
+import moe.encode.airblock.commands.contrib.annotations.Command;
+import moe.encode.airblock.commands.contrib.annotations.injections.InjectingMethodCallingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link InjectingMethodCallingStrategy#call} without the dispatch in front of it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InjectionBenchmark {
+
+    private InjectingMethodCallingStrategy strategy;
+
+    private AnnotationCommand command;
+
+    @Setup
+    public void setup(AirBlockState state) throws NoSuchMethodException {
+        Method method = null;
+        for (Method candidate : BenchmarkCommands.class.getDeclaredMethods())
+            if (candidate.getName().equals("teleport"))
+                method = candidate;
+        if (method == null)
+            throw new NoSuchMethodException("teleport");
+
+        this.strategy = new InjectingMethodCallingStrategy(method, state.instance);
+        this.command = new AnnotationCommand(method.getAnnotation(Command.class), this.strategy);
+    }
+
+    @Benchmark
+    public long call(AirBlockState state) {
+        this.strategy.call(this.command, state.executor, "-s Notch 100 64 -200");
+        return state.instance.sink;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.benchmarks;
+
+import moe.encode.airblock.commands.arguments.split.QuotedSplit;
+import moe.encode.airblock.commands.arguments.split.SimpleSplit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the argument splitters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SplitBenchmark {
+
+    @Param({
+            "stone 64",
+            "-s Notch 100 64 -200",
+            "\"hello world\" 'quoted \\'string\\'' -abc tail"
+    })
+    public String raw;
+
+    private final QuotedSplit quoted = new QuotedSplit();
+
+    private final SimpleSplit simple = new SimpleSplit();
+
+    @Benchmark
+    public String[] quotedSplit() {
+        return this.quoted.split(this.raw, true);
+    }
+
+    @Benchmark
+    public String[] simpleSplit() {
+        return this.simple.split(this.raw, true);
+    }
+}
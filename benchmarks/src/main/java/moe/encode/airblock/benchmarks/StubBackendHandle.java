@@ -0,0 +1,94 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.benchmarks;
+
+import moe.encode.airblock.commands.core.CommandImplementation;
+import moe.encode.airblock.commands.core.backend.BackendHandle;
+import moe.encode.airblock.commands.core.backend.ExecutorHandle;
+import moe.encode.airblock.commands.core.backend.MinecraftVersion;
+
+import java.util.concurrent.Callable;
+import java.util.logging.Logger;
+
+/**
+ * A backend that does nothing so the benchmarks only measure the framework itself.
+ */
+public class StubBackendHandle extends BackendHandle<Object, Object> {
+
+    /**
+     * The logger of the backend.
+     */
+    private final Logger logger = Logger.getLogger("AirBlock-Benchmarks");
+
+    /**
+     * The console of the backend.
+     */
+    private final StubExecutorHandle console = new StubExecutorHandle("CONSOLE", true);
+
+    /**
+     * Creates a new stub backend.
+     */
+    public StubBackendHandle() {
+        super(new Object());
+    }
+
+    @Override
+    public ExecutorHandle<Object> getConsole() {
+        return this.console;
+    }
+
+    @Override
+    public Logger getLogger() {
+        return this.logger;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ExecutorHandle<Object>[] getExecutors() {
+        return new ExecutorHandle[] {this.console};
+    }
+
+    @Override
+    public void runLater(Runnable runnable) {
+        runnable.run();
+    }
+
+    @Override
+    public <R> R callInMainThread(Callable<R> callable) throws Throwable {
+        return callable.call();
+    }
+
+    @Override
+    public ExecutorHandle<Object> wrap(Object handle) {
+        return (StubExecutorHandle) handle;
+    }
+
+    @Override
+    public void registerCommand(String name, CommandImplementation implementation) {}
+
+    @Override
+    public MinecraftVersion getVersion() {
+        return MinecraftVersion.fromString("1.8");
+    }
+
+    @Override
+    public String getName() {
+        return "Benchmark";
+    }
+}
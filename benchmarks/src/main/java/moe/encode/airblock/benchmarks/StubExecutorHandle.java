@@ -0,0 +1,100 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.benchmarks;
+
+import moe.encode.airblock.commands.core.backend.ExecutorHandle;
+
+import java.net.InetSocketAddress;
+import java.util.UUID;
+
+/**
+ * An executor that swallows all messages.
+ */
+public class StubExecutorHandle extends ExecutorHandle<Object> {
+
+    /**
+     * The name of the executor.
+     */
+    private final String name;
+
+    /**
+     * Is this executor the console.
+     */
+    private final boolean console;
+
+    /**
+     * The unique identifier of the executor.
+     */
+    private final UUID uuid;
+
+    /**
+     * The number of messages sent to this executor.
+     */
+    private long messages = 0;
+
+    /**
+     * Creates a new executor.
+     * @param name     The name of the executor.
+     * @param console  Is this executor the console.
+     */
+    public StubExecutorHandle(String name, boolean console) {
+        super(new Object());
+        this.name = name;
+        this.console = console;
+        this.uuid = console ? ExecutorHandle.DEFAULT_CONSOLE_UUID : UUID.randomUUID();
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public void sendMessage(String message) {
+        this.messages++;
+    }
+
+    /**
+     * Returns the number of messages that have been sent to this executor.
+     * @return The number of messages.
+     */
+    public long getMessages() {
+        return this.messages;
+    }
+
+    @Override
+    public boolean isAdmin() {
+        return true;
+    }
+
+    @Override
+    public boolean isConsole() {
+        return this.console;
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        return null;
+    }
+
+    @Override
+    public UUID getUniqueIdentifier() {
+        return this.uuid;
+    }
+}
@@ -2,6 +2,7 @@ package moe.encode.airblock.bukkit;
 
 import moe.encode.airblock.commands.contrib.scheduler.Scheduler;
 import moe.encode.airblock.commands.contrib.scheduler.Task;
+import moe.encode.airblock.commands.contrib.scheduler.TaskPriority;
 import moe.encode.airblock.commands.contrib.threads.ThreadManager;
 import moe.encode.airblock.commands.core.CommandImplementation;
 import moe.encode.airblock.commands.core.backend.BackendHandle;
@@ -22,6 +23,8 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -30,6 +33,21 @@ import java.util.logging.Logger;
  */
 public class BukkitServerBackend extends BackendHandle<Plugin, CommandSender> implements Scheduler, ThreadManager {
 
+    /**
+     * The number of asynchronous tasks waiting for a thread.
+     */
+    private final AtomicInteger queued = new AtomicInteger(0);
+
+    /**
+     * The number of asynchronous tasks that are running.
+     */
+    private final AtomicInteger active = new AtomicInteger(0);
+
+    /**
+     * The number of asynchronous tasks that have been completed.
+     */
+    private final AtomicLong completed = new AtomicLong(0);
+
     /**
      * Creates the new backendhandle.
      *
@@ -156,6 +174,23 @@ public class BukkitServerBackend extends BackendHandle<Plugin, CommandSender> im
 
 
     public Task scheduleTask(Runnable runnable, int delay, int repeat, boolean async) {
+        return this.scheduleTask(runnable, delay, repeat, async, TaskPriority.NORMAL);
+    }
+
+    /**
+     * Schedules a new task.<p />
+     *
+     * Bukkit only waits for the delay of a synchronous task. The task itself is passed to the
+     * mailbox, so it runs within the time budget of the tick in the order of its priority.
+     *
+     * @param runnable  The runnable to schedule.
+     * @param delay     The time to wait in milliseconds.
+     * @param repeat    The repetition period (0 means it won't be repeated)
+     * @param async     {@code true} and it runs in it's own thread | {@code false} and it runs in the main thread.
+     * @param priority  The priority of the task.
+     * @return The task.
+     */
+    public Task scheduleTask(Runnable runnable, int delay, int repeat, boolean async, TaskPriority priority) {
         // Convert values.
         repeat = repeat/20;
         delay = delay/20;
@@ -173,10 +208,11 @@ public class BukkitServerBackend extends BackendHandle<Plugin, CommandSender> im
                 );
             }
         } else {
+            Runnable forward = this.getEnvironment().getMailbox().forward(runner, priority);
             if (repeat == 0) {
-                wrapper = new BukkitTaskWrapper(scheduler.runTaskLater(this.getHandle(), runnable, delay));
+                wrapper = new BukkitTaskWrapper(scheduler.runTaskLater(this.getHandle(), forward, delay));
             } else {
-                wrapper = new BukkitTaskWrapper(scheduler.runTaskTimer(this.getHandle(), runnable, delay, repeat));
+                wrapper = new BukkitTaskWrapper(scheduler.runTaskTimer(this.getHandle(), forward, delay, repeat));
             }
         }
 
@@ -216,10 +252,39 @@ public class BukkitServerBackend extends BackendHandle<Plugin, CommandSender> im
         return this.scheduleTask(runnable, 0, 0, true);
     }
 
+    public Task runTask(Runnable runnable, TaskPriority priority) {
+        return this.scheduleTask(runnable, 0, 0, false, priority);
+    }
+
     //////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
-    public void runAsynchronously(Runnable runnable) {
-        Bukkit.getScheduler().runTaskAsynchronously(this.getHandle(), runnable);
+    public void runAsynchronously(final Runnable runnable) {
+        this.queued.incrementAndGet();
+        Bukkit.getScheduler().runTaskAsynchronously(this.getHandle(), new Runnable() {
+            @Override
+            public void run() {
+                BukkitServerBackend.this.queued.decrementAndGet();
+                BukkitServerBackend.this.active.incrementAndGet();
+                try {
+                    runnable.run();
+                } finally {
+                    BukkitServerBackend.this.active.decrementAndGet();
+                    BukkitServerBackend.this.completed.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    public int getQueueDepth() {
+        return this.queued.get();
+    }
+
+    public int getActiveCount() {
+        return this.active.get();
+    }
+
+    public long getCompletedCount() {
+        return this.completed.get();
     }
 
     public boolean isInMainThread() {
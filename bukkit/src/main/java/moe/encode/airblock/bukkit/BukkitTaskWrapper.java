@@ -39,6 +39,10 @@ class BukkitTaskWrapper implements Task {
         }
 
         public void run() {
+            // The task may have been cancelled while it was waiting in the mailbox.
+            if (this.task != null && this.task.isCancelled())
+                return;
+
             try {
                 this.runnable.run();
             } finally {
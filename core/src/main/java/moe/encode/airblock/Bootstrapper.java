@@ -97,18 +97,20 @@ public final class Bootstrapper {
         // Update the backend handle.
         Environment environment = new Environment(handle);
         for (ComponentList cl : loader.components()) {
-            for (Class<?> componentType : cl.components()) {
-                Object component;
+            Class<?>[] componentTypes = cl.components();
+            Object[] components = new Object[componentTypes.length];
+            for (int i = 0; i<componentTypes.length; i++) {
                 try {
-                    component = componentType.newInstance();
+                    components[i] = componentTypes[i].newInstance();
                 } catch (InstantiationException e) {
                     throw new RuntimeException("Failed to initiate Component.", e);
                 } catch (IllegalAccessException e) {
                     throw new RuntimeException("Failed to initiate Component.", e);
                 }
-
-                environment.getComponentManager().register(cl.type(), component);
             }
+
+            // Publish all components of the wrapper type at once.
+            environment.getComponentManager().register(cl.type(), components);
         }
 
         // Update the backend handle.
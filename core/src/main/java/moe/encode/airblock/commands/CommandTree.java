@@ -0,0 +1,289 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands;
+
+import lombok.NonNull;
+import moe.encode.airblock.commands.core.ExecutionFilter;
+import moe.encode.airblock.commands.core.SubCommand;
+import moe.encode.airblock.commands.core.list.AliasedCommand;
+import moe.encode.airblock.commands.core.list.Command;
+import moe.encode.airblock.commands.core.settings.CommandSettings;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The compiled dispatch table of a {@link Commands}-instance.<p />
+ *
+ * The tree flattens the commands of the handler and all of its children into
+ * a single table that maps each label to the handlers that know the label, in
+ * the order {@link Commands#runCommand(String, Executor, String)} would visit them.
+ * Sub-commands are resolved using the tree of their container, so a
+ * command like {@code /a b c} is resolved without re-splitting the arguments
+ * on every level.<p />
+ *
+ * A tree is never modified. {@link Commands} throws away its tree whenever
+ * a command or child is added or removed.
+ */
+@Immutable
+public class CommandTree {
+
+    /**
+     * A single handler that knows a label.
+     */
+    @Immutable
+    private static class Route {
+
+        /**
+         * The settings of the handler that registered the commands.
+         */
+        final CommandSettings settings;
+
+        /**
+         * The filters of all child-handlers between the root and the handler.
+         */
+        final ExecutionFilter[] filters;
+
+        /**
+         * The overloads of the command.
+         */
+        final Command[] commands;
+
+        /**
+         * Creates a new route.
+         * @param settings   The settings of the handler.
+         * @param filters    The filters of the child-handlers.
+         * @param commands   The overloads.
+         */
+        Route(CommandSettings settings, ExecutionFilter[] filters, Command[] commands) {
+            this.settings = settings;
+            this.filters = filters;
+            this.commands = commands;
+        }
+
+        /**
+         * Checks if all filters allow the executor to use this route.
+         * @param executor  The executor.
+         * @param label     The label.
+         * @param arguments The arguments.
+         * @return {@code true} if the route can be used.
+         */
+        boolean accepts(Executor executor, String label, String arguments) {
+            for (ExecutionFilter filter : this.filters)
+                if (!filter.canExecute(executor, label, arguments))
+                    return false;
+            return true;
+        }
+
+        /**
+         * Executes the first overload that can be executed.
+         * @param executor  The executor.
+         * @param arguments The arguments.
+         * @return {@code true} if a command has been executed, {@code null} if no overload could be executed.
+         */
+        @Nullable
+        Boolean execute(Executor executor, String arguments) {
+            for (Command command : this.commands) {
+                // Only descend into plain sub-commands. Subclasses may have changed their behaviour.
+                if (command.getClass() == SubCommand.class) {
+                    Boolean result = CommandTree.descend((SubCommand) command, executor, arguments);
+                    if (result == null || result)
+                        return result;
+                    continue;
+                }
+
+                if (command.canExecute(executor, arguments)) {
+                    command.execute(executor, arguments);
+                    return true;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * An empty filter chain.
+     */
+    private static final ExecutionFilter[] NO_FILTERS = new ExecutionFilter[0];
+
+    /**
+     * The settings of the root handler.
+     */
+    private final CommandSettings settings;
+
+    /**
+     * Maps the lower-cased labels to the routes.
+     */
+    private final Map<String, Route[]> routes;
+
+    /**
+     * Creates a new command tree.
+     * @param settings The settings of the root handler.
+     * @param routes   The routes.
+     */
+    private CommandTree(CommandSettings settings, Map<String, Route[]> routes) {
+        this.settings = settings;
+        this.routes = routes;
+    }
+
+    /**
+     * Compiles the tree of the given handler.
+     * @param commands The handler.
+     * @return The compiled tree.
+     */
+    @NonNull
+    static CommandTree compile(@NonNull Commands commands) {
+        Map<String, List<Route>> routes = new HashMap<String, List<Route>>();
+        CommandTree.collect(commands, NO_FILTERS, routes);
+
+        Map<String, Route[]> result = new HashMap<String, Route[]>(routes.size() * 2);
+        for (Map.Entry<String, List<Route>> entry : routes.entrySet())
+            result.put(entry.getKey(), entry.getValue().toArray(new Route[entry.getValue().size()]));
+        return new CommandTree(commands.getSettings(), result);
+    }
+
+    /**
+     * Adds the routes of the given handler and its children.
+     * @param commands The handler.
+     * @param filters  The filters that have to pass before the handler can be used.
+     * @param routes   The routes collected so far.
+     */
+    private static void collect(Commands commands, ExecutionFilter[] filters, Map<String, List<Route>> routes) {
+        List<Command> registered = commands.getCommandList().getCommands();
+
+        Set<String> labels = new LinkedHashSet<String>();
+        for (Command command : registered) {
+            labels.add(CommandTree.normalize(command.getName()));
+            if (command instanceof AliasedCommand)
+                for (String alias : ((AliasedCommand) command).getAliases())
+                    labels.add(CommandTree.normalize(alias));
+        }
+
+        for (String label : labels) {
+            List<Command> overloads = commands.getCommandList().getCommand(label);
+            List<Route> current = routes.get(label);
+            if (current == null) {
+                current = new ArrayList<Route>();
+                routes.put(label, current);
+            }
+            current.add(new Route(
+                    commands.getSettings(), filters, overloads.toArray(new Command[overloads.size()])
+            ));
+        }
+
+        for (Commands.ChildHandler child : commands.getChildren()) {
+            ExecutionFilter[] chain = Arrays.copyOf(filters, filters.length + 1);
+            chain[filters.length] = child.filter;
+            CommandTree.collect(child.command, chain, routes);
+        }
+    }
+
+    /**
+     * Normalizes the label.
+     * @param label The label.
+     * @return The key of the label.
+     */
+    private static String normalize(String label) {
+        return label.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Resolves the sub-command inside the arguments and executes it.
+     * @param command    The sub-command.
+     * @param executor   The executor.
+     * @param arguments  The arguments passed to the sub-command.
+     * @return The result as defined by {@link #dispatch(String, Executor, String)}.
+     */
+    @Nullable
+    private static Boolean descend(SubCommand command, Executor executor, String arguments) {
+        CommandTree tree = command.getContainer().getTree();
+
+        String label;
+        String rest;
+        if (StringUtils.isBlank(arguments)) {
+            label = "";
+            rest = "";
+        } else {
+            int space = arguments.indexOf(' ');
+            if (space == -1) {
+                label = arguments;
+                rest = "";
+            } else {
+                label = arguments.substring(0, space);
+                rest = arguments.substring(space + 1);
+            }
+        }
+
+        if (!tree.contains(label))
+            return false;
+        return tree.dispatch(label, executor, rest);
+    }
+
+    /**
+     * Checks if any handler in the tree knows the label.
+     * @param label The label.
+     * @return {@code true} if the label is known.
+     */
+    public boolean contains(@NonNull String label) {
+        return this.routes.containsKey(CommandTree.normalize(label));
+    }
+
+    /**
+     * Executes the first command with the given label that can be executed.
+     *
+     * @param label     The value of the command that should be executed.
+     * @param executor  The executor of the command.
+     * @param arguments The arguments that have been passed to the command.
+     * @return {@code true} if the command has been found and executed.
+     *         {@code null} if the command has been found but the user did not have permission.
+     */
+    @Nullable
+    public Boolean dispatch(@NonNull String label, @NonNull Executor executor, @NonNull String arguments) {
+        // Like runCommand, we will never pop the context.
+        executor.pushContext(this.settings);
+
+        Route[] routes = this.routes.get(CommandTree.normalize(label));
+        if (routes == null)
+            return false;
+
+        Boolean result = false;
+        for (Route route : routes) {
+            if (!route.accepts(executor, label, arguments))
+                continue;
+
+            if (route.settings != this.settings)
+                executor.pushContext(route.settings);
+
+            if (route.execute(executor, arguments) != null)
+                return true;
+            result = null;
+        }
+        return result;
+    }
+
+}
@@ -24,6 +24,7 @@ import moe.encode.airblock.commands.core.CommandImplementation;
 import moe.encode.airblock.commands.core.ExecutionFilter;
 import moe.encode.airblock.commands.core.SubCommand;
 import moe.encode.airblock.commands.core.exceptions.PermissionDenied;
+import moe.encode.airblock.commands.core.list.AliasedCommand;
 import moe.encode.airblock.commands.core.list.Command;
 import moe.encode.airblock.commands.core.list.CommandList;
 import moe.encode.airblock.commands.core.list.CommandRegistrar;
@@ -36,6 +37,10 @@ import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Handles the commands.
@@ -87,6 +92,21 @@ public class Commands implements CommandImplementation {
      */
     private final CommandSettings locale;
 
+    /**
+     * The compiled dispatch tree. {@code null} if it has to be recompiled.
+     */
+    private final AtomicReference<CommandTree> tree = new AtomicReference<CommandTree>();
+
+    /**
+     * Incremented whenever the tree is invalidated.
+     */
+    private final AtomicInteger revision = new AtomicInteger();
+
+    /**
+     * All handlers this handler has been added to as a child.
+     */
+    private final List<Commands> parents = new CopyOnWriteArrayList<Commands>();
+
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     /**
@@ -144,12 +164,27 @@ public class Commands implements CommandImplementation {
         return result;
     }
 
+    /**
+     * Checks if this handler or one of its children knows a command with the given name.
+     * @param name The value or an alias of the command.
+     * @return {@code true} if a command has been found.
+     */
+    public boolean hasCommand(@NonNull String name) {
+        if (this.commands.hasCommand(name))
+            return true;
+        for (ChildHandler child : this.children)
+            if (child.command.hasCommand(name))
+                return true;
+        return false;
+    }
+
     /**
      * Registers a new command.
      * @param command The new command to add.
      */
     public Commands register(@NonNull Object command) {
         this.commands.register(command);
+        this.invalidate();
         return this;
     }
 
@@ -183,7 +218,7 @@ public class Commands implements CommandImplementation {
         // Try to find a suitable command that we had registered.
         if (this.commands.execute(command, executor, args)) {
             result = true;
-        } else if (this.commands.getCommand(command).size() != 0) {
+        } else if (this.commands.hasCommand(command)) {
             result = null;
         }
 
@@ -224,6 +259,8 @@ public class Commands implements CommandImplementation {
     @NonNull
     public Commands addChild(@NonNull Commands commands, @Nullable ExecutionFilter filter) {
         this.children.add(new ChildHandler(commands, filter!=null?filter:Commands.DEFAULT_FILTER));
+        commands.addParent(this);
+        this.invalidate();
         return this;
     }
 
@@ -254,6 +291,73 @@ public class Commands implements CommandImplementation {
             return;
 
         this.children.remove(hndl);
+        commands.removeParent(this);
+        this.invalidate();
+    }
+
+    /**
+     * Registers a handler this handler has been added to.
+     * @param parent The parent handler.
+     */
+    void addParent(@NonNull Commands parent) {
+        this.parents.add(parent);
+    }
+
+    /**
+     * Removes a handler this handler has been removed from.
+     * @param parent The parent handler.
+     */
+    void removeParent(@NonNull Commands parent) {
+        this.parents.remove(parent);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns the command list of this handler.
+     * @return The command list.
+     */
+    CommandList getCommandList() {
+        return this.commands;
+    }
+
+    /**
+     * Returns the child handlers.
+     * @return The child handlers.
+     */
+    List<ChildHandler> getChildren() {
+        return this.children;
+    }
+
+    /**
+     * Returns the compiled dispatch tree of this handler.
+     * @return The dispatch tree.
+     */
+    @NonNull
+    public CommandTree getTree() {
+        CommandTree tree = this.tree.get();
+        if (tree != null)
+            return tree;
+
+        int revision = this.revision.get();
+        tree = CommandTree.compile(this);
+
+        // Don't keep the tree if the handler has been modified while we were compiling.
+        if (this.tree.compareAndSet(null, tree) && this.revision.get() != revision)
+            this.tree.compareAndSet(tree, null);
+        return tree;
+    }
+
+    /**
+     * Throws away the compiled dispatch tree of this handler and all of its parents.<p />
+     *
+     * This is called automatically whenever commands or children are added or removed.
+     */
+    public void invalidate() {
+        this.revision.incrementAndGet();
+        this.tree.set(null);
+        for (Commands parent : this.parents)
+            parent.invalidate();
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -283,7 +387,7 @@ public class Commands implements CommandImplementation {
     public void execute(Executor executor, String label, String arguments) {
         Boolean result;
         try {
-            result = this.runCommand(label, executor, arguments);
+            result = this.getTree().dispatch(label, executor, arguments);
 
         } catch(PermissionDenied e) {
             // Runs the result.
@@ -333,17 +437,26 @@ public class Commands implements CommandImplementation {
     public Commands registerBaseCommands() {
         HashSet<String> registered = new HashSet<String>();
         for (Command command : this.getCommands()) {
-            if (registered.contains(command.getName()))
-                continue;
-            registered.add(command.getName());
-            this.getSettings().getEnvironment().getBackend().getHandle().registerCommand(
-                    command.getName(),
-                    this
-            );
+            this.registerBaseCommand(registered, command.getName());
+            if (command instanceof AliasedCommand) {
+                for (String alias : ((AliasedCommand) command).getAliases())
+                    this.registerBaseCommand(registered, alias);
+            }
         }
         return this;
     }
 
+    /**
+     * Registers a single name of a base command if it hasn't been registered yet.
+     * @param registered The names that have already been registered.
+     * @param name       The name of the command.
+     */
+    private void registerBaseCommand(HashSet<String> registered, String name) {
+        if (!registered.add(name.toLowerCase(Locale.ENGLISH)))
+            return;
+        this.getSettings().getEnvironment().getBackend().getHandle().registerCommand(name, this);
+    }
+
     /**
      * Register the given Commands-Instance as a single command.
      * @param name The given description.
@@ -356,7 +469,7 @@ public class Commands implements CommandImplementation {
                     @Override
                     public void execute(Executor executor, String label, String arguments) {
                         String[] parsed = SubCommand.splitArguments(arguments);
-                        Commands.this.runCommand(parsed[0], executor, arguments);
+                        Commands.this.getTree().dispatch(parsed[0], executor, arguments);
                     }
 
                     @Override
@@ -27,6 +27,7 @@ import moe.encode.airblock.commands.contrib.history.History;
 import moe.encode.airblock.commands.contrib.history.HistoryComponent;
 import moe.encode.airblock.commands.contrib.sessions.Sessions;
 import moe.encode.airblock.commands.core.backend.MinecraftVersion;
+import moe.encode.airblock.commands.core.components.ComponentManager;
 import moe.encode.airblock.commands.core.settings.CommandSettings;
 import moe.encode.airblock.commands.core.settings.Environment;
 
@@ -165,8 +166,14 @@ public class Executor extends HandleWrapper<ExecutorHandle<?>> {
      * @return The session manager.
      */
     public Sessions getSessions() {
-        if (!this.hasComponent(Sessions.class))
-            this.getEnvironment().getComponentManager().register(Executor.class, new SessionManager(this.getEnvironment()));
+        if (!this.hasComponent(Sessions.class)) {
+            // Registrations lock the component manager, so no second manager is created.
+            ComponentManager manager = this.getEnvironment().getComponentManager();
+            synchronized (manager) {
+                if (!this.hasComponent(Sessions.class))
+                    manager.register(Executor.class, new SessionManager(this.getEnvironment()));
+            }
+        }
         return this.getComponent(Sessions.class);
     }
 
@@ -18,39 +18,93 @@
 
 package moe.encode.airblock.commands.arguments;
 
-import lombok.AllArgsConstructor;
 import moe.encode.airblock.commands.Executor;
 import moe.encode.airblock.commands.arguments.types.ArgumentParsers;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Converts arguments
  */
-@AllArgsConstructor
 public class ArgumentConverter {
 
     /**
-     * Contains the argument parser.
+     * The registered parsers together with the parsers resolved from them.
      */
-    private List<ArgumentParser> parsers;
+    private static class Registry {
+
+        /**
+         * Contains the argument parser. Never modified.
+         */
+        private final List<ArgumentParser> parsers;
+
+        /**
+         * Caches the parsers that have been resolved for a type.
+         */
+        private final ConcurrentMap<Type, ArgumentParser> resolved = new ConcurrentHashMap<Type, ArgumentParser>();
+
+        /**
+         * Creates a new registry.
+         * @param parsers The parsers.
+         */
+        private Registry(List<ArgumentParser> parsers) {
+            this.parsers = parsers;
+        }
+    }
+
+    /**
+     * <p>The current registry.</p>
+     * <p>
+     *     Registrations publish a new registry with an empty cache, so a parser resolved
+     *     against an older list of parsers can never end up in the current cache.
+     * </p>
+     */
+    private volatile Registry registry;
+
+    /**
+     * Marks types that cannot be converted.
+     */
+    private static final ArgumentParser<Object> NO_PARSER = new ArgumentParser<Object>() {
+        @Override
+        public boolean canConvert(ArgumentConverter parser, Type type) {
+            return false;
+        }
+
+        @Override
+        public Object convert(Executor executor, ArgumentConverter converter, Type type, String value) {
+            throw new NumberFormatException("Cannot parse this value.");
+        }
+    };
 
     /**
      * Creates a new argument converter.
      */
     public ArgumentConverter() {
-        this.parsers = new ArrayList<ArgumentParser>();
+        this(Collections.<ArgumentParser>emptyList());
+    }
+
+    /**
+     * Creates a new argument converter.
+     * @param parsers The parsers of the converter.
+     */
+    public ArgumentConverter(List<ArgumentParser> parsers) {
+        this.registry = new Registry(Collections.unmodifiableList(new ArrayList<ArgumentParser>(parsers)));
     }
 
     /**
      * Adds a parser to the converter.
      * @param parser The parser for a value.
      */
-    public void registerParser(ArgumentParser<?>... parser) {
-        this.parsers.addAll(Arrays.asList(parser));
+    public synchronized void registerParser(ArgumentParser<?>... parser) {
+        List<ArgumentParser> parsers = new ArrayList<ArgumentParser>(this.registry.parsers);
+        parsers.addAll(Arrays.asList(parser));
+        this.registry = new Registry(Collections.unmodifiableList(parsers));
     }
 
     /**
@@ -59,10 +113,33 @@ public class ArgumentConverter {
      * @return The parser for the argument.
      */
     public ArgumentParser getParserFor(Type type) {
-        for (ArgumentParser<?> parser : this.parsers)
-            if (parser.canConvert(this, type))
+        Registry registry = this.registry;
+        ArgumentParser parser = registry.resolved.get(type);
+        if (parser == null) {
+            parser = this.resolve(registry, type);
+            registry.resolved.put(type, parser);
+        }
+
+        if (parser == NO_PARSER)
+            return null;
+        return parser;
+    }
+
+    /**
+     * Searches the parser for the given type.
+     * @param registry The registry to search.
+     * @param type     The type of the argument.
+     * @return The parser for the argument or {@link #NO_PARSER} if there is no parser.
+     */
+    private ArgumentParser resolve(Registry registry, Type type) {
+        for (ArgumentParser<?> parser : registry.parsers) {
+            if (parser.canConvert(this, type)) {
+                if (parser instanceof SpecializingParser)
+                    return ((SpecializingParser<?>) parser).specialize(this, type);
                 return parser;
-        return null;
+            }
+        }
+        return NO_PARSER;
     }
 
     /**
@@ -0,0 +1,43 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.arguments;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Type;
+
+/**
+ * <p>A parser that can create a parser that is specialised for a single type.</p>
+ * <p>
+ *     The {@link ArgumentConverter} calls {@link #specialize(ArgumentConverter, Type)} once per type
+ *     and caches the result, so the specialised parser can resolve everything that only depends
+ *     on the type in advance.
+ * </p>
+ */
+public interface SpecializingParser<T> extends ArgumentParser<T> {
+
+    /**
+     * Creates a parser that converts the given type.
+     * @param converter The converter that resolved this parser.
+     * @param type      The type. {@link #canConvert(ArgumentConverter, Type)} returned {@code true} for it.
+     * @return The specialised parser.
+     */
+    @Nonnull
+    public ArgumentParser<T> specialize(@Nonnull ArgumentConverter converter, @Nonnull Type type);
+
+}
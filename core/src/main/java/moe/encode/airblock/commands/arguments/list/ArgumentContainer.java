@@ -18,6 +18,8 @@
 
 package moe.encode.airblock.commands.arguments.list;
 
+import moe.encode.airblock.commands.arguments.types.PrimitiveParser;
+
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
@@ -203,7 +205,14 @@ public abstract class ArgumentContainer extends ArgumentIterable<String> {
      * @throws ArrayIndexOutOfBoundsException If the index is invalid.
      */
     public int getInt(int index) {
-        return this.get(index, int.class);
+        ArgumentList list = this.getArgumentList();
+        PrimitiveParser parser = list.getPrimitiveParser(int.class);
+        if (parser == null)
+            return this.get(index, int.class);
+
+        // Parse the value directly so it doesn't need to be boxed.
+        String value = this.getRaw(index, String.class, null);
+        return parser.parseInt(list.getExecutor(), value);
     }
 
     /**
@@ -221,7 +230,13 @@ public abstract class ArgumentContainer extends ArgumentIterable<String> {
      * @throws ArrayIndexOutOfBoundsException If the index is invalid.
      */
     public int getInt(int index, int def) {
-        return this.get(index, int.class, def);
+        try {
+            return this.getInt(index);
+        } catch (NumberFormatException nfe) {
+            return def;
+        } catch (IndexOutOfBoundsException nfe) {
+            return def;
+        }
     }
 
 
@@ -279,7 +294,14 @@ public abstract class ArgumentContainer extends ArgumentIterable<String> {
      * @throws ArrayIndexOutOfBoundsException If the index is invalid.
      */
     public double getDouble(int index) {
-        return this.get(index, double.class);
+        ArgumentList list = this.getArgumentList();
+        PrimitiveParser parser = list.getPrimitiveParser(double.class);
+        if (parser == null)
+            return this.get(index, double.class);
+
+        // Parse the value directly so it doesn't need to be boxed.
+        String value = this.getRaw(index, String.class, null);
+        return parser.parseDouble(list.getExecutor(), value);
     }
 
     /**
@@ -297,7 +319,13 @@ public abstract class ArgumentContainer extends ArgumentIterable<String> {
      * @throws ArrayIndexOutOfBoundsException If the index is invalid.
      */
     public double getDouble(int index, double def) {
-        return this.get(index, double.class, def);
+        try {
+            return this.getDouble(index);
+        } catch (NumberFormatException nfe) {
+            return def;
+        } catch (IndexOutOfBoundsException nfe) {
+            return def;
+        }
     }
 
 
@@ -393,7 +421,14 @@ public abstract class ArgumentContainer extends ArgumentIterable<String> {
      * @throws ArrayIndexOutOfBoundsException If the index is invalid.
      */
     public long getLong(int index) {
-        return this.get(index, long.class);
+        ArgumentList list = this.getArgumentList();
+        PrimitiveParser parser = list.getPrimitiveParser(long.class);
+        if (parser == null)
+            return this.get(index, long.class);
+
+        // Parse the value directly so it doesn't need to be boxed.
+        String value = this.getRaw(index, String.class, null);
+        return parser.parseLong(list.getExecutor(), value);
     }
 
     /**
@@ -411,7 +446,13 @@ public abstract class ArgumentContainer extends ArgumentIterable<String> {
      * @throws ArrayIndexOutOfBoundsException If the index is invalid.
      */
     public long getLong(int index, long def) {
-        return this.get(index, long.class, def);
+        try {
+            return this.getLong(index);
+        } catch (NumberFormatException nfe) {
+            return def;
+        } catch (IndexOutOfBoundsException nfe) {
+            return def;
+        }
     }
 
 
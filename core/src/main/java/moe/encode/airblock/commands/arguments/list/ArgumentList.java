@@ -19,7 +19,11 @@
 package moe.encode.airblock.commands.arguments.list;
 
 import moe.encode.airblock.commands.Executor;
-import org.apache.commons.lang3.ArrayUtils;
+import moe.encode.airblock.commands.arguments.ArgumentParser;
+import moe.encode.airblock.commands.arguments.split.ArgumentSplitter;
+import moe.encode.airblock.commands.arguments.split.TokenCursor;
+import moe.encode.airblock.commands.arguments.split.TokenizingSplitter;
+import moe.encode.airblock.commands.arguments.types.PrimitiveParser;
 
 import java.lang.reflect.Type;
 
@@ -31,12 +35,7 @@ public class ArgumentList extends ArgumentContainer {
     /**
      * Contains all values.
      */
-    protected final String[] values;
-
-    /**
-     * Defines the flags.
-     */
-    protected final String flags;
+    protected final TokenCursor values;
 
     /**
      * Contains the executor.
@@ -59,7 +58,7 @@ public class ArgumentList extends ArgumentContainer {
      * @param executor    The executor.
      */
     public ArgumentList(String arguments, boolean parseFlags, Executor executor) {
-        this(executor.getContext().getArgumentSplitter().split(arguments, parseFlags), parseFlags, executor);
+        this(ArgumentList.tokenize(executor.getContext().getArgumentSplitter(), arguments, parseFlags), executor);
     }
 
     /**
@@ -78,23 +77,39 @@ public class ArgumentList extends ArgumentContainer {
      * @param executor     The executor of the command.
      */
     public ArgumentList(String[] arguments, boolean parseFlags, Executor executor) {
+        this(TokenCursor.of(arguments, parseFlags), executor);
+    }
+
+    /**
+     * Creates a new argument list.
+     * @param arguments    The tokens of the arguments.
+     * @param executor     The executor of the command.
+     */
+    public ArgumentList(TokenCursor arguments, Executor executor) {
         super(null);
-        if (parseFlags) {
-            this.values = ArrayUtils.remove(arguments, 0);
-            this.flags = arguments[0];
-        } else {
-            this.values = arguments;
-            this.flags = "";
-        }
+        this.values = arguments;
         this.executor = executor;
     }
 
+    /**
+     * Splits the arguments using the given splitter.
+     * @param splitter    The splitter.
+     * @param arguments   The raw arguments.
+     * @param parseFlags  Parse the flags.
+     * @return A cursor over the tokens.
+     */
+    private static TokenCursor tokenize(ArgumentSplitter splitter, String arguments, boolean parseFlags) {
+        if (splitter instanceof TokenizingSplitter)
+            return ((TokenizingSplitter) splitter).tokenize(arguments, parseFlags);
+        return TokenCursor.of(splitter.split(arguments, parseFlags), parseFlags);
+    }
+
     /**
      * Returns all flags that have been passed.
      * @return All flags that have been passed.
      */
     public String getFlags() {
-        return this.flags;
+        return this.values.getFlags();
     }
 
     /**
@@ -103,12 +118,24 @@ public class ArgumentList extends ArgumentContainer {
      * @return The flag that has been passed.
      */
     public boolean hasFlag(char flag) {
-        return this.flags.contains("" + flag);
+        return this.values.hasFlag(flag);
+    }
+
+    /**
+     * Checks if there is an argument at the given index.<p />
+     *
+     * Other than {@link #size()} this method does not need to split all arguments.
+     *
+     * @param index The index of the argument. Must not be negative.
+     * @return {@code true} if the argument exists.
+     */
+    public boolean hasArgument(int index) {
+        return this.values.hasToken(index);
     }
 
     @Override
     public int size() {
-        return this.values.length;
+        return this.values.size();
     }
 
     @Override
@@ -124,7 +151,7 @@ public class ArgumentList extends ArgumentContainer {
                 throw new IndexOutOfBoundsException(this.outOfBoundsMsg(index));
             value = def;
         } else {
-            value = this.values[i];
+            value = this.values.getToken(i);
         }
 
         if (cls == String.class) {
@@ -135,6 +162,26 @@ public class ArgumentList extends ArgumentContainer {
         return this.executor.getContext().getArgumentConverter().parse(this.executor, cls, value);
     }
 
+    /**
+     * Returns the executor of the command.
+     * @return The executor.
+     */
+    Executor getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Returns the primitive parser if it is used to convert the given type.
+     * @param type The primitive type.
+     * @return The parser or {@code null} if another parser converts the type.
+     */
+    PrimitiveParser getPrimitiveParser(Class<?> type) {
+        ArgumentParser parser = this.executor.getContext().getArgumentConverter().getParserFor(type);
+        if (parser instanceof PrimitiveParser)
+            return (PrimitiveParser) parser;
+        return null;
+    }
+
     @Override
     public ArgumentList getArgumentList() {
         return this;
@@ -0,0 +1,121 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.arguments.list;
+
+import moe.encode.airblock.commands.Executor;
+import moe.encode.airblock.commands.arguments.split.TokenCursor;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+
+/**
+ * <p>An argument list that only tokenizes as many arguments as have been requested.</p>
+ * <p>
+ *     Accessing an argument with a non-negative index only tokenizes the string up to
+ *     that argument. Negative indexes and {@link #size()} still require the whole string
+ *     to be tokenized.
+ * </p>
+ * <p>
+ *     The last conversion of each argument is cached, so accessing the same argument
+ *     multiple times with the same type will return the same object.
+ * </p>
+ */
+public class LazyArgumentList extends ArgumentList {
+
+    /**
+     * The types of the cached conversions.
+     */
+    private Type[] types = null;
+
+    /**
+     * The cached conversions.
+     */
+    private Object[] converted = null;
+
+    /**
+     * Parses the arguments and the flags.
+     * @param arguments   The raw arguments.
+     * @param executor    The executor.
+     */
+    public LazyArgumentList(String arguments, Executor executor) {
+        super(arguments, executor);
+    }
+
+    /**
+     * Creates a new arguments list that splits the raw arguments on demand.
+     * @param arguments   The raw string of arguments.
+     * @param parseFlags  Parse the flags.
+     * @param executor    The executor.
+     */
+    public LazyArgumentList(String arguments, boolean parseFlags, Executor executor) {
+        super(arguments, parseFlags, executor);
+    }
+
+    /**
+     * Creates a new argument list.
+     * @param arguments    The tokens of the arguments.
+     * @param executor     The executor of the command.
+     */
+    public LazyArgumentList(TokenCursor arguments, Executor executor) {
+        super(arguments, executor);
+    }
+
+    @Override
+    protected int getRealIndex(int index, boolean exclusive) {
+        if (index < 0)
+            return super.getRealIndex(index, exclusive);
+
+        if (this.values.hasToken(index))
+            return index;
+
+        // An exclusive index may point directly behind the last argument.
+        if (exclusive && (index == 0 || this.values.hasToken(index - 1)))
+            return index;
+
+        return -1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E> E getRaw(int index, Type cls, String def) throws NumberFormatException {
+        int i = this.getRealIndex(index);
+
+        // Don't cache strings and default values.
+        if (i == -1 || cls == String.class)
+            return super.getRaw(index, cls, def);
+
+        if (this.types != null && i < this.types.length && cls.equals(this.types[i]))
+            return (E) this.converted[i];
+
+        E result = super.getRaw(i, cls, def);
+
+        if (this.types == null) {
+            this.types = new Type[Math.max(i + 1, 4)];
+            this.converted = new Object[this.types.length];
+        } else if (i >= this.types.length) {
+            int length = Math.max(i + 1, this.types.length * 2);
+            this.types = Arrays.copyOf(this.types, length);
+            this.converted = Arrays.copyOf(this.converted, length);
+        }
+        this.types[i] = cls;
+        this.converted[i] = result;
+
+        return result;
+    }
+}
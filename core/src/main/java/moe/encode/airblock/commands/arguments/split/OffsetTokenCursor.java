@@ -0,0 +1,238 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.arguments.split;
+
+import java.util.Arrays;
+
+/**
+ * <p>A cursor that tokenizes the string incrementally.</p>
+ * <p>
+ *     Tokens are stored as offsets into the raw string. A token that is exactly
+ *     a substring of the raw string is created using {@link String#substring(int, int)}.
+ *     Tokens that contain quotes or escape characters are marked and reconstructed by
+ *     {@link #unescape(int, int, int)} once they are requested.
+ * </p>
+ * <p>
+ *     Flags are tracked in a bitset for ASCII-characters.
+ * </p>
+ */
+public abstract class OffsetTokenCursor extends TokenCursor {
+
+    /**
+     * The amount of ints stored per token.
+     */
+    private static final int STRIDE = 3;
+
+    /**
+     * The raw string.
+     */
+    protected final String raw;
+
+    /**
+     * Start, end and marker of each token.
+     */
+    private int[] tokens = new int[8 * STRIDE];
+
+    /**
+     * The amount of tokens that have been found so far.
+     */
+    private int count = 0;
+
+    /**
+     * Has the whole string been tokenized?
+     */
+    private boolean complete = false;
+
+    /**
+     * The flags with the character codes 0 to 63.
+     */
+    private long lowFlags = 0;
+
+    /**
+     * The flags with the character codes 64 to 127.
+     */
+    private long highFlags = 0;
+
+    /**
+     * All flags in the order they have been passed.
+     */
+    private char[] flags = null;
+
+    /**
+     * The amount of flags.
+     */
+    private int flagCount = 0;
+
+    /**
+     * The flags as a string.
+     */
+    private String flagString = null;
+
+    /**
+     * Creates a new cursor.
+     * @param raw The raw string.
+     */
+    protected OffsetTokenCursor(String raw) {
+        this.raw = raw;
+    }
+
+    /**
+     * <p>Parses the string until at least one token has been added or the end has been reached.</p>
+     * <p>
+     *     Flags may still follow the first token. Implementations that allow this have to
+     *     report it using {@link #isParsingFlags()}.
+     * </p>
+     * @return {@code false} if the end of the string has been reached.
+     */
+    protected abstract boolean parseNext();
+
+    /**
+     * Reconstructs a token that was marked.
+     * @param start   The offset of the first character.
+     * @param end     The offset after the last character.
+     * @param marker  The marker passed to {@link #addToken(int, int, int)}.
+     * @return The token.
+     */
+    protected abstract String unescape(int start, int end, int marker);
+
+    /**
+     * Checks if the parser may still find flags.
+     * @return {@code true} if further flags can follow.
+     */
+    protected boolean isParsingFlags() {
+        return false;
+    }
+
+    /**
+     * Adds a token.
+     * @param start   The offset of the first character.
+     * @param end     The offset after the last character.
+     * @param marker  {@code 0} if the token is the substring of the raw string.
+     *                Otherwise the value will be passed to {@link #unescape(int, int, int)}.
+     */
+    protected void addToken(int start, int end, int marker) {
+        int offset = this.count * STRIDE;
+        if (offset == this.tokens.length)
+            this.tokens = Arrays.copyOf(this.tokens, this.tokens.length * 2);
+
+        this.tokens[offset] = start;
+        this.tokens[offset + 1] = end;
+        this.tokens[offset + 2] = marker;
+        this.count++;
+    }
+
+    /**
+     * Adds a flag.
+     * @param flag The flag.
+     */
+    protected void addFlag(char flag) {
+        if (flag < 64)
+            this.lowFlags |= 1L << flag;
+        else if (flag < 128)
+            this.highFlags |= 1L << (flag - 64);
+
+        if (this.flags == null)
+            this.flags = new char[8];
+        else if (this.flagCount == this.flags.length)
+            this.flags = Arrays.copyOf(this.flags, this.flagCount * 2);
+        this.flags[this.flagCount++] = flag;
+    }
+
+    /**
+     * Checks if the flag has been found so far.
+     * @param flag The flag.
+     * @return {@code true} if the flag has been found.
+     */
+    protected boolean containsFlag(char flag) {
+        if (flag < 64)
+            return (this.lowFlags & (1L << flag)) != 0;
+        if (flag < 128)
+            return (this.highFlags & (1L << (flag - 64))) != 0;
+
+        for (int i = 0; i < this.flagCount; i++)
+            if (this.flags[i] == flag)
+                return true;
+        return false;
+    }
+
+    /**
+     * Tokenizes the string until the token with the given index has been found.
+     * @param index The index of the token.
+     */
+    private void advanceTo(int index) {
+        while (this.count <= index && !this.complete) {
+            if (!this.parseNext())
+                this.complete = true;
+        }
+    }
+
+    /**
+     * Tokenizes the string until all flags have been found.
+     */
+    private void advanceFlags() {
+        this.advanceTo(0);
+        while (!this.complete && this.isParsingFlags()) {
+            if (!this.parseNext())
+                this.complete = true;
+        }
+    }
+
+    @Override
+    public boolean hasToken(int index) {
+        if (index < 0)
+            return false;
+        this.advanceTo(index);
+        return index < this.count;
+    }
+
+    @Override
+    public int size() {
+        this.advanceTo(Integer.MAX_VALUE);
+        return this.count;
+    }
+
+    @Override
+    public String getToken(int index) {
+        if (!this.hasToken(index))
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size());
+
+        int offset = index * STRIDE;
+        int start = this.tokens[offset];
+        int end = this.tokens[offset + 1];
+        int marker = this.tokens[offset + 2];
+
+        if (marker == 0)
+            return this.raw.substring(start, end);
+        return this.unescape(start, end, marker);
+    }
+
+    @Override
+    public String getFlags() {
+        this.advanceFlags();
+        if (this.flagString == null)
+            this.flagString = this.flagCount == 0 ? "" : new String(this.flags, 0, this.flagCount);
+        return this.flagString;
+    }
+
+    @Override
+    public boolean hasFlag(char flag) {
+        this.advanceFlags();
+        return this.containsFlag(flag);
+    }
+}
@@ -18,22 +18,15 @@
 
 package moe.encode.airblock.commands.arguments.split;
 
-import java.util.LinkedList;
-
 /**
  * Splitter that supports quotes.
  */
-public class QuotedSplit implements ArgumentSplitter {
+public class QuotedSplit implements TokenizingSplitter {
 
     /**
-     * Executes the action.
+     * Tokenizes the string on demand.
      */
-    private static class QuotedSplitExecutor {
-
-        /**
-         * The raw string.
-         */
-        private final String raw;
+    private static class QuotedCursor extends OffsetTokenCursor {
 
         /**
          * Should flags be parsed.
@@ -41,19 +34,9 @@ public class QuotedSplit implements ArgumentSplitter {
         private final boolean parseFlags;
 
         /**
-         * The parsed arguments.
-         */
-        private LinkedList<String> arguments = new LinkedList<String>();
-
-        /**
-         * Holds the current value of the argument.
+         * The offset of the next character.
          */
-        private StringBuilder cArgument = new StringBuilder();
-
-        /**
-         * Contains the currently recognized flags.
-         */
-        private StringBuilder flags = new StringBuilder();
+        private int position = 0;
 
         /**
          * Is the next character is escaped?
@@ -76,86 +59,140 @@ public class QuotedSplit implements ArgumentSplitter {
         private boolean expectFlags = true;
 
         /**
-         * The current quote-char.
+         * The current quote-char. {@code 0} if we are not inside quotes.
+         */
+        private char quoteChar = 0;
+
+        /**
+         * The amount of characters in the current argument.
+         */
+        private int length = 0;
+
+        /**
+         * The offset of the first character of the current argument.
+         */
+        private int start = 0;
+
+        /**
+         * The offset after the last character of the current argument.
+         */
+        private int end = 0;
+
+        /**
+         * The quote-char that was active when the first character of the argument was added.
+         */
+        private char startQuote = 0;
+
+        /**
+         * Have characters been skipped inside the current argument?
          */
-        private Character quoteChar = null;
+        private boolean dirty = false;
 
         /**
-         * Prepares the quoted split executor.
+         * Has an argument been added during the current call of {@link #parseNext()}.
          */
-        private QuotedSplitExecutor(String raw, boolean parseFlags) {
-            this.raw = raw;
+        private boolean added = false;
+
+        /**
+         * Prepares the quoted split cursor.
+         */
+        private QuotedCursor(String raw, boolean parseFlags) {
+            super(raw);
             this.parseFlags = parseFlags;
         }
 
         /**
-         * Adds a character to the appropriate StringBuilder-Instance.
-         * @param c The character to add.
+         * Adds a character to the flags or the current argument.
+         * @param position  The offset of the character.
+         * @param c         The character to add.
          */
-        public void addCharacter(char c) {
+        private void addCharacter(int position, char c) {
             // If the character is escaped, remove the escape-mode.
-            if (this.isEscaped) this.isEscaped = false;
+            this.isEscaped = false;
 
             // If the parser is currently parsing flags,
             if (this.inFlag && this.expectFlags) {
                 // Check if the flag is already known.
-                if (!this.flags.toString().contains(new String(new char[]{c})))
-                    this.flags.append(c);
+                if (!this.containsFlag(c))
+                    this.addFlag(c);
 
                 // If the parser is not parsing a flag,
             } else {
                 // But is currently expecting a flag, make the parser don't expect a flag.
-                if (this.expectFlags) this.expectFlags = false;
+                this.expectFlags = false;
 
                 // Add the character to the argument.
-                this.cArgument.append(c);
+                if (this.length == 0) {
+                    this.start = position;
+                    this.startQuote = this.quoteChar;
+                    this.dirty = false;
+                } else if (this.end != position) {
+                    // Characters have been skipped.
+                    this.dirty = true;
+                }
+                this.end = position + 1;
+                this.length++;
             }
         }
 
         /**
          * Adds the new attribute to the argument list.
          */
-        public void newAttribute() {
+        private void newAttribute() {
             if (this.inFlag) {
                 this.inFlag = false;
+            } else if (this.length == 0) {
+                this.addToken(0, 0, 0);
+                this.added = true;
             } else {
-                this.arguments.add(this.cArgument.toString());
+                this.addToken(this.start, this.end, this.dirty ? (this.startQuote << 1) | 1 : 0);
+                this.added = true;
             }
             this.wasQuoted = false;
-            this.cArgument = new StringBuilder();
+            this.length = 0;
         }
 
         /**
-         * Executes the split algorithm.
+         * Empty quoted arguments do not end the flags, so flags may follow the first token.
          */
-        public void execute() {
+        @Override
+        protected boolean isParsingFlags() {
+            return this.parseFlags && this.expectFlags;
+        }
+
+        @Override
+        protected boolean parseNext() {
+            this.added = false;
 
-            for (char c : this.raw.toCharArray()) {
+            while (this.position < this.raw.length()) {
+                int position = this.position++;
+                char c = this.raw.charAt(position);
 
                 switch (c) {
 
                     // Handle spaces.
                     case ' ':
                         // Just add the space if it is escaped.
-                        if (this.isEscaped || this.quoteChar != null) {
-                            this.addCharacter(c);
+                        if (this.isEscaped || this.quoteChar != 0) {
+                            this.addCharacter(position, c);
                             continue;
                         }
 
                         // Ignore the space if the current argument is empty.
                         if (!this.inFlag)
-                            if (this.cArgument.length() == 0 && !this.wasQuoted) continue;
+                            if (this.length == 0 && !this.wasQuoted) continue;
 
                         // Parse next attribute after this character.
                         this.newAttribute();
+                        if (this.added)
+                            return true;
                         continue;
 
                     case '\\':
                         if (this.isEscaped) {
-                            this.addCharacter(c);
+                            this.addCharacter(position, c);
                         } else {
                             this.isEscaped = true;
-
                         }
                         continue;
 
@@ -163,19 +200,19 @@ public class QuotedSplit implements ArgumentSplitter {
                     case '"':
                     case '\'':
                         // Just add the character if it is escaped or quoted with the other quote character.
-                        if (this.isEscaped || (!new Character(c).equals(this.quoteChar) && this.quoteChar!=null)) {
-                            this.addCharacter(c);
+                        if (this.isEscaped || (c != this.quoteChar && this.quoteChar != 0)) {
+                            this.addCharacter(position, c);
                             continue;
                         }
 
                         // If there is no quote character, set the quote-character to this one.
-                        if (this.quoteChar == null) {
+                        if (this.quoteChar == 0) {
                             this.wasQuoted = true;
                             this.quoteChar = c;
 
                             // Otherwise disable the quote-mode.
                         } else {
-                            this.quoteChar = null;
+                            this.quoteChar = 0;
                         }
                         continue;
 
@@ -191,36 +228,69 @@ public class QuotedSplit implements ArgumentSplitter {
                         }
 
                         // Adds a character to the flag (or attribute).
-                        this.addCharacter(c);
+                        this.addCharacter(position, c);
                         continue;
 
                     // Handle other characters.
                     default:
-                        this.addCharacter(c);
+                        this.addCharacter(position, c);
                 }
             }
 
             // If there is an argument left, just add the argument.
-            if (this.cArgument.length() > 0) this.newAttribute();
+            if (this.length > 0) this.newAttribute();
+            return false;
         }
 
         /**
-         * Parses the value.
-         * @param value The value to parse.
-         * @return The new value.
+         * Replays the quotes and escapes inside the argument.
+         * Flags cannot occur inside an argument.
          */
-        public static String[] getParserResult(String value, boolean parseFlags) {
-            QuotedSplitExecutor executor = new QuotedSplitExecutor(value, parseFlags);
-            executor.execute();
+        @Override
+        protected String unescape(int start, int end, int marker) {
+            StringBuilder result = new StringBuilder(end - start);
+
+            // The first character has always been added.
+            result.append(this.raw.charAt(start));
+
+            boolean isEscaped = false;
+            char quoteChar = (char) (marker >>> 1);
+            for (int i = start + 1; i < end; i++) {
+                char c = this.raw.charAt(i);
+                switch (c) {
+                    case '\\':
+                        if (!isEscaped) {
+                            isEscaped = true;
+                            continue;
+                        }
+                        break;
 
-            if (parseFlags)
-                executor.arguments.addFirst(executor.flags.toString());
-            return executor.arguments.toArray(new String[executor.arguments.size()]);
+                    case '"':
+                    case '\'':
+                        if (isEscaped || (c != quoteChar && quoteChar != 0))
+                            break;
+
+                        quoteChar = quoteChar == 0 ? c : 0;
+                        continue;
+
+                    default:
+                        break;
+                }
+
+                isEscaped = false;
+                result.append(c);
+            }
+            return result.toString();
         }
     }
 
+    @Override
+    public TokenCursor tokenize(String raw, boolean parseFlags) {
+        return new QuotedCursor(raw, parseFlags);
+    }
+
     @Override
     public String[] split(String args, boolean parseFlags) {
-        return QuotedSplitExecutor.getParserResult(args, parseFlags);
+        return this.tokenize(args, parseFlags).toArray(parseFlags);
     }
 }
@@ -18,28 +18,92 @@
 
 package moe.encode.airblock.commands.arguments.split;
 
-import org.apache.commons.lang3.ArrayUtils;
-
 /**
  * A simple splitter that just splits after every space.
  */
-public class SimpleSplit implements ArgumentSplitter {
+public class SimpleSplit implements TokenizingSplitter {
 
-    @Override
-    public String[] split(String raw, boolean parseFlags) {
-        String[] rawSplit = raw.split(" ");
-        if (rawSplit.length == 0) {
-            return new String[] {""};
+    /**
+     * Tokenizes the string on demand.<p />
+     *
+     * Behaves like {@code raw.split(" ")}, so trailing empty arguments are dropped.
+     */
+    private static class SimpleCursor extends OffsetTokenCursor {
+
+        /**
+         * Should flags be parsed.
+         */
+        private final boolean parseFlags;
+
+        /**
+         * The offset after the last character that is not a space.
+         */
+        private final int limit;
+
+        /**
+         * The offset of the next argument.
+         */
+        private int position = 0;
+
+        /**
+         * Creates a new cursor.
+         * @param raw         The raw string.
+         * @param parseFlags  Should flags be parsed.
+         */
+        private SimpleCursor(String raw, boolean parseFlags) {
+            super(raw);
+            this.parseFlags = parseFlags;
+
+            int limit = raw.length();
+            while (limit > 0 && raw.charAt(limit - 1) == ' ')
+                limit--;
+            this.limit = limit;
+
+            if (raw.isEmpty()) {
+                // "".split(" ") returns the empty string.
+                this.addToken(0, 0, 0);
+            } else if (limit == 0 && !parseFlags) {
+                // Only spaces: The splitter always returned a single empty string.
+                this.addToken(0, 0, 0);
+            }
         }
 
-        if (parseFlags) {
-            if (rawSplit[0].startsWith("-")) {
-                rawSplit[0] = rawSplit[0].substring(1);
-            } else {
-                return ArrayUtils.add(rawSplit, 0, "");
+        @Override
+        protected boolean parseNext() {
+            while (this.position < this.limit) {
+                int start = this.position;
+                int end = this.raw.indexOf(' ', start);
+                if (end == -1 || end > this.limit)
+                    end = this.limit;
+                this.position = end + 1;
+
+                if (start == 0 && this.parseFlags) {
+                    if (end > 0 && this.raw.charAt(0) == '-') {
+                        for (int i = 1; i < end; i++)
+                            this.addFlag(this.raw.charAt(i));
+                        continue;
+                    }
+                }
+
+                this.addToken(start, end, 0);
+                return this.position < this.limit;
             }
+            return false;
         }
 
-        return rawSplit;
+        @Override
+        protected String unescape(int start, int end, int marker) {
+            return this.raw.substring(start, end);
+        }
+    }
+
+    @Override
+    public TokenCursor tokenize(String raw, boolean parseFlags) {
+        return new SimpleCursor(raw, parseFlags);
+    }
+
+    @Override
+    public String[] split(String raw, boolean parseFlags) {
+        return this.tokenize(raw, parseFlags).toArray(parseFlags);
     }
 }
@@ -0,0 +1,123 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.arguments.split;
+
+/**
+ * <p>Provides access to the tokens of a split argument string.</p>
+ * <p>
+ *     In contrast to {@link ArgumentSplitter#split(String, boolean)} a cursor does not need
+ *     to split the whole string at once. Implementations may tokenize the string on demand
+ *     and only create the strings of the tokens that are actually requested.
+ * </p>
+ * <p>
+ *     Cursors are not thread-safe.
+ * </p>
+ */
+public abstract class TokenCursor {
+
+    /**
+     * Checks if there is a token at the given index. Tokenizes the string
+     * only as far as required to answer the question.
+     * @param index The index of the token.
+     * @return {@code true} if the token exists.
+     */
+    public abstract boolean hasToken(int index);
+
+    /**
+     * Returns the amount of tokens.
+     * @return The amount of tokens.
+     */
+    public abstract int size();
+
+    /**
+     * Returns the token at the given index.
+     * @param index The index of the token.
+     * @return The token.
+     * @throws IndexOutOfBoundsException If there is no such token.
+     */
+    public abstract String getToken(int index);
+
+    /**
+     * Returns all flags that have been passed.
+     * @return All flags that have been passed.
+     */
+    public abstract String getFlags();
+
+    /**
+     * Checks if the flag has been passed.
+     * @param flag The flag.
+     * @return {@code true} if the flag has been passed.
+     */
+    public abstract boolean hasFlag(char flag);
+
+    /**
+     * Returns the tokens in the format of {@link ArgumentSplitter#split(String, boolean)}.
+     * @param withFlags Should the flags be prepended.
+     * @return The tokens.
+     */
+    public String[] toArray(boolean withFlags) {
+        int offset = withFlags ? 1 : 0;
+        String[] result = new String[this.size() + offset];
+        if (withFlags)
+            result[0] = this.getFlags();
+        for (int i = 0; i < result.length - offset; i++)
+            result[i + offset] = this.getToken(i);
+        return result;
+    }
+
+    /**
+     * Creates a cursor over an already split string.
+     * @param split       The result of {@link ArgumentSplitter#split(String, boolean)}.
+     * @param parseFlags  Does the first element contain the flags?
+     * @return The cursor.
+     */
+    public static TokenCursor of(final String[] split, boolean parseFlags) {
+        final int offset = parseFlags ? 1 : 0;
+        final String flags = parseFlags ? split[0] : "";
+
+        return new TokenCursor() {
+            @Override
+            public boolean hasToken(int index) {
+                return index >= 0 && index < this.size();
+            }
+
+            @Override
+            public int size() {
+                return split.length - offset;
+            }
+
+            @Override
+            public String getToken(int index) {
+                if (!this.hasToken(index))
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size());
+                return split[index + offset];
+            }
+
+            @Override
+            public String getFlags() {
+                return flags;
+            }
+
+            @Override
+            public boolean hasFlag(char flag) {
+                return flags.indexOf(flag) != -1;
+            }
+        };
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.arguments.split;
+
+/**
+ * A splitter that can tokenize the arguments on demand.
+ */
+public interface TokenizingSplitter extends ArgumentSplitter {
+
+    /**
+     * <p>Creates a cursor over the tokens of the string.</p>
+     * <p>
+     *     The tokens and flags of the cursor must be the same as the result of
+     *     {@link #split(String, boolean)}.
+     * </p>
+     * @param raw         The raw string that should be split.
+     * @param parseFlags  Should flags be parsed.
+     * @return The cursor.
+     */
+    public TokenCursor tokenize(String raw, boolean parseFlags);
+
+}
@@ -21,11 +21,14 @@ package moe.encode.airblock.commands.arguments.types;
 import moe.encode.airblock.commands.Executor;
 import moe.encode.airblock.commands.arguments.ArgumentConverter;
 import moe.encode.airblock.commands.arguments.ArgumentParser;
+import moe.encode.airblock.commands.arguments.SpecializingParser;
 import moe.encode.airblock.utils.ReflectionUtils;
 
 import javax.annotation.Nonnull;
 import java.lang.reflect.Array;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Implementation of the argument parsers.
@@ -77,10 +80,96 @@ public final class ArgumentParsers {
         }
     };
 
+    /**
+     * Parses comma separated values into an array of a single type.
+     */
+    private static final class ArrayParser implements ArgumentParser<Object> {
+
+        /**
+         * The generic type of the elements.
+         */
+        private final Type componentType;
+
+        /**
+         * The class of the elements.
+         */
+        private final Class<?> componentClass;
+
+        /**
+         * The parser of the elements.
+         */
+        private final ArgumentParser<?> parser;
+
+        /**
+         * Creates a new parser.
+         * @param type       The array type.
+         * @param converter  The converter used to resolve the parser of the elements.
+         */
+        private ArrayParser(Type type, ArgumentConverter converter) {
+            this.componentType = ReflectionUtils.getGenericComponentType(type);
+            this.componentClass = ReflectionUtils.toClass(type).getComponentType();
+            this.parser = converter.getParserFor(this.componentType);
+        }
+
+        @Override
+        public boolean canConvert(ArgumentConverter parser, Type type) {
+            return ARRAY.canConvert(parser, type);
+        }
+
+        @Override
+        public Object convert(Executor executor, ArgumentConverter converter, Type type, String value) {
+            String[] values = value.split(",");
+            Object result = Array.newInstance(this.componentClass, values.length);
+            for (int i = 0; i<values.length;i++)
+                Array.set(result, i, this.parser.convert(executor, converter, this.componentType, values[i]));
+            return result;
+        }
+    }
+
+    /**
+     * Parses comma separated values into a list of a single type.
+     */
+    private static final class ListParser implements ArgumentParser<Object> {
+
+        /**
+         * The generic type of the elements.
+         */
+        private final Type elementType;
+
+        /**
+         * The parser of the elements.
+         */
+        private final ArgumentParser<?> parser;
+
+        /**
+         * Creates a new parser.
+         * @param type       The list type.
+         * @param converter  The converter used to resolve the parser of the elements.
+         */
+        private ListParser(Type type, ArgumentConverter converter) {
+            this.elementType = ReflectionUtils.getGenericArguments(type)[0];
+            this.parser = converter.getParserFor(this.elementType);
+        }
+
+        @Override
+        public boolean canConvert(ArgumentConverter parser, Type type) {
+            return LIST.canConvert(parser, type);
+        }
+
+        @Override
+        public Object convert(Executor executor, ArgumentConverter converter, Type type, String value) {
+            String[] values = value.split(",");
+            List<Object> result = new ArrayList<Object>(values.length);
+            for (String element : values)
+                result.add(this.parser.convert(executor, converter, this.elementType, element));
+            return result;
+        }
+    }
+
     /**
      * Parser that parses arrays.
      */
-    public static final ArgumentParser<Object> ARRAY = new ArgumentParser<Object>() {
+    public static final ArgumentParser<Object> ARRAY = new SpecializingParser<Object>() {
         @Override
         public boolean canConvert(ArgumentConverter parser, Type type) {
             if (!ReflectionUtils.toClass(type).isArray())
@@ -88,16 +177,38 @@ public final class ArgumentParsers {
             return parser.getParserFor(ReflectionUtils.getGenericComponentType(type)) != null;
         }
 
+        @Override
+        public ArgumentParser<Object> specialize(ArgumentConverter converter, Type type) {
+            return new ArrayParser(type, converter);
+        }
+
         @Override
         public Object convert(Executor executor, ArgumentConverter converter, Type type, String value) {
-            Type componentType = ReflectionUtils.getGenericComponentType(type);
-            ArgumentParser p = converter.getParserFor(componentType);
+            return this.specialize(converter, type).convert(executor, converter, type, value);
+        }
+    };
 
-            String[] values = value.split(",");
-            Object result = Array.newInstance(ReflectionUtils.toClass(type).getComponentType(), values.length);
-            for (int i = 0; i<values.length;i++)
-                Array.set(result, i, p.convert(executor, converter, componentType, values[i]));
-            return result;
+    /**
+     * Parser that parses lists.
+     */
+    public static final ArgumentParser<Object> LIST = new SpecializingParser<Object>() {
+        @Override
+        public boolean canConvert(ArgumentConverter parser, Type type) {
+            if (!List.class.equals(ReflectionUtils.toClass(type)))
+                return false;
+
+            Type[] arguments = ReflectionUtils.getGenericArguments(type);
+            return arguments.length == 1 && parser.getParserFor(arguments[0]) != null;
+        }
+
+        @Override
+        public ArgumentParser<Object> specialize(ArgumentConverter converter, Type type) {
+            return new ListParser(type, converter);
+        }
+
+        @Override
+        public Object convert(Executor executor, ArgumentConverter converter, Type type, String value) {
+            return this.specialize(converter, type).convert(executor, converter, type, value);
         }
     };
 
@@ -111,7 +222,8 @@ public final class ArgumentParsers {
                 STRING,
                 PRIMITIVE,
                 ENUM,
-                ARRAY
+                ARRAY,
+                LIST
         };
     }
 
@@ -23,21 +23,180 @@ import moe.encode.airblock.commands.arguments.ArgumentConverter;
 import moe.encode.airblock.commands.arguments.ArgumentParser;
 import moe.encode.airblock.commands.contrib.locales.LocaleResolver;
 import moe.encode.airblock.commands.localization.TranslationManager;
+import moe.encode.airblock.commands.localization.TranslationResolver;
 import moe.encode.airblock.utils.ReflectionUtils;
 import org.apache.commons.lang3.ClassUtils;
 
 import java.lang.reflect.Type;
+import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.text.ParseException;
-import java.util.Arrays;
-import java.util.List;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Parser for primitives.
+ * <p>Parser for primitives.</p>
+ * <p>
+ *     Plain numbers like {@code -123} or {@code 1.5} are parsed directly. All other values
+ *     (e.g. values with grouping separators) are parsed using the number format of the
+ *     locale of the executor. The formats are cached per thread.
+ * </p>
  */
 public class PrimitiveParser implements ArgumentParser<Object> {
 
+    /**
+     * The maximal amount of digits we parse without the number format.
+     */
+    private static final int MAX_FAST_DIGITS = 17;
+
+    /**
+     * The symbols of a locale we need for parsing numbers.
+     */
+    private static class NumberSymbols {
+
+        /**
+         * Can plain numbers be parsed without the number format?
+         */
+        final boolean plain;
+
+        /**
+         * The decimal separator.
+         */
+        final char decimalSeparator;
+
+        /**
+         * Are negative numbers written with a leading ascii minus sign?
+         */
+        final boolean asciiMinus;
+
+        /**
+         * Creates the symbols for the given locale.
+         * @param locale The locale.
+         */
+        NumberSymbols(Locale locale) {
+            NumberFormat format = NumberFormat.getNumberInstance(locale);
+            if (format instanceof DecimalFormat) {
+                DecimalFormat df = (DecimalFormat) format;
+                this.plain = df.getPositivePrefix().isEmpty() && df.getPositiveSuffix().isEmpty()
+                        && df.getMultiplier() == 1;
+                this.decimalSeparator = df.getDecimalFormatSymbols().getDecimalSeparator();
+                this.asciiMinus = "-".equals(df.getNegativePrefix()) && df.getNegativeSuffix().isEmpty();
+            } else {
+                this.plain = false;
+                this.decimalSeparator = '.';
+                this.asciiMinus = false;
+            }
+        }
+    }
+
+    /**
+     * The translated values for true and false.
+     */
+    private static class BooleanVocabulary {
+
+        /**
+         * The resolver of the translation manager when the vocabulary was created.
+         */
+        final TranslationResolver resolver;
+
+        /**
+         * All values that mean true.
+         */
+        final String[] trueValues;
+
+        /**
+         * All values that mean false.
+         */
+        final String[] falseValues;
+
+        /**
+         * Loads the vocabulary.
+         * @param manager  The translation manager.
+         * @param locale   The locale.
+         */
+        BooleanVocabulary(TranslationManager manager, Locale locale) {
+            this.resolver = manager.getResolver();
+            this.trueValues = manager.translate(locale, "true").toLowerCase().split(",");
+            this.falseValues = manager.translate(locale, "false").toLowerCase().split(",");
+        }
+
+        /**
+         * Checks if the value is contained in the array.
+         * @param values  The values.
+         * @param value   The value.
+         * @return {@code true} if the value is contained.
+         */
+        static boolean contains(String[] values, String value) {
+            for (String v : values)
+                if (v.equals(value))
+                    return true;
+            return false;
+        }
+    }
+
+    /**
+     * The symbols of each locale.
+     */
+    private final ConcurrentMap<Locale, NumberSymbols> symbols = new ConcurrentHashMap<Locale, NumberSymbols>();
+
+    /**
+     * The number formats of each locale. Number formats are not thread-safe.
+     */
+    private final ThreadLocal<Map<Locale, NumberFormat>> formats = new ThreadLocal<Map<Locale, NumberFormat>>() {
+        @Override
+        protected Map<Locale, NumberFormat> initialValue() {
+            return new HashMap<Locale, NumberFormat>();
+        }
+    };
+
+    /**
+     * The boolean vocabularies of each translation manager and locale.
+     */
+    private final Map<TranslationManager, ConcurrentMap<Locale, BooleanVocabulary>> vocabularies =
+            Collections.synchronizedMap(new WeakHashMap<TranslationManager, ConcurrentMap<Locale, BooleanVocabulary>>());
+
+    /**
+     * Returns the locale of the executor.
+     * @param executor The executor.
+     * @return The locale.
+     */
+    private static Locale getLocale(Executor executor) {
+        LocaleResolver resolver = TranslationManager.getResolver(executor);
+        Locale locale = null;
+        if (resolver != null)
+            locale = resolver.getLocale();
+        if (locale == null)
+            locale = Locale.ENGLISH;
+        return locale;
+    }
+
+    /**
+     * Returns the vocabulary for the given locale.
+     * @param manager The translation manager.
+     * @param locale  The locale.
+     * @return The vocabulary.
+     */
+    private BooleanVocabulary getVocabulary(TranslationManager manager, Locale locale) {
+        ConcurrentMap<Locale, BooleanVocabulary> cache = this.vocabularies.get(manager);
+        if (cache == null) {
+            cache = new ConcurrentHashMap<Locale, BooleanVocabulary>();
+            this.vocabularies.put(manager, cache);
+        }
+
+        BooleanVocabulary vocabulary = cache.get(locale);
+        // Reload the vocabulary if the translations have been replaced.
+        if (vocabulary == null || vocabulary.resolver != manager.getResolver()) {
+            vocabulary = new BooleanVocabulary(manager, locale);
+            cache.put(locale, vocabulary);
+        }
+        return vocabulary;
+    }
+
     /**
      * Checks if the value is true or false.
      * @param executor  The executor.
@@ -47,22 +206,223 @@ public class PrimitiveParser implements ArgumentParser<Object> {
      */
     private boolean isTrue(Executor executor, String value) {
         // Get the actual translation values for the boolean values.
-        String rawTrue = executor.getEnvironment().getTranslationManager().translate(executor, "true").toLowerCase();
-        String rawFalse = executor.getEnvironment().getTranslationManager().translate(executor, "false").toLowerCase();
-
-        // Retrieve true and false values from the translation subsystem.
-        List<String> trueValues = Arrays.asList(rawTrue.split(","));
-        List<String> falseValues = Arrays.asList(rawFalse.split(","));
+        BooleanVocabulary vocabulary = this.getVocabulary(
+                executor.getEnvironment().getTranslationManager(), PrimitiveParser.getLocale(executor)
+        );
 
         // Check the values.
-        if (trueValues.contains(value.toLowerCase()))
+        String lower = value.toLowerCase();
+        if (BooleanVocabulary.contains(vocabulary.trueValues, lower))
             return true;
-        if (falseValues.contains(value.toLowerCase()))
+        if (BooleanVocabulary.contains(vocabulary.falseValues, lower))
             return false;
 
         throw new NumberFormatException("Unsupported flag expression");
     }
 
+    /**
+     * Returns the symbols of the locale.
+     * @param locale The locale.
+     * @return The symbols.
+     */
+    private NumberSymbols getSymbols(Locale locale) {
+        NumberSymbols result = this.symbols.get(locale);
+        if (result == null) {
+            result = new NumberSymbols(locale);
+            this.symbols.put(locale, result);
+        }
+        return result;
+    }
+
+    /**
+     * Parses the value using the number format of the locale.
+     * @param locale The locale.
+     * @param value  The value.
+     * @return The parsed number.
+     */
+    private Number parseFormatted(Locale locale, String value) {
+        Map<Locale, NumberFormat> formats = this.formats.get();
+        NumberFormat nf = formats.get(locale);
+        if (nf == null) {
+            nf = NumberFormat.getNumberInstance(locale);
+            nf.setGroupingUsed(true);
+            formats.put(locale, nf);
+        }
+
+        try {
+            return nf.parse(value);
+        } catch (ParseException e) {
+            NumberFormatException nfe = new NumberFormatException("Invalid number");
+            nfe.initCause(e);
+            throw nfe;
+        }
+    }
+
+    /**
+     * Checks if the value only consists of digits and an optional minus sign.
+     * @param symbols The symbols of the locale.
+     * @param value   The value.
+     * @return {@code true} if the value can be parsed with {@link Long#parseLong(String)}.
+     */
+    private static boolean isPlainInteger(NumberSymbols symbols, String value) {
+        if (!symbols.plain)
+            return false;
+
+        int start = 0;
+        if (value.length() > 0 && value.charAt(0) == '-') {
+            if (!symbols.asciiMinus)
+                return false;
+            start = 1;
+        }
+
+        int digits = value.length() - start;
+        if (digits == 0 || digits > MAX_FAST_DIGITS)
+            return false;
+
+        for (int i = start; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9')
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the value only consists of digits, a single decimal separator and an optional minus sign.
+     * @param symbols The symbols of the locale.
+     * @param value   The value.
+     * @return The offset of the decimal separator or {@code -1} if the value is not a plain decimal.
+     */
+    private static int findPlainDecimal(NumberSymbols symbols, String value) {
+        if (!symbols.plain)
+            return -1;
+
+        int start = 0;
+        if (value.length() > 0 && value.charAt(0) == '-') {
+            if (!symbols.asciiMinus)
+                return -1;
+            start = 1;
+        }
+
+        if (value.length() - start - 1 > MAX_FAST_DIGITS)
+            return -1;
+
+        int separator = -1;
+        for (int i = start; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == symbols.decimalSeparator && separator == -1)
+                separator = i;
+            else if (c < '0' || c > '9')
+                return -1;
+        }
+
+        // We need digits on both sides of the separator.
+        if (separator == start || separator == value.length() - 1)
+            return -1;
+        return separator;
+    }
+
+    /**
+     * Parses a plain number.
+     * @param locale  The locale.
+     * @param value   The value. Must only contain digits, the minus sign and the decimal separator.
+     * @return The parsed double.
+     */
+    private double parsePlainDouble(Locale locale, String value) {
+        char separator = this.getSymbols(locale).decimalSeparator;
+        if (separator == '.' || value.indexOf(separator) == -1)
+            return Double.parseDouble(value);
+        return Double.parseDouble(value.replace(separator, '.'));
+    }
+
+    /**
+     * Parses an int without boxing the result.
+     * @param executor The executor.
+     * @param value    The value.
+     * @return The parsed int.
+     * @throws NumberFormatException If the value is not a number.
+     */
+    public int parseInt(Executor executor, String value) {
+        Locale locale = PrimitiveParser.getLocale(executor);
+        if (isPlainInteger(this.getSymbols(locale), value))
+            return (int) Long.parseLong(value);
+        return this.parseFormatted(locale, value).intValue();
+    }
+
+    /**
+     * Parses a long without boxing the result.
+     * @param executor The executor.
+     * @param value    The value.
+     * @return The parsed long.
+     * @throws NumberFormatException If the value is not a number.
+     */
+    public long parseLong(Executor executor, String value) {
+        Locale locale = PrimitiveParser.getLocale(executor);
+        if (isPlainInteger(this.getSymbols(locale), value))
+            return Long.parseLong(value);
+        return this.parseFormatted(locale, value).longValue();
+    }
+
+    /**
+     * Parses a double without boxing the result.
+     * @param executor The executor.
+     * @param value    The value.
+     * @return The parsed double.
+     * @throws NumberFormatException If the value is not a number.
+     */
+    public double parseDouble(Executor executor, String value) {
+        Locale locale = PrimitiveParser.getLocale(executor);
+        NumberSymbols symbols = this.getSymbols(locale);
+        if (isPlainInteger(symbols, value)) {
+            long result = Long.parseLong(value);
+            // "-0" is parsed as negative zero by the number format.
+            if (result != 0 || value.charAt(0) != '-')
+                return result;
+        } else if (findPlainDecimal(symbols, value) != -1) {
+            return this.parsePlainDouble(locale, value);
+        }
+        return this.parseFormatted(locale, value).doubleValue();
+    }
+
+    /**
+     * Parses a float.
+     * @param executor The executor.
+     * @param value    The value.
+     * @return The parsed float.
+     * @throws NumberFormatException If the value is not a number.
+     */
+    private float parseFloat(Executor executor, String value) {
+        Locale locale = PrimitiveParser.getLocale(executor);
+        NumberSymbols symbols = this.getSymbols(locale);
+        if (isPlainInteger(symbols, value)) {
+            long result = Long.parseLong(value);
+            if (result != 0 || value.charAt(0) != '-')
+                return (float) result;
+        } else if (findPlainDecimal(symbols, value) != -1) {
+            return (float) this.parsePlainDouble(locale, value);
+        }
+        return this.parseFormatted(locale, value).floatValue();
+    }
+
+    /**
+     * Parses a short or byte.
+     * @param executor The executor.
+     * @param value    The value.
+     * @param cls      Either {@code short.class} or {@code byte.class}.
+     * @return The parsed value.
+     * @throws NumberFormatException If the value is not a number.
+     */
+    private Object parseSmall(Executor executor, String value, Class<?> cls) {
+        Locale locale = PrimitiveParser.getLocale(executor);
+        if (isPlainInteger(this.getSymbols(locale), value)) {
+            long result = Long.parseLong(value);
+            return cls.equals(byte.class) ? (Object) (byte) result : (Object) (short) result;
+        }
+
+        Number result = this.parseFormatted(locale, value);
+        return cls.equals(byte.class) ? (Object) result.byteValue() : (Object) result.shortValue();
+    }
+
     @Override
     public boolean canConvert(ArgumentConverter parser, Type type) {
         return ClassUtils.isPrimitiveOrWrapper(ReflectionUtils.toClass(type));
@@ -77,45 +437,22 @@ public class PrimitiveParser implements ArgumentParser<Object> {
         if (cls.equals(boolean.class))
             return this.isTrue(executor, value);
         else if (cls.equals(char.class)) {
-            if (value.length() > 0)
-                throw new NumberFormatException("Character arguments cannot be longer than one characters");
+            if (value.length() != 1)
+                throw new NumberFormatException("Character arguments must be exactly one character long");
             return value.charAt(0);
         }
 
-        // Get the locale of the user and get a number-format according to it.
-        LocaleResolver resolver = TranslationManager.getResolver(executor);
-        Locale locale;
-        if (resolver!=null)
-            locale = resolver.getLocale();
-        else
-            locale = Locale.ENGLISH;
-
-        NumberFormat nf = NumberFormat.getNumberInstance(locale);
-        nf.setGroupingUsed(true);
-
-        // Parse the value.
-        Number result;
-        try {
-            result = nf.parse(value);
-        } catch (ParseException e) {
-            NumberFormatException nfe = new NumberFormatException("Invalid number");
-            nfe.initCause(e);
-            throw nfe;
-        }
-
         // Returns the value in the correct type.
         if (cls.equals(int.class))
-            return result.intValue();
+            return this.parseInt(executor, value);
         else if (cls.equals(float.class))
-            return result.floatValue();
+            return this.parseFloat(executor, value);
         else if (cls.equals(double.class))
-            return result.doubleValue();
-        else if (cls.equals(byte.class))
-            return result.byteValue();
-        else if (cls.equals(short.class))
-            return result.shortValue();
+            return this.parseDouble(executor, value);
+        else if (cls.equals(byte.class) || cls.equals(short.class))
+            return this.parseSmall(executor, value, cls);
         else if (cls.equals(long.class))
-            return result.longValue();
+            return this.parseLong(executor, value);
 
         throw new NumberFormatException("Unknown primitive type.");
     }
@@ -24,6 +24,7 @@ import lombok.NonNull;
 import moe.encode.airblock.commands.Executor;
 import moe.encode.airblock.commands.arguments.list.ArgumentList;
 import moe.encode.airblock.commands.contrib.Permissions;
+import moe.encode.airblock.commands.core.list.AliasedCommand;
 import moe.encode.airblock.commands.localization.TranslationManager;
 import moe.encode.airblock.utils.ChatColor;
 import org.apache.commons.lang3.StringUtils;
@@ -35,7 +36,7 @@ import java.util.logging.Logger;
 /**
  * The basic implementation of commands.
  */
-public class AnnotationCommand implements moe.encode.airblock.commands.core.list.Command {
+public class AnnotationCommand implements AliasedCommand {
 
     /**
      * Contains the command metadata.
@@ -63,6 +64,11 @@ public class AnnotationCommand implements moe.encode.airblock.commands.core.list
         return this.getCommand().value();
     }
 
+    @Override
+    public String[] getAliases() {
+        return this.getCommand().aliases();
+    }
+
     @Override
     public String getDescription() {
         String result = this.getCommand().description();
@@ -106,7 +112,11 @@ public class AnnotationCommand implements moe.encode.airblock.commands.core.list
      */
     @Override
     public void execute(@NonNull Executor executor, @NonNull String rawArguments) {
-        if (this.getCommand().async()) {
+        if (this.getCommand().lane()) {
+            executor.getEnvironment().getExecutionLanes().submit(
+                    executor.getUniqueExecutorIdentifier(), new CommandRunner(this, executor, rawArguments)
+            );
+        } else if (this.getCommand().async()) {
             executor.getEnvironment().getBackend().runAsynchronously(new CommandRunner(this, executor, rawArguments));
         } else {
             this.executeNow(executor, rawArguments);
@@ -130,7 +140,7 @@ public class AnnotationCommand implements moe.encode.airblock.commands.core.list
 
     public boolean checkArgumentLength(Executor executor, ArgumentList list) {
         if (this.getCommand().maxLength() > -1) {
-            if (list.size() > this.getCommand().maxLength()) {
+            if (list.hasArgument(this.getCommand().maxLength())) {
                 executor.sendMessage(ChatColor.RED + executor.getEnvironment().getTranslationManager().translate(
                         executor, TranslationManager.INVALID_COMMAND_USAGE
                 ));
@@ -139,7 +149,7 @@ public class AnnotationCommand implements moe.encode.airblock.commands.core.list
         }
 
         if (this.getCommand().minLength() > -1) {
-            if (list.size() < this.getCommand().minLength()) {
+            if (this.getCommand().minLength() > 0 && !list.hasArgument(this.getCommand().minLength() - 1)) {
                 executor.sendMessage(ChatColor.RED + executor.getEnvironment().getTranslationManager().translate(
                         executor, TranslationManager.INVALID_COMMAND_USAGE
                 ));
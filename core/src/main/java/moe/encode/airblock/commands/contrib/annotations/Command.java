@@ -151,6 +151,12 @@ public @interface Command {
      */
     public String value() default " ";
 
+    /**
+     * Returns other names the command can be invoked with.
+     * @return The aliases of the command.
+     */
+    public String[] aliases() default {};
+
     /**
      * Returns the description of the command.
      * @return The description of the command.
@@ -182,6 +188,17 @@ public @interface Command {
      */
     public boolean async() default false;
 
+    /**
+     * <p>Should this command be executed asynchronously in the lane of its executor?</p>
+     * <p>
+     *     Commands in the same lane run one after another, so two commands of the same executor
+     *     never run concurrently while commands of different executors still run in parallel.
+     *     Implies {@link #async()}.
+     * </p>
+     * @return {@code true} if the command is executed in the lane of its executor.
+     */
+    public boolean lane() default false;
+
     /**
      * Should flags be parsed.
      * @return {@code true} if flags should be supported.
@@ -44,7 +44,10 @@ public class CommandRunner implements Runnable {
     @Override
     public void run() {
         this.executor.pushContext(this.locale);
-        this.command.executeNow(this.executor, this.rawArguments);
-        this.executor.popContext();
+        try {
+            this.command.executeNow(this.executor, this.rawArguments);
+        } finally {
+            this.executor.popContext();
+        }
     }
 }
@@ -2,17 +2,16 @@ package moe.encode.airblock.commands.contrib.annotations;
 
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import moe.encode.airblock.commands.Executor;
 import moe.encode.airblock.commands.arguments.list.ArgumentList;
-import moe.encode.airblock.utils.ReflectionUtils;
+import moe.encode.airblock.commands.arguments.list.LazyArgumentList;
+import moe.encode.airblock.utils.MethodInvoker;
 
 import java.lang.reflect.Method;
 
 /**
  * Strategy that directly calls methods.
  */
-@RequiredArgsConstructor
 public class DirectMethodCallingStrategy implements CommandCallingStrategy {
 
     @Getter
@@ -22,6 +21,22 @@ public class DirectMethodCallingStrategy implements CommandCallingStrategy {
     @Getter
     public final Object object;
 
+    /**
+     * The method bound to the object.
+     */
+    private final MethodInvoker invoker;
+
+    /**
+     * Creates a new strategy.
+     * @param method  The method of the command.
+     * @param object  The instance the method is called on.
+     */
+    public DirectMethodCallingStrategy(@NonNull Method method, Object object) {
+        this.method = method;
+        this.object = object;
+        this.invoker = new MethodInvoker(method, object);
+    }
+
     /**
      * Executes the command.
      * @param command   The command that has been executed.
@@ -30,13 +45,13 @@ public class DirectMethodCallingStrategy implements CommandCallingStrategy {
      */
     @Override
     public void call(AnnotationCommand command, Executor executor, String raw) {
-        ArgumentList list = new ArgumentList(raw, executor);
+        ArgumentList list = new LazyArgumentList(raw, executor);
 
         if (!command.checkArgumentLength(executor, list))
             return;
 
         try {
-            ReflectionUtils.invoke(this.method, this.object, list);
+            this.invoker.invoke(list);
         } catch (Throwable throwable) {
             AnnotationCommand.throwError(
                     "Error occured while '" +  executor.getName() +"' executed '/" + command.getName() + " " + raw,
@@ -2,16 +2,14 @@ package moe.encode.airblock.commands.contrib.annotations;
 
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import moe.encode.airblock.commands.Executor;
-import moe.encode.airblock.utils.ReflectionUtils;
+import moe.encode.airblock.utils.MethodInvoker;
 
 import java.lang.reflect.Method;
 
 /**
  * A strategy that does not parse the method in any way.
  */
-@RequiredArgsConstructor
 public class RawMethodCallingStrategy  implements CommandCallingStrategy {
 
     @Getter
@@ -21,6 +19,22 @@ public class RawMethodCallingStrategy  implements CommandCallingStrategy {
     @Getter
     public final Object object;
 
+    /**
+     * The method bound to the object.
+     */
+    private final MethodInvoker invoker;
+
+    /**
+     * Creates a new strategy.
+     * @param method  The method of the command.
+     * @param object  The instance the method is called on.
+     */
+    public RawMethodCallingStrategy(@NonNull Method method, Object object) {
+        this.method = method;
+        this.object = object;
+        this.invoker = new MethodInvoker(method, object);
+    }
+
     /**
      * Executes the command.
      * @param command   The command that has been executed.
@@ -30,7 +44,7 @@ public class RawMethodCallingStrategy  implements CommandCallingStrategy {
     @Override
     public void call(AnnotationCommand command, Executor executor, String raw) {
         try {
-            ReflectionUtils.invoke(this.method, this.object, executor, raw);
+            this.invoker.invoke(executor, raw);
         } catch (Throwable throwable) {
             AnnotationCommand.throwError(
                     "Error occured while '" +  executor.getName() +"' executed '/" + command.getName() + " " + raw,
@@ -12,6 +12,51 @@ import java.util.List;
  */
 public class ArgumentStep extends Step {
 
+    @Override
+    public Injector compile(Annotation[] annotations, final Type type) {
+        final Argument argument = getAnnotation(Argument.class, annotations);
+        if (argument == null)
+            return null;
+
+        if (argument.to() == Integer.MIN_VALUE) {
+            return new Injector() {
+                @Override
+                public Object inject(Scope scope, Object previous) {
+                    return scope.getArgumentList().getRaw(argument.value(), type, argument.defaultValue());
+                }
+            };
+        }
+
+        final boolean array = !List.class.equals(ReflectionUtils.toClass(type)) && ReflectionUtils.toClass(type).isArray();
+        final Type cls = ArgumentStep.getElementType(argument, type);
+        return new Injector() {
+            @Override
+            public Object inject(Scope scope, Object previous) {
+                ArgumentContainer container = scope.getArgumentList().from(argument.value()).to(argument.to()).step(argument.step());
+                if (array)
+                    return container.as(cls).toArray();
+                return container.as(cls).copy();
+            }
+        };
+    }
+
+    /**
+     * Returns the type of the elements of a range.
+     * @param argument  The annotation.
+     * @param type      The type of the parameter.
+     * @return The type of a single element.
+     */
+    private static Type getElementType(Argument argument, Type type) {
+        if (!argument.type().equals(Void.class))
+            return argument.type();
+
+        if (List.class.equals(ReflectionUtils.toClass(type)))
+            return ReflectionUtils.getGenericArguments(type)[0];
+        else if (ReflectionUtils.toClass(type).isArray())
+            return ReflectionUtils.getGenericComponentType(type);
+        return type;
+    }
+
     /**
      * Injects a single object.
      *
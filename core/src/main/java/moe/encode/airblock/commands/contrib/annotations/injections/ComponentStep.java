@@ -14,6 +14,28 @@ import java.util.List;
  */
 public class ComponentStep extends Step {
 
+    @Override
+    public Injector compile(final Annotation[] annotations, final Type type) {
+        if (getAnnotation(Component.class, annotations) == null)
+            return null;
+
+        final Class<?> component = ReflectionUtils.toClass(type);
+        final Boolean array;
+        if (List.class.equals(component))
+            array = false;
+        else if (component.isArray())
+            array = true;
+        else
+            array = null;
+
+        return new Injector() {
+            @Override
+            public Object inject(Scope scope, Object previous) {
+                return ComponentStep.this.resolve(scope, component, array, previous);
+            }
+        };
+    }
+
     /**
      * Injects a single object.
      *
@@ -33,15 +55,24 @@ public class ComponentStep extends Step {
         // Handle lists and arrays.
         Boolean array = null;
 
-        Type cls = type;
-        if (List.class.equals(ReflectionUtils.toClass(cls))) {
-            cls = ReflectionUtils.getGenericArguments(type)[0];
+        Class<?> cls = ReflectionUtils.toClass(type);
+        if (List.class.equals(cls))
             array = false;
-        } else if (ReflectionUtils.toClass(cls).isArray()) {
-            cls = ReflectionUtils.getGenericComponentType(cls);
+        else if (cls.isArray())
             array = true;
-        }
 
+        return this.resolve(scope, cls, array, previous);
+    }
+
+    /**
+     * Resolves the components for the given value.
+     * @param scope      The scope of the method call.
+     * @param component  The class of the parameter.
+     * @param array      {@code true} for arrays, {@code false} for lists, {@code null} for single values.
+     * @param previous   The value injected by the previous step.
+     * @return The resolved value.
+     */
+    private Object resolve(Scope scope, Class<?> component, Boolean array, Object previous) {
         // Make sure that we use the backend if we need to.
         if (previous == null) {
             previous = scope.getExecutor().getContext().getEnvironment().getBackend();
@@ -55,11 +86,11 @@ public class ComponentStep extends Step {
 
         // Start parsing.
         if (array == null)
-            return this.forSingleItem(ReflectionUtils.toClass(type), previous);
+            return this.forSingleItem(component, previous);
         else {
             List<Object> objects = new ArrayList<Object>();
             for (Object item : (Iterable) previous) {
-                objects.add(this.forSingleItem(ReflectionUtils.toClass(type), item));
+                objects.add(this.forSingleItem(component, item));
             }
 
             if (array)
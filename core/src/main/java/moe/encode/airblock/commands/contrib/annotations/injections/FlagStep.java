@@ -8,6 +8,20 @@ import java.lang.reflect.Type;
  */
 public class FlagStep extends Step {
 
+    @Override
+    public Injector compile(Annotation[] annotations, Type type) {
+        final Flag flag = getAnnotation(Flag.class, annotations);
+        if (flag == null)
+            return null;
+
+        return new Injector() {
+            @Override
+            public Object inject(Scope scope, Object previous) {
+                return scope.getArgumentList().hasFlag(flag.value());
+            }
+        };
+    }
+
     @Override
     public Object currentStep(Scope scope, Annotation[] annotations, Type type, Object previous) {
         Flag flag = getAnnotation(Flag.class, annotations);
@@ -2,20 +2,22 @@ package moe.encode.airblock.commands.contrib.annotations.injections;
 
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import moe.encode.airblock.commands.Executor;
 import moe.encode.airblock.commands.arguments.list.ArgumentList;
+import moe.encode.airblock.commands.arguments.list.LazyArgumentList;
 import moe.encode.airblock.commands.contrib.annotations.AnnotationCommand;
 import moe.encode.airblock.commands.contrib.annotations.CommandCallingStrategy;
-import moe.encode.airblock.utils.ReflectionUtils;
+import moe.encode.airblock.utils.MethodInvoker;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
-import java.util.Arrays;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Parses the command.
  */
-@RequiredArgsConstructor
 public class InjectingMethodCallingStrategy implements CommandCallingStrategy {
 
     private static final Step[] STEPS = {
@@ -32,21 +34,67 @@ public class InjectingMethodCallingStrategy implements CommandCallingStrategy {
     @Getter
     public final Object object;
 
+    /**
+     * The method bound to the object.
+     */
+    private final MethodInvoker invoker;
+
+    /**
+     * The injectors for each parameter in the order they are applied.
+     */
+    private final Injector[][] injectors;
+
+    /**
+     * Creates a new strategy.
+     * @param method  The method of the command.
+     * @param object  The instance the method is called on.
+     */
+    public InjectingMethodCallingStrategy(@NonNull Method method, Object object) {
+        this.method = method;
+        this.object = object;
+        this.invoker = new MethodInvoker(method, object);
+        this.injectors = InjectingMethodCallingStrategy.compile(method);
+    }
+
+    /**
+     * Compiles the injectors for each parameter of the method.
+     * @param method  The method.
+     * @return The injectors for each parameter.
+     */
+    private static Injector[][] compile(Method method) {
+        Annotation[][] annotations = method.getParameterAnnotations();
+        Type[] types = method.getGenericParameterTypes();
+
+        Injector[][] result = new Injector[types.length][];
+        for (int i = 0; i<types.length; i++) {
+            List<Injector> injectors = new ArrayList<Injector>(InjectingMethodCallingStrategy.STEPS.length);
+            for (Step step : InjectingMethodCallingStrategy.STEPS) {
+                Injector injector = step.compile(annotations[i], types[i]);
+                if (injector != null)
+                    injectors.add(injector);
+            }
+            result[i] = injectors.toArray(new Injector[injectors.size()]);
+        }
+        return result;
+    }
+
     @Override
     public void call(AnnotationCommand command, Executor executor, String raw) {
-        ArgumentList list = new ArgumentList(raw, executor);
+        ArgumentList list = new LazyArgumentList(raw, executor);
         if (!command.checkArgumentLength(executor, list))
             return;
 
         Scope scope = new Scope(this.method, this.object, command, list, executor);
-        Object[] parameters = new Object[this.method.getParameterTypes().length];
-        for (Step step : InjectingMethodCallingStrategy.STEPS)
-            parameters = step.inject(scope, parameters);
-
-        System.out.println(Arrays.toString(parameters));
+        Object[] parameters = new Object[this.injectors.length];
+        for (int i = 0; i<parameters.length; i++) {
+            Object value = null;
+            for (Injector injector : this.injectors[i])
+                value = injector.inject(scope, value);
+            parameters[i] = value;
+        }
 
         try {
-            ReflectionUtils.invoke(this.method, this.object, parameters);
+            this.invoker.invoke(parameters);
         } catch (Throwable throwable) {
             AnnotationCommand.throwError(
                     "Error occured while '" + executor.getName() + "' executed '/" + command.getName() + " " + raw,
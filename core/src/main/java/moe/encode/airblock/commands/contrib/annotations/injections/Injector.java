@@ -0,0 +1,19 @@
+package moe.encode.airblock.commands.contrib.annotations.injections;
+
+/**
+ * Injects the value of a single parameter.<p />
+ *
+ * Injectors are created by {@link Step#compile(java.lang.annotation.Annotation[], java.lang.reflect.Type)}
+ * once per parameter, so they should resolve everything that does not depend on the scope in advance.
+ */
+public interface Injector {
+
+    /**
+     * Injects the value.
+     * @param scope     The scope of the method call.
+     * @param previous  The value injected by the previous step.
+     * @return The new value of the parameter.
+     */
+    public Object inject(Scope scope, Object previous);
+
+}
@@ -8,6 +8,21 @@ import java.lang.reflect.Type;
  */
 public class ScopeObjectStep extends Step {
 
+    @Override
+    public Injector compile(Annotation[] annotations, Type type) {
+        ScopeObject scopeObject = getAnnotation(ScopeObject.class, annotations);
+        if (scopeObject == null)
+            return null;
+
+        final ScopeObject.Type value = scopeObject.value();
+        return new Injector() {
+            @Override
+            public Object inject(Scope scope, Object previous) {
+                return value.getObject(scope.getExecutor());
+            }
+        };
+    }
+
     /**
      * Injects a single object.
      *
@@ -26,6 +26,25 @@ public abstract class Step {
         return result;
     }
 
+    /**
+     * Creates the injector of this step for a single parameter.<p />
+     *
+     * The default implementation calls {@link #currentStep(Scope, Annotation[], Type, Object)}
+     * with the given annotations and type.
+     *
+     * @param annotations    The annotations of the parameter.
+     * @param type           The generic type of the parameter.
+     * @return The injector or {@code null} if this step does not inject the parameter.
+     */
+    public Injector compile(final Annotation[] annotations, final Type type) {
+        return new Injector() {
+            @Override
+            public Object inject(Scope scope, Object previous) {
+                return Step.this.currentStep(scope, annotations, type, previous);
+            }
+        };
+    }
+
     /**
      * Injects a single object.
      * @param scope          The scope.
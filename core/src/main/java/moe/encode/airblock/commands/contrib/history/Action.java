@@ -28,6 +28,11 @@ import moe.encode.airblock.commands.core.settings.Environment;
  */
 public abstract class Action {
 
+    /**
+     * The size reported by actions that do not know their size.
+     */
+    public static final long DEFAULT_ESTIMATED_SIZE = 64;
+
     /**
      * The executor of the action.
      */
@@ -83,6 +88,35 @@ public abstract class Action {
      */
     public abstract String getDescription(Executor executor);
 
+    /**
+     * Merges the given action into this action.<p />
+     *
+     * Called when the action is executed right after this action. If both actions can be
+     * represented by a single action (e.g. two changes of the same block), the returned action
+     * must undo and redo the effects of both actions. Both actions have already been executed
+     * when this method is called.<p />
+     *
+     * Default: Does not merge actions.
+     *
+     * @param next The action that has been executed after this action.
+     * @return The merged action or {@code null} if the actions cannot be merged.
+     */
+    public Action coalesce(Action next) {
+        return null;
+    }
+
+    /**
+     * Returns the estimated number of bytes the action keeps in memory.<p />
+     *
+     * Used to limit the memory all histories may use. Actions that store block data
+     * or similar should override this method.
+     *
+     * @return The estimated size in bytes.
+     */
+    public long getEstimatedSize() {
+        return DEFAULT_ESTIMATED_SIZE;
+    }
+
     /**
      * Returns the description of the action.
      * @return The description.
@@ -0,0 +1,91 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.contrib.history;
+
+import moe.encode.airblock.commands.Executor;
+import moe.encode.airblock.commands.core.backend.ExecutorHandle;
+import moe.encode.airblock.commands.core.settings.Environment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An action consisting of multiple actions that are undone and redone at once.
+ */
+public class CompoundAction extends Action {
+
+    /**
+     * The actions in the order they have been executed.
+     */
+    private final List<Action> actions;
+
+    /**
+     * The estimated size of all actions.
+     */
+    private final long estimatedSize;
+
+    /**
+     * Creates a new compound action.
+     * @param owner       The owner of the action.
+     * @param environment The environment.
+     * @param actions     The actions in the order they have been executed.
+     */
+    public CompoundAction(ExecutorHandle owner, Environment environment, List<? extends Action> actions) {
+        super(owner, environment);
+        this.actions = Collections.unmodifiableList(new ArrayList<Action>(actions));
+
+        long size = 0;
+        for (Action action : this.actions)
+            size += action.getEstimatedSize();
+        this.estimatedSize = size;
+    }
+
+    /**
+     * Returns the actions in the order they have been executed.
+     * @return The actions.
+     */
+    public List<Action> getActions() {
+        return this.actions;
+    }
+
+    @Override
+    public void undo() {
+        for (int i = this.actions.size() - 1; i >= 0; i--)
+            this.actions.get(i).undo();
+    }
+
+    @Override
+    public void redo() {
+        for (Action action : this.actions)
+            action.redo();
+    }
+
+    @Override
+    public String getDescription(Executor executor) {
+        if (this.actions.isEmpty())
+            return "";
+        return this.actions.get(this.actions.size() - 1).getDescription(executor);
+    }
+
+    @Override
+    public long getEstimatedSize() {
+        return this.estimatedSize;
+    }
+}
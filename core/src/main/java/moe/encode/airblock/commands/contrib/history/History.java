@@ -61,4 +61,28 @@ public interface History {
      * @return {@code null} if there is no action to redoAction.
      */
     public Action getNextAction();
+
+    /**
+     * Starts a transaction.<p />
+     *
+     * All actions executed until {@link #commitTransaction()} is called are undone and
+     * redone at once.
+     */
+    public void beginTransaction();
+
+    /**
+     * Commits the transaction and stores its actions as a single action.
+     */
+    public void commitTransaction();
+
+    /**
+     * Aborts the transaction and undoes the actions executed since it was started.
+     */
+    public void rollbackTransaction();
+
+    /**
+     * Checks if a transaction is open.
+     * @return {@code true} if a transaction is open.
+     */
+    public boolean isInTransaction();
 }
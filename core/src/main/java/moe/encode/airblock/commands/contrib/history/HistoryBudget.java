@@ -0,0 +1,153 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.contrib.history;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Limits the memory used by the histories of all players.</p>
+ * <p>
+ *     Every action executed in a history using this budget is counted with its
+ *     {@link Action#getEstimatedSize() estimated size}. If the budget is exceeded, the
+ *     oldest actions of all histories are removed until the histories fit into the budget again.
+ * </p>
+ * <p>
+ *     Containers count their actions after releasing their lock, so an action may already be
+ *     removed or spilled when it is counted. Each entry therefore records whether it is counted
+ *     and both {@link #reserve(HistoryContainer.Entry)} and {@link #release(HistoryContainer.Entry)}
+ *     change the usage only once under the lock of the entry.
+ * </p>
+ */
+public class HistoryBudget {
+
+    /**
+     * After how many removed actions the queue is cleaned up.
+     */
+    private static final int PURGE_THRESHOLD = 1024;
+
+    /**
+     * The maximal number of bytes.
+     */
+    private final long limit;
+
+    /**
+     * The number of bytes used right now.
+     */
+    private final AtomicLong used = new AtomicLong(0);
+
+    /**
+     * The actions in the order they have been executed.
+     */
+    private final Queue<HistoryContainer.Entry> entries = new ConcurrentLinkedQueue<HistoryContainer.Entry>();
+
+    /**
+     * The number of removed actions since the last clean up.
+     */
+    private final AtomicInteger released = new AtomicInteger(0);
+
+    /**
+     * Creates a new budget.
+     * @param limit The maximal number of bytes.
+     */
+    public HistoryBudget(long limit) {
+        if (limit <= 0)
+            throw new IllegalArgumentException("The limit must be positive.");
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the maximal number of bytes.
+     * @return The maximal number of bytes.
+     */
+    public long getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * Returns the estimated number of bytes used by the histories.
+     * @return The number of bytes.
+     */
+    public long getUsed() {
+        return this.used.get();
+    }
+
+    /**
+     * Counts a new action and removes the oldest actions if the budget is exceeded.<p />
+     *
+     * Must not be called while holding the lock of a container. Actions that have been removed
+     * or spilled in the meantime are not counted.
+     *
+     * @param entry The entry of the action.
+     */
+    void reserve(HistoryContainer.Entry entry) {
+        synchronized (entry) {
+            if (entry.charged || entry.removed || entry.action == null)
+                return;
+            entry.charged = true;
+            this.used.addAndGet(entry.size);
+        }
+        this.entries.offer(entry);
+
+        while (this.used.get() > this.limit) {
+            HistoryContainer.Entry oldest = this.entries.poll();
+            if (oldest == null)
+                break;
+            // Actions in a spill do not use the heap anymore.
+            if (oldest.charged)
+                oldest.container.evict(oldest);
+        }
+    }
+
+    /**
+     * Called when an action has been removed from its history or written to a spill.<p />
+     *
+     * The caller must mark the entry as removed or spilled first.
+     *
+     * @param entry The entry of the action.
+     */
+    void release(HistoryContainer.Entry entry) {
+        synchronized (entry) {
+            if (!entry.charged)
+                return;
+            entry.charged = false;
+            this.used.addAndGet(-entry.size);
+        }
+
+        // Actions removed by their container stay in the queue, so remove them from time to time.
+        int released = this.released.incrementAndGet();
+        if (released >= PURGE_THRESHOLD && this.released.compareAndSet(released, 0))
+            this.purge();
+    }
+
+    /**
+     * Removes the actions that are not stored anymore from the queue.
+     */
+    private void purge() {
+        Iterator<HistoryContainer.Entry> iterator = this.entries.iterator();
+        while (iterator.hasNext()) {
+            HistoryContainer.Entry entry = iterator.next();
+            if (!entry.charged)
+                iterator.remove();
+        }
+    }
+}
@@ -36,12 +36,53 @@ public class HistoryComponent {
      */
     private final Environment environment;
 
+    /**
+     * The maximal number of actions per player or 0 if the number is not limited.
+     */
+    private final int maximumDepth;
+
+    /**
+     * The budget shared by the histories of all players.
+     */
+    private final HistoryBudget budget;
+
+    /**
+     * The spill old actions are written to.
+     */
+    private final HistorySpill spill;
+
     /**
      * Creates a new history-component holder.
      * @param environment The environment.
      */
     public HistoryComponent(Environment environment) {
+        this(environment, 0, null);
+    }
+
+    /**
+     * Creates a new history-component holder with a bounded history.
+     * @param environment  The environment.
+     * @param maximumDepth The maximal number of actions per player or 0 if the number is not limited.
+     * @param budget       The budget shared by the histories of all players or {@code null}.
+     */
+    public HistoryComponent(Environment environment, int maximumDepth, HistoryBudget budget) {
+        this(environment, maximumDepth, budget, null);
+    }
+
+    /**
+     * Creates a new history-component holder that writes old actions to disk.
+     * @param environment  The environment.
+     * @param maximumDepth The maximal number of actions per player or 0 if the number is not limited.
+     * @param budget       The budget shared by the histories of all players or {@code null}.
+     * @param spill        The spill old actions are written to or {@code null}.
+     */
+    public HistoryComponent(Environment environment, int maximumDepth, HistoryBudget budget, HistorySpill spill) {
+        if (maximumDepth < 0)
+            throw new IllegalArgumentException("The maximal depth must not be negative.");
         this.environment = environment;
+        this.maximumDepth = maximumDepth;
+        this.budget = budget;
+        this.spill = spill;
     }
 
     /**
@@ -51,7 +92,7 @@ public class HistoryComponent {
      */
     @Component
     public boolean undoAction(ExecutorHandle executor) {
-        HistoryContainer container = executor.wrap(this.environment).getSessions().getSession(HistoryContainer.class);
+        HistoryContainer container = this.getContainer(executor);
         return container.undo();
     }
 
@@ -62,7 +103,7 @@ public class HistoryComponent {
      */
     @Component
     public boolean redoAction(ExecutorHandle executor) {
-        HistoryContainer container = executor.wrap(this.environment).getSessions().getSession(HistoryContainer.class);
+        HistoryContainer container = this.getContainer(executor);
         return container.redo();
     }
 
@@ -74,7 +115,7 @@ public class HistoryComponent {
      */
     @Component
     public void executeAction(ExecutorHandle executor, Action action) {
-        HistoryContainer container = executor.wrap(this.environment).getSessions().getSession(HistoryContainer.class);
+        HistoryContainer container = this.getContainer(executor);
         container.execute(action);
     }
 
@@ -86,7 +127,7 @@ public class HistoryComponent {
      */
     @Component
     public List<Action> getActions(ExecutorHandle executor) {
-        HistoryContainer container = executor.wrap(this.environment).getSessions().getSession(HistoryContainer.class);
+        HistoryContainer container = this.getContainer(executor);
         return container.getActions();
     }
 
@@ -98,7 +139,7 @@ public class HistoryComponent {
      */
     @Component
     public Action getLastAction(ExecutorHandle executor) {
-        HistoryContainer container = executor.wrap(this.environment).getSessions().getSession(HistoryContainer.class);
+        HistoryContainer container = this.getContainer(executor);
         return container.getLastAction();
     }
 
@@ -110,8 +151,69 @@ public class HistoryComponent {
      */
     @Component
     public Action getNextAction(ExecutorHandle executor) {
-        HistoryContainer container = executor.wrap(this.environment).getSessions().getSession(HistoryContainer.class);
+        HistoryContainer container = this.getContainer(executor);
         return container.getNextAction();
     }
 
+    /**
+     * Starts a transaction.
+     *
+     * @param executor The executor that starts the transaction.
+     */
+    @Component
+    public void beginTransaction(ExecutorHandle executor) {
+        HistoryContainer container = this.getContainer(executor);
+        container.beginTransaction();
+    }
+
+    /**
+     * Commits the transaction.
+     *
+     * @param executor The executor that commits the transaction.
+     */
+    @Component
+    public void commitTransaction(ExecutorHandle executor) {
+        HistoryContainer container = this.getContainer(executor);
+        container.commitTransaction();
+    }
+
+    /**
+     * Aborts the transaction.
+     *
+     * @param executor The executor that aborts the transaction.
+     */
+    @Component
+    public void rollbackTransaction(ExecutorHandle executor) {
+        HistoryContainer container = this.getContainer(executor);
+        container.rollbackTransaction();
+    }
+
+    /**
+     * Checks if a transaction is open.
+     *
+     * @param executor The executor.
+     * @return {@code true} if a transaction is open.
+     */
+    @Component
+    public boolean isInTransaction(ExecutorHandle executor) {
+        HistoryContainer container = this.getContainer(executor);
+        return container.isInTransaction();
+    }
+
+    /**
+     * Returns the history of the executor.
+     * @param executor The executor.
+     * @return The history.
+     */
+    private HistoryContainer getContainer(ExecutorHandle executor) {
+        HistoryContainer container = executor.wrap(this.environment).getSessions().getSession(HistoryContainer.class);
+        if (container.getMaximumDepth() != this.maximumDepth)
+            container.setMaximumDepth(this.maximumDepth);
+        if (container.getBudget() != this.budget)
+            container.setBudget(this.budget);
+        if (this.spill != null && container.getSpill() == null)
+            container.setSpill(this.spill);
+        return container;
+    }
+
 }
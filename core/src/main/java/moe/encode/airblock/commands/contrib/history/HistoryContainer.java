@@ -20,55 +20,237 @@ package moe.encode.airblock.commands.contrib.history;
 
 import moe.encode.airblock.commands.Executor;
 import moe.encode.airblock.commands.contrib.sessions.Session;
+import moe.encode.airblock.commands.core.backend.ExecutorHandle;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
- * Defines a session that can undoAction and redoAction things.
+ * Defines a session that can undoAction and redoAction things.<p />
+ *
+ * The actions are stored in a ring buffer. If a maximal depth is set, the oldest
+ * actions are removed when new actions are executed.<p />
+ *
+ * Actions written to a spill are read back and kept on the heap once they are
+ * undone or redone.
  */
 public class HistoryContainer extends Session<Executor> {
 
+    /**
+     * The initial size of the ring buffer.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
     /**
      * Stores an action.
-     * (Note: It uses the garbage collector to make sure no object is not collected.)
      */
-    private class HistoryAction {
+    static final class Entry {
+
+        /**
+         * The container that stores the action.
+         */
+        final HistoryContainer container;
+
+        /**
+         * Reference to the action or {@code null} if the action has been written to the spill.
+         */
+        volatile Action action;
+
+        /**
+         * The location of the action in the spill.
+         */
+        volatile HistorySpill.Record record = null;
+
+        /**
+         * The budget the size of the action is counted against.
+         */
+        final HistoryBudget budget;
+
+        /**
+         * The estimated size of the action.
+         */
+        final long size;
 
         /**
-         * Reference to the action.
+         * Has the action been removed from the history?
          */
-        final Action action;
+        volatile boolean removed = false;
 
         /**
-         * The previous action.
+         * Is the size of the action counted by the budget? Guarded by the entry.
          */
-        HistoryAction previous = null;
+        volatile boolean charged = false;
 
         /**
-         * The next action.
+         * The number of entries created by the container before this entry.
          */
-        HistoryAction next = null;
+        long sequence = 0;
 
         /**
-         * Creates a new link.
-         * @param action The new action.
+         * Creates a new entry.
+         * @param container The container.
+         * @param action    The action.
+         * @param budget    The budget or {@code null}.
          */
-        public HistoryAction(Action action) {
+        Entry(HistoryContainer container, Action action, HistoryBudget budget) {
+            this.container = container;
             this.action = action;
+            this.budget = budget;
+            this.size = budget == null ? 0 : action.getEstimatedSize();
+        }
+
+        /**
+         * Returns the action without keeping it on the heap if it has to be read from the spill.
+         * @return The action.
+         */
+        Action getAction() {
+            Action action = this.action;
+            if (action != null)
+                return action;
+
+            // The action is set before the record is freed.
+            HistorySpill.Record record = this.record;
+            if (record == null)
+                return this.action;
+
+            try {
+                return this.container.spill.read(
+                        record, (ExecutorHandle) this.container.getHandle(), this.container.getEnvironment()
+                );
+            } catch (IllegalStateException e) {
+                action = this.action;
+                if (action == null)
+                    throw e;
+                return action;
+            }
+        }
+    }
+
+    /**
+     * An immutable view on the actions that were stored when the view was created.
+     */
+    private static final class Snapshot extends AbstractList<Action> implements RandomAccess {
+
+        /**
+         * The ring buffer. It is copied before the container changes it.
+         */
+        private final Entry[] entries;
+
+        /**
+         * The index of the first action.
+         */
+        private final int head;
+
+        /**
+         * The number of actions.
+         */
+        private final int size;
+
+        /**
+         * The actions that have been returned, so spilled actions are only read once.
+         */
+        private Action[] actions = null;
+
+        Snapshot(Entry[] entries, int head, int size) {
+            this.entries = entries;
+            this.head = head;
+            this.size = size;
+        }
+
+        @Override
+        public Action get(int index) {
+            if (index < 0 || index >= this.size)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+
+            synchronized (this) {
+                if (this.actions == null)
+                    this.actions = new Action[this.size];
+                else if (this.actions[index] != null)
+                    return this.actions[index];
+            }
+
+            Action action = this.entries[(this.head + index) % this.entries.length].getAction();
+            synchronized (this) {
+                if (this.actions[index] == null)
+                    this.actions[index] = action;
+                return this.actions[index];
+            }
         }
 
+        @Override
+        public int size() {
+            return this.size;
+        }
     }
 
     /**
-     * The first object in the history.
+     * The ring buffer storing the actions.
+     */
+    private Entry[] entries = new Entry[INITIAL_CAPACITY];
+
+    /**
+     * Is the ring buffer used by a snapshot?
+     */
+    private boolean shared = false;
+
+    /**
+     * The index of the oldest action.
+     */
+    private int head = 0;
+
+    /**
+     * The number of stored actions.
+     */
+    private int count = 0;
+
+    /**
+     * The number of actions that have been executed and not undone.
+     */
+    private int position = 0;
+
+    /**
+     * The maximal number of actions or 0 if the number is not limited.
+     */
+    private int maximumDepth = 0;
+
+    /**
+     * The budget new actions are counted against.
+     */
+    private HistoryBudget budget = null;
+
+    /**
+     * The spill old actions are written to.
+     */
+    private volatile HistorySpill spill = null;
+
+    /**
+     * The number of entries that have been created.
+     */
+    private long sequence = 0;
+
+    /**
+     * The number of entries that had been created when the last snapshot was taken.
+     * Older entries may still be read by a snapshot.
+     */
+    private long snapshotSequence = 0;
+
+    /**
+     * The number of actions that have been read back from the spill since the entries
+     * outside of the heap were last written to the spill again.
      */
-    final private HistoryAction baseAction = new HistoryAction(null);
+    private int faulted = 0;
 
     /**
-     * The current action.
+     * The actions of the open transaction or {@code null}.
      */
-    private HistoryAction currentAction = baseAction;
+    private List<Action> transaction = null;
+
+    /**
+     * The number of nested transactions.
+     */
+    private int transactionDepth = 0;
 
     /**
      * The lock used to synchronize action accesses.
@@ -80,10 +262,79 @@ public class HistoryContainer extends Session<Executor> {
      */
     public HistoryContainer() {}
 
+    /**
+     * Returns the maximal number of actions.
+     * @return The maximal number of actions or 0 if the number is not limited.
+     */
+    public int getMaximumDepth() {
+        synchronized (this.lock) {
+            return this.maximumDepth;
+        }
+    }
+
+    /**
+     * Sets the maximal number of actions. The oldest actions are removed if there are more actions.
+     * @param maximumDepth The maximal number of actions or 0 if the number should not be limited.
+     */
+    public void setMaximumDepth(int maximumDepth) {
+        if (maximumDepth < 0)
+            throw new IllegalArgumentException("The maximal depth must not be negative.");
+
+        synchronized (this.lock) {
+            this.maximumDepth = maximumDepth;
+            while (maximumDepth > 0 && this.count > maximumDepth)
+                this.removeOldest();
+        }
+    }
+
+    /**
+     * Returns the budget new actions are counted against.
+     * @return The budget or {@code null}.
+     */
+    public HistoryBudget getBudget() {
+        synchronized (this.lock) {
+            return this.budget;
+        }
+    }
+
+    /**
+     * Sets the budget new actions are counted against.
+     * @param budget The budget or {@code null} if the size of the history should not be limited.
+     */
+    public void setBudget(HistoryBudget budget) {
+        synchronized (this.lock) {
+            this.budget = budget;
+        }
+    }
+
+    /**
+     * Returns the spill old actions are written to.
+     * @return The spill or {@code null}.
+     */
+    public HistorySpill getSpill() {
+        return this.spill;
+    }
+
+    /**
+     * Sets the spill old actions are written to.<p />
+     *
+     * The spill of a history cannot be changed once it is set.
+     *
+     * @param spill The spill.
+     */
+    public void setSpill(HistorySpill spill) {
+        synchronized (this.lock) {
+            if (this.spill != null && this.spill != spill)
+                throw new IllegalStateException("The spill has already been set.");
+            this.spill = spill;
+        }
+    }
+
     /**
      * Executes the next action.<p />
      *
-     * The action will be executed automatically.
+     * The action will be executed automatically. If a transaction is open, the action
+     * is added to the transaction.
      *
      * @param action The action to execute.
      */
@@ -91,14 +342,91 @@ public class HistoryContainer extends Session<Executor> {
         if (action == null)
             throw new NullPointerException("action");
         this.updateAccessTime();
+        action.redo();
+
+        Entry entry = null;
+        synchronized (this.lock) {
+            if (this.transaction != null)
+                this.coalesce(this.transaction, action);
+            else
+                entry = this.store(action);
+        }
+
+        // Must not be called while holding the lock as the budget evicts actions of other containers.
+        if (entry != null && entry.budget != null)
+            entry.budget.reserve(entry);
+    }
+
+    /**
+     * Starts a transaction.<p />
+     *
+     * All actions executed until the transaction is committed are stored as a single action
+     * which is undone and redone at once. Transactions can be nested, the actions are stored when
+     * the outermost transaction is committed.
+     */
+    public void beginTransaction() {
+        this.updateAccessTime();
+        synchronized (this.lock) {
+            if (this.transactionDepth++ == 0)
+                this.transaction = new ArrayList<Action>();
+        }
+    }
+
+    /**
+     * Commits the transaction and stores its actions as a single action.
+     * @throws IllegalStateException If there is no open transaction.
+     */
+    public void commitTransaction() {
+        Entry entry = null;
+        synchronized (this.lock) {
+            if (this.transactionDepth == 0)
+                throw new IllegalStateException("There is no open transaction.");
+            if (--this.transactionDepth > 0)
+                return;
+
+            List<Action> actions = this.transaction;
+            this.transaction = null;
+            if (actions.size() == 1)
+                entry = this.store(actions.get(0));
+            else if (!actions.isEmpty())
+                entry = this.store(new CompoundAction((ExecutorHandle) this.getHandle(), this.getEnvironment(), actions));
+        }
+
+        if (entry != null && entry.budget != null)
+            entry.budget.reserve(entry);
+    }
+
+    /**
+     * Aborts the transaction and undoes its actions in reverse order.<p />
+     *
+     * Nested transactions are aborted as well, so the history can be used again right away.
+     *
+     * @throws IllegalStateException If there is no open transaction.
+     */
+    public void rollbackTransaction() {
+        this.updateAccessTime();
 
+        List<Action> actions;
         synchronized (this.lock) {
-            HistoryAction newAction = new HistoryAction(action);
-            currentAction.next = newAction;
-            newAction.previous = currentAction;
-            currentAction = newAction;
+            if (this.transactionDepth == 0)
+                throw new IllegalStateException("There is no open transaction.");
+            actions = this.transaction;
+            this.transaction = null;
+            this.transactionDepth = 0;
+        }
+
+        for (int i = actions.size() - 1; i>=0; i--)
+            actions.get(i).undo();
+    }
+
+    /**
+     * Checks if a transaction is open.
+     * @return {@code true} if a transaction is open.
+     */
+    public boolean isInTransaction() {
+        synchronized (this.lock) {
+            return this.transaction != null;
         }
-        action.redo();
     }
 
     /**
@@ -108,14 +436,19 @@ public class HistoryContainer extends Session<Executor> {
     public boolean redo() {
         this.updateAccessTime();
 
-        HistoryAction nextAction;
+        Entry entry;
+        Action nextAction;
         synchronized (this.lock) {
-            if (currentAction.next == null)
+            this.ensureNoTransaction();
+            if (this.position == this.count)
                 return false;
-            nextAction = currentAction.next;
-            currentAction = nextAction;
+            entry = this.entries[this.index(this.position)];
+            nextAction = this.load(entry);
+            this.position++;
         }
-        nextAction.action.redo();
+        if (entry.budget != null)
+            entry.budget.reserve(entry);
+        nextAction.redo();
         return true;
     }
 
@@ -126,31 +459,35 @@ public class HistoryContainer extends Session<Executor> {
     public boolean undo() {
         this.updateAccessTime();
 
-        HistoryAction lastAction;
+        Entry entry;
+        Action lastAction;
         synchronized (this.lock) {
-            lastAction = currentAction;
-            if (lastAction.action == null)
+            this.ensureNoTransaction();
+            if (this.position == 0)
                 return false;
-            currentAction = lastAction.previous;
+            this.position--;
+            entry = this.entries[this.index(this.position)];
+            lastAction = this.load(entry);
         }
-        lastAction.action.undo();
+        if (entry.budget != null)
+            entry.budget.reserve(entry);
+        lastAction.undo();
         return true;
     }
 
     /**
-     * Get all actions in the history.
+     * Get all actions in the history.<p />
+     *
+     * The list is an immutable snapshot which is created without copying the actions.
+     *
      * @return A list of all actions.
      */
     public List<Action> getActions() {
-        List<Action> result = new ArrayList<Action>();
-        HistoryAction current = this.baseAction;
-        do {
-            if (current.action != null)
-                result.add(current.action);
-            current = current.next;
-        } while (current.next != null);
-
-        return result;
+        synchronized (this.lock) {
+            this.shared = true;
+            this.snapshotSequence = this.sequence;
+            return new Snapshot(this.entries, this.head, this.count);
+        }
     }
 
     /**
@@ -158,7 +495,17 @@ public class HistoryContainer extends Session<Executor> {
      * @return The last action.
      */
     public Action getLastAction() {
-        return this.currentAction.action;
+        Entry entry;
+        Action action;
+        synchronized (this.lock) {
+            if (this.position == 0)
+                return null;
+            entry = this.entries[this.index(this.position - 1)];
+            action = this.load(entry);
+        }
+        if (entry.budget != null)
+            entry.budget.reserve(entry);
+        return action;
     }
 
     /**
@@ -168,9 +515,247 @@ public class HistoryContainer extends Session<Executor> {
      * @return {@code null} if there is no action to redoAction.
      */
     public Action getNextAction() {
-        if (this.currentAction.next == null)
-            return null;
-        return this.currentAction.next.action;
+        Entry entry;
+        Action action;
+        synchronized (this.lock) {
+            if (this.position == this.count)
+                return null;
+            entry = this.entries[this.index(this.position)];
+            action = this.load(entry);
+        }
+        if (entry.budget != null)
+            entry.budget.reserve(entry);
+        return action;
+    }
+
+    /**
+     * Removes all actions up to the given action.<p />
+     *
+     * Called by the budget when it has to free memory.
+     *
+     * @param entry The newest action to remove.
+     */
+    void evict(Entry entry) {
+        synchronized (this.lock) {
+            while (!entry.removed && this.count > 0)
+                this.removeOldest();
+        }
+    }
+
+    /**
+     * Stores an action that has been executed.
+     * @param action The action.
+     * @return The entry the size of the action has to be reserved for.
+     */
+    private Entry store(Action action) {
+        // Actions that have been undone cannot be redone anymore.
+        while (this.count > this.position) {
+            this.release(this.removeAt(this.count - 1));
+            this.count--;
+        }
+
+        if (this.position > 0) {
+            Entry last = this.entries[this.index(this.position - 1)];
+            Action merged = last.getAction().coalesce(action);
+            if (merged != null) {
+                Entry entry = this.createEntry(merged);
+                this.prepareWrite();
+                this.entries[this.index(this.position - 1)] = entry;
+                this.release(last);
+                return entry;
+            }
+        }
+
+        Entry entry = this.createEntry(action);
+        if (this.maximumDepth > 0 && this.count >= this.maximumDepth)
+            this.removeOldest();
+
+        this.ensureCapacity(this.count + 1);
+        this.entries[this.index(this.count)] = entry;
+        this.count++;
+        this.position = this.count;
+
+        // Only the most recent actions stay on the heap.
+        HistorySpill spill = this.spill;
+        if (spill != null && this.count > spill.getHeapEntries()) {
+            int heapStart = this.count - spill.getHeapEntries();
+            this.spill(spill, this.entries[this.index(heapStart - 1)]);
+
+            // Actions that have been undone or redone were read back and may be outside of the heap now.
+            if (this.faulted > 0) {
+                for (int i = 0; i<heapStart - 1; i++)
+                    this.spill(spill, this.entries[this.index(i)]);
+                this.faulted = 0;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Creates the entry of a new action.
+     * @param action The action.
+     * @return The entry.
+     */
+    private Entry createEntry(Action action) {
+        Entry entry = new Entry(this, action, this.budget);
+        entry.sequence = this.sequence++;
+        return entry;
+    }
+
+    /**
+     * Returns the action and keeps it on the heap if it had to be read from the spill.<p />
+     *
+     * The caller has to count the action against the budget after releasing the lock.
+     *
+     * @param entry The entry.
+     * @return The action.
+     */
+    private Action load(Entry entry) {
+        Action action = entry.action;
+        if (action != null)
+            return action;
+
+        HistorySpill.Record record = entry.record;
+        action = this.spill.read(record, (ExecutorHandle) this.getHandle(), this.getEnvironment());
+        entry.action = action;
+        entry.record = null;
+        this.spill.free(record);
+        this.faulted++;
+        return action;
+    }
+
+    /**
+     * Writes the action of the entry to the spill.
+     * @param spill The spill.
+     * @param entry The entry.
+     */
+    private void spill(HistorySpill spill, Entry entry) {
+        if (entry.action == null)
+            return;
+
+        HistorySpill.Record record = spill.write(entry.action);
+        if (record == null)
+            return;
+
+        entry.record = record;
+        entry.action = null;
+        if (entry.budget != null)
+            entry.budget.release(entry);
+    }
+
+    /**
+     * Adds an action to the list and merges it with the last action if possible.
+     * @param actions The actions.
+     * @param action  The new action.
+     */
+    private void coalesce(List<Action> actions, Action action) {
+        if (!actions.isEmpty()) {
+            Action merged = actions.get(actions.size() - 1).coalesce(action);
+            if (merged != null) {
+                actions.set(actions.size() - 1, merged);
+                return;
+            }
+        }
+        actions.add(action);
+    }
+
+    /**
+     * Makes sure no transaction is open.
+     */
+    private void ensureNoTransaction() {
+        if (this.transaction != null)
+            throw new IllegalStateException("Commit the transaction first.");
+    }
+
+    /**
+     * Removes the oldest action.
+     */
+    private void removeOldest() {
+        Entry entry = this.removeAt(0);
+        this.head = (this.head + 1) % this.entries.length;
+        this.count--;
+        if (this.position > 0)
+            this.position--;
+        this.release(entry);
+    }
+
+    /**
+     * Clears a slot of the ring buffer.
+     * @param offset The offset of the slot from the oldest action.
+     * @return The entry that has been stored in the slot.
+     */
+    private Entry removeAt(int offset) {
+        this.prepareWrite();
+        int index = this.index(offset);
+        Entry entry = this.entries[index];
+        this.entries[index] = null;
+        return entry;
+    }
+
+    /**
+     * Marks the action as removed.
+     * @param entry The entry of the action.
+     */
+    private void release(Entry entry) {
+        entry.removed = true;
+        HistorySpill.Record record = entry.record;
+        if (record != null) {
+            // Keep the action readable for the snapshots that contain it.
+            if (entry.sequence < this.snapshotSequence) {
+                try {
+                    entry.action = this.spill.read(record, (ExecutorHandle) this.getHandle(), this.getEnvironment());
+                } catch (IllegalStateException ignored) {
+                    // The snapshot fails when it reads the action.
+                }
+            }
+            this.spill.free(record);
+        }
+        if (entry.budget != null)
+            entry.budget.release(entry);
+    }
+
+    /**
+     * Makes sure the ring buffer can store the given number of actions.
+     * @param capacity The number of actions.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= this.entries.length)
+            return;
+
+        int length = this.entries.length * 2;
+        if (this.maximumDepth > 0)
+            length = Math.max(Math.min(length, this.maximumDepth), capacity);
+        this.copy(length);
+    }
+
+    /**
+     * Copies the ring buffer if it is used by a snapshot.
+     */
+    private void prepareWrite() {
+        if (this.shared)
+            this.copy(this.entries.length);
+    }
+
+    /**
+     * Copies the actions into a new ring buffer.
+     * @param length The length of the new ring buffer.
+     */
+    private void copy(int length) {
+        Entry[] entries = new Entry[length];
+        for (int i = 0; i<this.count; i++)
+            entries[i] = this.entries[this.index(i)];
+        this.entries = entries;
+        this.head = 0;
+        this.shared = false;
+    }
+
+    /**
+     * Returns the index of the slot in the ring buffer.
+     * @param offset The offset from the oldest action.
+     * @return The index.
+     */
+    private int index(int offset) {
+        return (this.head + offset) % this.entries.length;
     }
 
 }
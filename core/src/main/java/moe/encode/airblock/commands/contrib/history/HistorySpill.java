@@ -0,0 +1,332 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.contrib.history;
+
+import moe.encode.airblock.commands.core.backend.ExecutorHandle;
+import moe.encode.airblock.commands.core.settings.Environment;
+import moe.encode.airblock.configuration.storage.storage.simple.LocalStorage;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Writes old actions of histories to an append-only file.</p>
+ * <p>
+ *     Only the most recent actions of a history are kept on the heap. Older actions that
+ *     implement {@link SerializableAction} and have a registered {@link Reader} are written
+ *     to the file and read again when they are undone or redone.
+ * </p>
+ * <p>
+ *     The file is deleted when the spill is closed. Actions are appended to the file. Once
+ *     more than half of the file is used by actions that have been removed, the remaining
+ *     actions are moved to the start of the file and the file is truncated.
+ * </p>
+ */
+public class HistorySpill implements Closeable {
+
+    /**
+     * The number of unused bytes below which the file is never compacted.
+     */
+    private static final long MIN_COMPACTION_SIZE = 64 * 1024;
+
+    /**
+     * Restores an action.
+     */
+    public static interface Reader {
+
+        /**
+         * Reads the action.
+         * @param owner       The owner of the action.
+         * @param environment The environment.
+         * @param input       The data written by {@link SerializableAction#write(DataOutput)}.
+         * @return The action.
+         * @throws IOException If an I/O-Operation fails.
+         */
+        public Action read(ExecutorHandle owner, Environment environment, DataInput input) throws IOException;
+
+    }
+
+    /**
+     * The location of an action in the file.
+     */
+    static final class Record {
+
+        /**
+         * The reader of the action.
+         */
+        final Reader reader;
+
+        /**
+         * The offset in the file. Guarded by the spill.
+         */
+        long offset;
+
+        /**
+         * The length of the data.
+         */
+        final int length;
+
+        /**
+         * Has the action been removed?
+         */
+        boolean freed = false;
+
+        Record(Reader reader, long offset, int length) {
+            this.reader = reader;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * The readers of all actions.
+     */
+    private final Map<Class<?>, Reader> readers = new ConcurrentHashMap<Class<?>, Reader>();
+
+    /**
+     * The number of actions that are kept on the heap per history.
+     */
+    private final int heapEntries;
+
+    /**
+     * The file.
+     */
+    private final File file;
+
+    /**
+     * The file opened for reading and writing.
+     */
+    private final RandomAccessFile data;
+
+    /**
+     * The number of actions stored in the file.
+     */
+    private int records = 0;
+
+    /**
+     * The records in the order of their offsets. Contains freed records until the file is compacted.
+     */
+    private List<Record> written = new ArrayList<Record>();
+
+    /**
+     * The length of the file.
+     */
+    private long length = 0;
+
+    /**
+     * The number of bytes used by actions that are still stored.
+     */
+    private long used = 0;
+
+    /**
+     * Creates a new spill inside the given directory.
+     * @param directory   The directory.
+     * @param heapEntries The number of actions that are kept on the heap per history.
+     * @throws IOException If the file cannot be created.
+     */
+    public HistorySpill(File directory, int heapEntries) throws IOException {
+        if (heapEntries < 1)
+            throw new IllegalArgumentException("At least one action must be kept on the heap.");
+        this.heapEntries = heapEntries;
+
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Failed to create " + directory);
+        this.file = File.createTempFile("history", ".spill", directory);
+        this.file.deleteOnExit();
+        this.data = new RandomAccessFile(this.file, "rw");
+    }
+
+    /**
+     * Creates a new spill inside the base directory of the storage.
+     * @param storage     The storage.
+     * @param heapEntries The number of actions that are kept on the heap per history.
+     * @throws IOException If the file cannot be created.
+     */
+    public HistorySpill(LocalStorage storage, int heapEntries) throws IOException {
+        this(storage.getBaseDir(), heapEntries);
+    }
+
+    /**
+     * Returns the number of actions that are kept on the heap per history.
+     * @return The number of actions.
+     */
+    public int getHeapEntries() {
+        return this.heapEntries;
+    }
+
+    /**
+     * Returns the file the actions are written to.
+     * @return The file.
+     */
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * Registers the reader for the given action type.
+     * @param type   The type of the action.
+     * @param reader The reader.
+     * @param <T>    The type of the action.
+     */
+    public <T extends Action & SerializableAction> void registerReader(Class<T> type, Reader reader) {
+        this.readers.put(type, reader);
+    }
+
+    /**
+     * Appends the action to the file.
+     * @param action The action.
+     * @return The record or {@code null} if the action cannot be written.
+     */
+    Record write(Action action) {
+        Reader reader = this.readers.get(action.getClass());
+        if (reader == null || !(action instanceof SerializableAction))
+            return null;
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try {
+            ((SerializableAction) action).write(new DataOutputStream(buffer));
+        } catch (IOException e) {
+            return null;
+        }
+
+        synchronized (this) {
+            try {
+                long offset = this.length;
+                this.data.seek(offset);
+                this.data.write(buffer.toByteArray());
+
+                Record record = new Record(reader, offset, buffer.size());
+                this.written.add(record);
+                this.length += record.length;
+                this.used += record.length;
+                this.records++;
+                return record;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Reads an action.
+     * @param record      The record of the action.
+     * @param owner       The owner of the action.
+     * @param environment The environment.
+     * @return The action.
+     * @throws IllegalStateException If the action could not be read.
+     */
+    Action read(Record record, ExecutorHandle owner, Environment environment) {
+        byte[] buffer = new byte[record.length];
+        synchronized (this) {
+            if (record.freed)
+                throw new IllegalStateException("The action has been removed.");
+
+            try {
+                this.data.seek(record.offset);
+                this.data.readFully(buffer);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read the action.", e);
+            }
+        }
+
+        try {
+            return record.reader.read(owner, environment, new DataInputStream(new ByteArrayInputStream(buffer)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read the action.", e);
+        }
+    }
+
+    /**
+     * Called when the action has been removed from its history.
+     * @param record The record of the action.
+     */
+    synchronized void free(Record record) {
+        if (record.freed)
+            return;
+        record.freed = true;
+        this.used -= record.length;
+
+        if (--this.records == 0) {
+            try {
+                this.data.setLength(0);
+                this.length = 0;
+                this.written.clear();
+            } catch (IOException ignored) {
+                // The file is truncated the next time.
+            }
+        } else {
+            long unused = this.length - this.used;
+            if (unused >= MIN_COMPACTION_SIZE && unused > this.used)
+                this.compact();
+        }
+    }
+
+    /**
+     * Moves the stored actions to the start of the file and truncates it.
+     */
+    private void compact() {
+        List<Record> written = new ArrayList<Record>(this.records);
+        byte[] buffer = new byte[4096];
+        long position = 0;
+
+        try {
+            for (Record record : this.written) {
+                if (record.freed)
+                    continue;
+
+                if (record.offset != position) {
+                    if (buffer.length < record.length)
+                        buffer = new byte[record.length];
+                    this.data.seek(record.offset);
+                    this.data.readFully(buffer, 0, record.length);
+                    this.data.seek(position);
+                    this.data.write(buffer, 0, record.length);
+                    record.offset = position;
+                }
+
+                written.add(record);
+                position += record.length;
+            }
+
+            this.data.setLength(position);
+            this.length = position;
+            this.written = written;
+        } catch (IOException ignored) {
+            // Keep the records that have not been moved yet, the file is compacted the next time.
+            for (Record record : this.written)
+                if (!record.freed && record.offset >= position)
+                    written.add(record);
+            this.written = written;
+        }
+    }
+
+    /**
+     * Closes and deletes the file.
+     * @throws IOException If an I/O-Operation fails.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.data.close();
+        if (!this.file.delete())
+            this.file.deleteOnExit();
+    }
+}
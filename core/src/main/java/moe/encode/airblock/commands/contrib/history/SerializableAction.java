@@ -0,0 +1,41 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.contrib.history;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * <p>An action that can be written to disk.</p>
+ * <p>
+ *     If a {@link HistorySpill} is used, old actions implementing this interface are removed
+ *     from the heap and read again when they are undone or redone. A
+ *     {@link HistorySpill.Reader reader} for the action class has to be registered at the spill.
+ * </p>
+ */
+public interface SerializableAction {
+
+    /**
+     * Writes the data needed to restore the action.
+     * @param output The output.
+     * @throws IOException If an I/O-Operation fails.
+     */
+    public void write(DataOutput output) throws IOException;
+
+}
@@ -33,6 +33,17 @@ public interface Scheduler {
      */
     public Task scheduleTask(Runnable runnable, int delay, int repeat, boolean async);
 
+    /**
+     * Schedules a new task.
+     * @param runnable  The runnable to schedule.
+     * @param delay     The time to wait in milliseconds.
+     * @param repeat    The repetition period (0 means it won't be repeated)
+     * @param async     {@code true} and it runs in it's own thread | {@code false} and it runs in the main thread.
+     * @param priority  The priority of the task if it runs in the main thread.
+     * @return The task.
+     */
+    public Task scheduleTask(Runnable runnable, int delay, int repeat, boolean async, TaskPriority priority);
+
     /**
      * Schedules a new synchronous task.
      * @param runnable  The runnable to schedule.
@@ -96,4 +107,12 @@ public interface Scheduler {
      * @return A new task object.
      */
     public Task runTaskAsync(Runnable runnable);
+
+    /**
+     * Just runs a task in the main thread.
+     * @param runnable The runnable to schedule.
+     * @param priority The priority of the task.
+     * @return A new task object.
+     */
+    public Task runTask(Runnable runnable, TaskPriority priority);
 }
@@ -0,0 +1,44 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.contrib.scheduler;
+
+/**
+ * The priority of a task running in the main thread.<p />
+ *
+ * When the time budget of a tick does not suffice to run all waiting tasks, tasks
+ * with a higher priority are executed first.
+ */
+public enum TaskPriority {
+
+    /**
+     * Tasks that should run as soon as possible.
+     */
+    HIGH,
+
+    /**
+     * The default priority.
+     */
+    NORMAL,
+
+    /**
+     * Tasks that may be delayed by a few ticks.
+     */
+    LOW
+
+}
@@ -19,6 +19,7 @@
 package moe.encode.airblock.commands.contrib.scheduler.fallback;
 
 import moe.encode.airblock.commands.contrib.scheduler.Task;
+import moe.encode.airblock.commands.contrib.scheduler.TaskPriority;
 import moe.encode.airblock.commands.core.backend.BackendHandle;
 import moe.encode.airblock.commands.core.components.Component;
 import moe.encode.airblock.commands.core.components.Components;
@@ -32,8 +33,14 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
- * The fallback-scheduler.
+ * The fallback-scheduler.<p />
+ *
+ * The executor service is thread-safe, so scheduling does not take a lock and calls do not
+ * wait for each other.
+ *
+ * @deprecated Replaced by {@link moe.encode.airblock.commands.contrib.scheduler.wheel.TimingWheelScheduler}.
  */
+@Deprecated
 @Components(Scheduler.class)
 public class FallbackScheduler {
 
@@ -59,22 +66,39 @@ public class FallbackScheduler {
      * @param async     {@code true} and it runs in it's own thread | {@code false} and it runs in the main thread.
      * @return The task.
      */
-    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.SYNCHRONIZED_INSTANCE)
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
     public Task scheduleTask(BackendHandle handle, Runnable runnable, int delay, int repeat, boolean async) {
         if (repeat == 0) {
             return new BasicTask(this.service.schedule(new BasicTaskExecutor(async, handle, runnable), delay, TimeUnit.MILLISECONDS));
         } else {
-            return new BasicTask(this.service.scheduleAtFixedRate(new BasicTaskExecutor(async, handle, runnable), delay, repeat, TimeUnit.MICROSECONDS));
+            return new BasicTask(this.service.scheduleAtFixedRate(new BasicTaskExecutor(async, handle, runnable), delay, repeat, TimeUnit.MILLISECONDS));
         }
     }
 
+    /**
+     * Schedules a new task.<p />
+     *
+     * The priority is ignored.
+     *
+     * @param runnable  The runnable to schedule.
+     * @param delay     The time to wait in milliseconds.
+     * @param repeat    The repetition period (0 means it won't be repeated)
+     * @param async     {@code true} and it runs in it's own thread | {@code false} and it runs in the main thread.
+     * @param priority  The priority of the task.
+     * @return The task.
+     */
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public Task scheduleTask(BackendHandle handle, Runnable runnable, int delay, int repeat, boolean async, TaskPriority priority) {
+        return this.scheduleTask(handle, runnable, delay, repeat, async);
+    }
+
     /**
      * Schedules a new synchronous task.
      * @param runnable  The runnable to schedule.
      * @param delay     The time to wait in milliseconds.
      * @return The task.
      */
-    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.SYNCHRONIZED_INSTANCE)
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
     public Task scheduleTask(BackendHandle handle, Runnable runnable, int delay){
         return this.scheduleTask(handle, runnable, delay, 0, false);
     }
@@ -85,7 +109,7 @@ public class FallbackScheduler {
      * @param delay     The time to wait in milliseconds.
      * @return The task.
      */
-    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.SYNCHRONIZED_INSTANCE)
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
     public Task scheduleTaskAsynchronously(BackendHandle handle, Runnable runnable, int delay){
         return this.scheduleTask(handle, runnable, delay, 0, true);
     }
@@ -97,7 +121,7 @@ public class FallbackScheduler {
      * @param period    The time each execution will be waited.
      * @return The task.
      */
-    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.SYNCHRONIZED_INSTANCE)
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
     public Task scheduleRepetitiveTask(BackendHandle handle, Runnable runnable, int delay, int period){
         return this.scheduleTask(handle, runnable, delay, period, false);
     }
@@ -108,7 +132,7 @@ public class FallbackScheduler {
      * @param period    The period to wait.
      * @return The task.
      */
-    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.SYNCHRONIZED_INSTANCE)
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
     public Task scheduleRepetitiveAsynchronousTask(BackendHandle handle, Runnable runnable, int delay, int period){
         return this.scheduleTask(handle, runnable, delay, period, true);
     }
@@ -120,7 +144,7 @@ public class FallbackScheduler {
      * @param period    The time each execution will be waited.
      * @return The task.
      */
-    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.SYNCHRONIZED_INSTANCE)
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
     public Task scheduleRepetitiveTask(BackendHandle handle, Runnable runnable, int period) {
         return this.scheduleTask(handle, runnable, 0, period, false);
     }
@@ -131,7 +155,7 @@ public class FallbackScheduler {
      * @param period    The period to wait.
      * @return The task.
      */
-    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.SYNCHRONIZED_INSTANCE)
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
     public Task scheduleRepetitiveAsynchronousTask(BackendHandle handle, Runnable runnable, int period) {
         return this.scheduleTask(handle, runnable, 0, period, true);
     }
@@ -141,7 +165,7 @@ public class FallbackScheduler {
      * @param runnable The runnable to schedule.
      * @return A new task object.
      */
-    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.SYNCHRONIZED_INSTANCE)
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
     public Task runTask(BackendHandle handle, Runnable runnable) {
         return this.scheduleTask(handle, runnable, 0, 0, false);
     }
@@ -151,11 +175,25 @@ public class FallbackScheduler {
      * @param runnable The runnable to schedule.
      * @return A new task object.
      */
-    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.SYNCHRONIZED_INSTANCE)
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
     public Task runTaskAsync(BackendHandle handle, Runnable runnable) {
         return this.scheduleTask(handle, runnable, 0, 0, true);
     }
 
+    /**
+     * Just runs a task.<p />
+     *
+     * The priority is ignored.
+     *
+     * @param runnable The runnable to schedule.
+     * @param priority The priority of the task.
+     * @return A new task object.
+     */
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public Task runTask(BackendHandle handle, Runnable runnable, TaskPriority priority) {
+        return this.scheduleTask(handle, runnable, 0, 0, false);
+    }
+
     /**
      * Shutdown the executor when needed.
      * @param hook The hook.
@@ -0,0 +1,553 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.contrib.scheduler.wheel;
+
+import lombok.NonNull;
+import moe.encode.airblock.commands.contrib.scheduler.Scheduler;
+import moe.encode.airblock.commands.contrib.scheduler.Task;
+import moe.encode.airblock.commands.contrib.scheduler.TaskPriority;
+import moe.encode.airblock.commands.core.backend.BackendHandle;
+import moe.encode.airblock.commands.core.components.Component;
+import moe.encode.airblock.commands.core.components.Components;
+import moe.encode.airblock.commands.core.hooks.HookHandler;
+import moe.encode.airblock.commands.core.hooks.predefined.ShutdownHook;
+import moe.encode.airblock.commands.core.settings.Environment;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * <p>A scheduler based on a hierarchical timing wheel.</p>
+ * <p>
+ *     Time is divided into ticks. All delays and periods are given in milliseconds and are
+ *     rounded up to whole ticks. Each level of the wheel has 256 slots and each slot of a level
+ *     spans all slots of the level below, so scheduling and cancelling a task only links it into
+ *     or out of a slot. Tasks of higher levels are moved down when the wheel reaches their slot.
+ * </p>
+ * <p>
+ *     A single thread advances the wheel. Synchronous tasks are passed directly to the
+ *     {@link moe.encode.airblock.commands.contrib.threads.MainThreadMailbox} and asynchronous tasks
+ *     to the thread manager. A repeating task is skipped if its previous run has not started yet.
+ *     Asynchronous tasks are handed to the thread manager by a second thread, so a saturated pool
+ *     that runs tasks in the calling thread cannot stall the timers.
+ *     The mailbox runs the synchronous tasks by their {@link TaskPriority} within its time budget.
+ * </p>
+ */
+@Components(Scheduler.class)
+public class TimingWheelScheduler {
+
+    /**
+     * The default length of a tick in milliseconds (one server tick).
+     */
+    public static final long DEFAULT_TICK = 50;
+
+    /**
+     * The number of bits of a slot index.
+     */
+    private static final int SLOT_BITS = 8;
+
+    /**
+     * The number of slots per level.
+     */
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    /**
+     * The mask for the slot index.
+     */
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /**
+     * The number of levels.
+     */
+    private static final int LEVELS = 4;
+
+    /**
+     * The environment.
+     */
+    private final Environment environment;
+
+    /**
+     * The length of a tick in milliseconds.
+     */
+    private final long tick;
+
+    /**
+     * The heads of the slots of each level.
+     */
+    private final WheelTask[][] wheels = new WheelTask[LEVELS][SLOTS];
+
+    /**
+     * The current tick.
+     */
+    private long currentTick = 0;
+
+    /**
+     * The number of scheduled tasks.
+     */
+    private int size = 0;
+
+    /**
+     * The lock guarding the wheel.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * The time the wheel has been started at.
+     */
+    private final long start = System.nanoTime();
+
+    /**
+     * The thread advancing the wheel or {@code null}.
+     */
+    private final ScheduledExecutorService driver;
+
+    /**
+     * The thread passing asynchronous tasks to the thread manager or {@code null} if the
+     * wheel is advanced manually.
+     */
+    private final ExecutorService dispatcher;
+
+    /**
+     * Creates a new scheduler.
+     * @param environment The environment that will be used.
+     */
+    public TimingWheelScheduler(Environment environment) {
+        this(environment, DEFAULT_TICK, true);
+    }
+
+    /**
+     * Creates a new scheduler.
+     * @param environment The environment that will be used.
+     * @param tick        The length of a tick in milliseconds.
+     * @param start       Should the thread advancing the wheel be started.
+     */
+    TimingWheelScheduler(Environment environment, long tick, boolean start) {
+        if (tick <= 0)
+            throw new IllegalArgumentException("The tick must be positive.");
+
+        this.environment = environment;
+        this.tick = tick;
+        for (int level = 0; level<LEVELS; level++) {
+            for (int slot = 0; slot<SLOTS; slot++)
+                this.wheels[level][slot] = new WheelTask();
+        }
+
+        if (start) {
+            this.dispatcher = Executors.newSingleThreadExecutor(daemonThreads("AirBlock-Scheduler-Dispatch"));
+            this.driver = Executors.newSingleThreadScheduledExecutor(daemonThreads("AirBlock-Scheduler"));
+            this.driver.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    TimingWheelScheduler.this.advance();
+                }
+            }, tick, tick, TimeUnit.MILLISECONDS);
+        } else {
+            this.dispatcher = null;
+            this.driver = null;
+        }
+        environment.getHookManager().registerHooks(this);
+    }
+
+    /**
+     * Schedules a new task.
+     * @param runnable  The runnable to schedule.
+     * @param delay     The time to wait in milliseconds.
+     * @param repeat    The repetition period (0 means it won't be repeated)
+     * @param async     {@code true} and it runs in it's own thread | {@code false} and it runs in the main thread.
+     * @return The task.
+     */
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public Task scheduleTask(BackendHandle handle, Runnable runnable, int delay, int repeat, boolean async) {
+        return this.scheduleTask(handle, runnable, delay, repeat, async, TaskPriority.NORMAL);
+    }
+
+    /**
+     * Schedules a new task.
+     * @param runnable  The runnable to schedule.
+     * @param delay     The time to wait in milliseconds.
+     * @param repeat    The repetition period (0 means it won't be repeated)
+     * @param async     {@code true} and it runs in it's own thread | {@code false} and it runs in the main thread.
+     * @param priority  The priority of the task if it runs in the main thread.
+     * @return The task.
+     */
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public Task scheduleTask(BackendHandle handle, Runnable runnable, int delay, int repeat, boolean async,
+                             @NonNull TaskPriority priority) {
+        if (delay < 0 || repeat < 0)
+            throw new IllegalArgumentException("The delay and the period must not be negative.");
+
+        WheelTask task = new WheelTask(this, runnable, async, this.toTicks(repeat), priority);
+        if (delay == 0) {
+            // Run the task right away and put it into the wheel for the next run.
+            task.pending.set(true);
+            this.dispatch(task);
+            if (task.period > 0)
+                this.schedule(task, task.period);
+        } else {
+            this.schedule(task, this.toTicks(delay));
+        }
+        return task;
+    }
+
+    /**
+     * Schedules a new synchronous task.
+     * @param runnable  The runnable to schedule.
+     * @param delay     The time to wait in milliseconds.
+     * @return The task.
+     */
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public Task scheduleTask(BackendHandle handle, Runnable runnable, int delay){
+        return this.scheduleTask(handle, runnable, delay, 0, false);
+    }
+
+    /**
+     * Schedules a new synchronous task.
+     * @param runnable  The runnable to schedule.
+     * @param delay     The time to wait in milliseconds.
+     * @return The task.
+     */
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public Task scheduleTaskAsynchronously(BackendHandle handle, Runnable runnable, int delay){
+        return this.scheduleTask(handle, runnable, delay, 0, true);
+    }
+
+    /**
+     * Schedules a new repetitive task.
+     *
+     * @param runnable  The runnable to schedule.
+     * @param period    The time each execution will be waited.
+     * @return The task.
+     */
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public Task scheduleRepetitiveTask(BackendHandle handle, Runnable runnable, int delay, int period){
+        return this.scheduleTask(handle, runnable, delay, period, false);
+    }
+
+    /**
+     * Schedules a new asynchronous task.
+     * @param runnable  The runnable to schedule.
+     * @param period    The period to wait.
+     * @return The task.
+     */
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public Task scheduleRepetitiveAsynchronousTask(BackendHandle handle, Runnable runnable, int delay, int period){
+        return this.scheduleTask(handle, runnable, delay, period, true);
+    }
+
+    /**
+     * Schedules a new repetitive task.
+     *
+     * @param runnable  The runnable to schedule.
+     * @param period    The time each execution will be waited.
+     * @return The task.
+     */
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public Task scheduleRepetitiveTask(BackendHandle handle, Runnable runnable, int period) {
+        return this.scheduleTask(handle, runnable, 0, period, false);
+    }
+
+    /**
+     * Schedules a new asynchronous task.
+     * @param runnable  The runnable to schedule.
+     * @param period    The period to wait.
+     * @return The task.
+     */
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public Task scheduleRepetitiveAsynchronousTask(BackendHandle handle, Runnable runnable, int period) {
+        return this.scheduleTask(handle, runnable, 0, period, true);
+    }
+
+    /**
+     * Just runs a task.
+     * @param runnable The runnable to schedule.
+     * @return A new task object.
+     */
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public Task runTask(BackendHandle handle, Runnable runnable) {
+        return this.scheduleTask(handle, runnable, 0, 0, false);
+    }
+
+    /**
+     * Just runs a task in the main thread.
+     * @param runnable The runnable to schedule.
+     * @return A new task object.
+     */
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public Task runTaskAsync(BackendHandle handle, Runnable runnable) {
+        return this.scheduleTask(handle, runnable, 0, 0, true);
+    }
+
+    /**
+     * Just runs a task in the main thread.
+     * @param runnable The runnable to schedule.
+     * @param priority The priority of the task.
+     * @return A new task object.
+     */
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public Task runTask(BackendHandle handle, Runnable runnable, TaskPriority priority) {
+        return this.scheduleTask(handle, runnable, 0, 0, false, priority);
+    }
+
+    /**
+     * Stops the thread advancing the wheel.
+     * @param hook The hook.
+     */
+    @HookHandler
+    public void onShutdown(ShutdownHook hook) {
+        if (this.driver != null)
+            this.driver.shutdown();
+        if (this.dispatcher != null)
+            this.dispatcher.shutdown();
+    }
+
+    /**
+     * Returns the number of tasks in the wheel.
+     * @return The number of tasks.
+     */
+    int size() {
+        synchronized (this.lock) {
+            return this.size;
+        }
+    }
+
+    /**
+     * Removes the task from the wheel.
+     * @param task The task.
+     */
+    void cancel(WheelTask task) {
+        synchronized (this.lock) {
+            this.unlink(task);
+        }
+    }
+
+    /**
+     * Advances the wheel to the current time.
+     */
+    void advance() {
+        try {
+            this.advanceTo((System.nanoTime() - this.start) / TimeUnit.MILLISECONDS.toNanos(this.tick));
+        } catch (Throwable t) {
+            // An exception would stop the driver.
+            this.environment.getLogger().log(Level.SEVERE, "Failed to run scheduled tasks.", t);
+        }
+    }
+
+    /**
+     * Advances the wheel to the given tick and dispatches all tasks that are due.
+     * @param target The tick.
+     */
+    void advanceTo(long target) {
+        WheelTask due = null;
+        synchronized (this.lock) {
+            while (this.currentTick < target) {
+                this.currentTick++;
+                this.cascade();
+
+                WheelTask task = this.detach(this.wheels[0][(int) (this.currentTick & SLOT_MASK)]);
+                while (task != null) {
+                    WheelTask next = task.next;
+                    task.next = null;
+
+                    // Skip the run if the previous run has not started yet.
+                    if (task.pending.compareAndSet(false, true)) {
+                        task.nextDispatch = due;
+                        due = task;
+                    }
+
+                    if (task.period > 0) {
+                        task.deadline += task.period;
+                        if (task.deadline <= this.currentTick)
+                            task.deadline = this.currentTick + task.period;
+                        this.link(task);
+                    }
+                    task = next;
+                }
+            }
+        }
+
+        while (due != null) {
+            WheelTask task = due;
+            due = task.nextDispatch;
+            task.nextDispatch = null;
+            this.dispatch(task);
+        }
+    }
+
+    /**
+     * Moves the tasks of the higher levels down if the wheel reached their slot.
+     */
+    private void cascade() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            int shift = SLOT_BITS * level;
+            if ((this.currentTick & ((1L << shift) - 1)) != 0)
+                continue;
+
+            WheelTask task = this.detach(this.wheels[level][(int) ((this.currentTick >>> shift) & SLOT_MASK)]);
+            while (task != null) {
+                WheelTask next = task.next;
+                task.next = null;
+                this.link(task);
+                task = next;
+            }
+        }
+    }
+
+    /**
+     * Puts the task into the wheel.
+     * @param task  The task.
+     * @param ticks The number of ticks until the task runs.
+     */
+    private void schedule(WheelTask task, long ticks) {
+        synchronized (this.lock) {
+            if (task.isCancelled())
+                return;
+            task.deadline = this.currentTick + ticks;
+            this.link(task);
+        }
+    }
+
+    /**
+     * Links the task into the slot of its deadline.
+     * @param task The task.
+     */
+    private void link(WheelTask task) {
+        long remaining = task.deadline - this.currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && remaining >= (1L << (SLOT_BITS * (level + 1))))
+            level++;
+
+        WheelTask head = this.wheels[level][(int) ((task.deadline >>> (SLOT_BITS * level)) & SLOT_MASK)];
+        task.previous = head.previous;
+        task.next = head;
+        head.previous.next = task;
+        head.previous = task;
+        this.size++;
+    }
+
+    /**
+     * Removes the task from its slot.
+     * @param task The task.
+     */
+    private void unlink(WheelTask task) {
+        if (task.previous == null)
+            return;
+
+        task.previous.next = task.next;
+        task.next.previous = task.previous;
+        task.previous = null;
+        task.next = null;
+        this.size--;
+    }
+
+    /**
+     * Removes all tasks from a slot.
+     * @param head The head of the slot.
+     * @return The first task of the slot, the tasks are chained using {@link WheelTask#next}.
+     */
+    private WheelTask detach(WheelTask head) {
+        if (head.next == head)
+            return null;
+
+        WheelTask first = head.next;
+        head.previous.next = null;
+        for (WheelTask task = first; task != null; task = task.next) {
+            task.previous = null;
+            this.size--;
+        }
+
+        head.next = head;
+        head.previous = head;
+        return first;
+    }
+
+    /**
+     * Passes the task to the thread it runs in.
+     * @param task The task.
+     */
+    private void dispatch(final WheelTask task) {
+        if (!task.async || this.dispatcher == null) {
+            this.submit(task);
+            return;
+        }
+
+        try {
+            this.dispatcher.execute(new Runnable() {
+                @Override
+                public void run() {
+                    TimingWheelScheduler.this.submit(task);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The scheduler has been shut down.
+            task.pending.set(false);
+        }
+    }
+
+    /**
+     * Submits the task to the thread manager or the mailbox.<p />
+     *
+     * If the task cannot be submitted, the failure is logged and a repeating task runs again
+     * in its next period.
+     *
+     * @param task The task.
+     */
+    private void submit(WheelTask task) {
+        try {
+            if (task.async)
+                this.environment.getBackend().runAsynchronously(task);
+            else
+                this.environment.getMailbox().submit(task, task.priority);
+        } catch (RuntimeException e) {
+            task.pending.set(false);
+            this.environment.getLogger().log(Level.SEVERE, "Failed to dispatch a scheduled task.", e);
+        }
+    }
+
+    /**
+     * Creates the factory of a daemon thread.
+     * @param name The name of the thread.
+     * @return The factory.
+     */
+    private static ThreadFactory daemonThreads(final String name) {
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * Converts milliseconds to ticks.
+     * @param millis The milliseconds.
+     * @return The number of ticks, at least one tick if the time is not 0.
+     */
+    private long toTicks(long millis) {
+        if (millis == 0)
+            return 0;
+        return Math.max(1, (millis + this.tick - 1) / this.tick);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.contrib.scheduler.wheel;
+
+import moe.encode.airblock.commands.contrib.scheduler.Task;
+import moe.encode.airblock.commands.contrib.scheduler.TaskPriority;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A task of the {@link TimingWheelScheduler}.<p />
+ *
+ * The task links itself into the slots of the wheel so scheduling and cancelling
+ * does not allocate anything.
+ */
+class WheelTask implements Task, Runnable {
+
+    /**
+     * The scheduler.
+     */
+    private final TimingWheelScheduler scheduler;
+
+    /**
+     * The runnable.
+     */
+    private final Runnable runnable;
+
+    /**
+     * Is the task executed asynchronously.
+     */
+    final boolean async;
+
+    /**
+     * The period in ticks or 0 if the task is not repeated.
+     */
+    final long period;
+
+    /**
+     * The priority of the task in the main thread.
+     */
+    final TaskPriority priority;
+
+    /**
+     * The tick the task runs in next.
+     */
+    long deadline;
+
+    /**
+     * The previous task in the slot.
+     */
+    WheelTask previous = null;
+
+    /**
+     * The next task in the slot.
+     */
+    WheelTask next = null;
+
+    /**
+     * The next task that is dispatched in the same tick.
+     */
+    WheelTask nextDispatch = null;
+
+    /**
+     * Is a run of the task waiting to be executed?
+     */
+    final AtomicBoolean pending = new AtomicBoolean(false);
+
+    /**
+     * Has the task been cancelled?
+     */
+    private volatile boolean cancelled = false;
+
+    /**
+     * Has the task been completed?
+     */
+    private volatile boolean completed = false;
+
+    /**
+     * Creates a new task.
+     * @param scheduler The scheduler.
+     * @param runnable  The runnable.
+     * @param async     Is the task executed asynchronously.
+     * @param period    The period in ticks or 0 if the task is not repeated.
+     * @param priority  The priority of the task in the main thread.
+     */
+    WheelTask(TimingWheelScheduler scheduler, Runnable runnable, boolean async, long period, TaskPriority priority) {
+        this.scheduler = scheduler;
+        this.runnable = runnable;
+        this.async = async;
+        this.period = period;
+        this.priority = priority;
+    }
+
+    /**
+     * Creates the head of a slot.
+     */
+    WheelTask() {
+        this(null, null, false, 0, TaskPriority.NORMAL);
+        this.previous = this;
+        this.next = this;
+    }
+
+    @Override
+    public void run() {
+        this.pending.set(false);
+        if (this.cancelled)
+            return;
+
+        try {
+            this.runnable.run();
+        } finally {
+            if (this.period == 0)
+                this.completed = true;
+        }
+    }
+
+    @Override
+    public void cancel() {
+        this.cancelled = true;
+        this.scheduler.cancel(this);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    @Override
+    public boolean isCompleted() {
+        return this.completed;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.contrib.sessions;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>A hashed timing wheel that finds expired sessions.</p>
+ * <p>
+ *     Sessions are put into the slot of the tick their expire time ends in. When the wheel
+ *     advances past a slot, each session of the slot is checked again: sessions that have been
+ *     accessed in the meantime are moved to their new slot, expired sessions are passed to the
+ *     {@link SessionManager} for removal.
+ * </p>
+ * <p>
+ *     Each session has at most one current entry. Scheduling a session again only adds an
+ *     entry if it is due earlier than the current one; the entries that have been replaced
+ *     are dropped when their slot is processed.
+ * </p>
+ */
+class ExpiryWheel {
+
+    /**
+     * A session in a slot.
+     */
+    static final class Entry {
+
+        /**
+         * The session.
+         */
+        final Session<?> session;
+
+        /**
+         * The tick the session expires in.
+         */
+        final long tick;
+
+        Entry(Session<?> session, long tick) {
+            this.session = session;
+            this.tick = tick;
+        }
+    }
+
+    /**
+     * The session manager that removes expired sessions.
+     */
+    private final SessionManager manager;
+
+    /**
+     * The length of a tick in milliseconds.
+     */
+    private final long tickMillis;
+
+    /**
+     * The slots of the wheel.
+     */
+    private final Queue<Entry>[] slots;
+
+    /**
+     * The last tick that has been processed.
+     */
+    private final AtomicLong current;
+
+    /**
+     * Creates a new wheel.
+     * @param manager     The session manager that removes expired sessions.
+     * @param tickMillis  The length of a tick in milliseconds.
+     * @param slots       The number of slots.
+     */
+    @SuppressWarnings("unchecked")
+    ExpiryWheel(SessionManager manager, long tickMillis, int slots) {
+        this.manager = manager;
+        this.tickMillis = tickMillis;
+        this.slots = new Queue[slots];
+        for (int i = 0; i<slots; i++)
+            this.slots[i] = new ConcurrentLinkedQueue<Entry>();
+        this.current = new AtomicLong(System.currentTimeMillis() / tickMillis);
+    }
+
+    /**
+     * Adds the session to the wheel.<p />
+     *
+     * Sessions that never expire are ignored.
+     *
+     * @param session The session.
+     */
+    void schedule(Session<?> session) {
+        long expireTime = session.getExpireTime();
+        if (expireTime <= 0)
+            return;
+
+        // Round up so the session is only checked after it could have expired.
+        long deadline = session.getLastAccessTime() + expireTime;
+        long tick = (deadline + this.tickMillis - 1) / this.tickMillis;
+        Entry entry = new Entry(session, Math.max(tick, this.current.get() + 1));
+
+        AtomicReference<Entry> marker = session.expiryEntry;
+        while (true) {
+            // An earlier entry checks the session again when it is processed.
+            Entry scheduled = marker.get();
+            if (scheduled != null && scheduled.tick <= entry.tick)
+                return;
+
+            if (marker.compareAndSet(scheduled, entry)) {
+                this.add(entry);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries in the wheel.
+     * @return The number of entries.
+     */
+    int size() {
+        int size = 0;
+        for (Queue<Entry> slot : this.slots)
+            size += slot.size();
+        return size;
+    }
+
+    /**
+     * Processes all ticks that have passed.
+     * @param now The current time in milliseconds.
+     */
+    void advance(long now) {
+        long target = now / this.tickMillis;
+        long tick;
+        while ((tick = this.current.get()) < target) {
+            // Only one thread processes each tick.
+            if (this.current.compareAndSet(tick, tick + 1))
+                this.process(tick + 1);
+        }
+    }
+
+    /**
+     * Processes the slot of a single tick.
+     * @param tick The tick.
+     */
+    private void process(long tick) {
+        Queue<Entry> slot = this.slots[(int) (tick % this.slots.length)];
+
+        // Only look at the entries that are in the slot right now, re-added entries wait for the next round.
+        for (int remaining = slot.size(); remaining > 0; remaining--) {
+            Entry entry = slot.poll();
+            if (entry == null)
+                break;
+
+            if (entry.tick > tick) {
+                this.add(entry);
+            } else if (!entry.session.expiryEntry.compareAndSet(entry, null)) {
+                // The entry has been replaced by an earlier one.
+                continue;
+            } else if (entry.session.isSessionExpired()) {
+                this.manager.remove(entry.session);
+            } else if (!this.manager.isRemoved(entry.session)) {
+                // The session has been accessed in the meantime.
+                this.schedule(entry.session);
+            }
+        }
+    }
+
+    /**
+     * Adds the entry to its slot.
+     * @param entry The entry.
+     */
+    private void add(Entry entry) {
+        this.slots[(int) (entry.tick % this.slots.length)].offer(entry);
+    }
+}
@@ -25,6 +25,8 @@ import moe.encode.airblock.commands.core.backend.Handle;
 import moe.encode.airblock.commands.core.backend.HandleWrapper;
 import moe.encode.airblock.commands.core.settings.Environment;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * Represents a session.<p />
  *
@@ -40,21 +42,31 @@ public abstract class Session<T extends HandleWrapper<?>> {
     @Getter(AccessLevel.PUBLIC)
     private Environment environment;
 
+    /**
+     * The manager that stores the session.
+     */
+    private SessionManager manager = null;
+
+    /**
+     * The current entry of the session in the expiry wheel of its manager.
+     */
+    final AtomicReference<ExpiryWheel.Entry> expiryEntry = new AtomicReference<ExpiryWheel.Entry>();
+
     /**
      * The last time of access.
      */
-    private long lastAccessTime = -1;
+    private volatile long lastAccessTime = -1;
 
     /**
      * The time for a session to expire (in milliseconds).<br />
      * If the expire-time is 0, the session will never expire.
      */
-    private long expireTime = 0;
+    private volatile long expireTime = 0;
 
     /**
      * Was the session forced to be expired?
      */
-    private boolean isExpired = false;
+    private volatile boolean isExpired = false;
 
     /**
      * Registers the new handle.
@@ -76,6 +88,15 @@ public abstract class Session<T extends HandleWrapper<?>> {
         this.updateAccessTime();
     }
 
+    /**
+     * Initializes the Session-Object.
+     * @param manager The manager that removes the session when it expires.
+     */
+    final void initialize(@NonNull Environment environment, @NonNull Handle<?> executor, SessionManager manager) {
+        this.manager = manager;
+        this.initialize(environment, executor);
+    }
+
     /**
      * Updates the last-access-time.
      */
@@ -98,6 +119,15 @@ public abstract class Session<T extends HandleWrapper<?>> {
     public final void setExpireTime(long time) {
         if (isSessionExpired()) throw new IllegalStateException("The session is expired.");
         this.expireTime = time;
+        if (this.manager != null)
+            this.manager.schedule(this);
+    }
+
+    /**
+     * @return The time for the session to expire or 0 if the session never expires.
+     */
+    public final long getExpireTime() {
+        return this.expireTime;
     }
 
     /**
@@ -18,12 +18,20 @@
 
 package moe.encode.airblock.commands.contrib.sessions;
 
+import moe.encode.airblock.commands.contrib.scheduler.Task;
 import moe.encode.airblock.commands.core.backend.Handle;
 import moe.encode.airblock.commands.core.components.Component;
 import moe.encode.airblock.commands.core.components.Components;
+import moe.encode.airblock.commands.core.hooks.HookHandler;
+import moe.encode.airblock.commands.core.hooks.predefined.PlayerLogoffHook;
+import moe.encode.airblock.commands.core.hooks.predefined.ShutdownHook;
 import moe.encode.airblock.commands.core.settings.Environment;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 /**
@@ -32,29 +40,97 @@ import java.util.logging.Level;
 @Components(Sessions.class)
 public class SessionManager {
 
+    /**
+     * The length of a tick of the expiry wheel in milliseconds.
+     */
+    public static final long EXPIRY_TICK = 1000;
+
+    /**
+     * The number of slots of the expiry wheel.
+     */
+    private static final int EXPIRY_SLOTS = 64;
+
+    /**
+     * The period of the task that removes expired sessions (in milliseconds).
+     */
+    private static final int SWEEP_PERIOD = 1000;
+
+    /**
+     * Orders sessions by their last access time.
+     */
+    private static final Comparator<Session> LEAST_RECENTLY_USED = new Comparator<Session>() {
+        @Override
+        public int compare(Session o1, Session o2) {
+            long a = o1.getLastAccessTime(), b = o2.getLastAccessTime();
+            return a < b ? -1 : (a == b ? 0 : 1);
+        }
+    };
+
     /**
      * Map of all recognized sessions handled by the command-executor.<p />
      *
      * The sessions are stored in a static variable because multiple CommandExecutors can access the same
      * handle.<p />
      *
-     * The access to the sessions is thread-safe.
+     * The access to the sessions is thread-safe without a global lock. Empty maps are removed, so a
+     * session may only be stored in a map that is still registered. Storing a session and removing
+     * a map both hold the lock of the map.
      */
-    private final Map<UUID, Map<Class<? extends Session>, Session>> sessions = Collections.synchronizedMap(
-            new HashMap<UUID, Map<Class<? extends Session>, Session>>()
-    );
+    private final ConcurrentMap<UUID, ConcurrentMap<Class<? extends Session>, Session>> sessions =
+            new ConcurrentHashMap<UUID, ConcurrentMap<Class<? extends Session>, Session>>();
 
     /**
      * Contains the environment that will be used.
      */
     private final Environment environment;
 
+    /**
+     * Finds the sessions that expired.
+     */
+    private final ExpiryWheel wheel;
+
+    /**
+     * The number of stored sessions.
+     */
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    /**
+     * Was the task that removes expired sessions started?
+     */
+    private final AtomicBoolean sweeping = new AtomicBoolean(false);
+
+    /**
+     * The task that removes expired sessions or {@code null} if it has not been started.
+     */
+    private volatile Task sweeper = null;
+
+    /**
+     * Makes sure only one thread evicts sessions.
+     */
+    private final Object evictionLock = new Object();
+
+    /**
+     * The maximal number of sessions or 0 if the number is not limited.
+     */
+    private volatile int maximumSessions = 0;
+
     /**
      * The environment.
      * @param environment The environment.
      */
     public SessionManager(Environment environment) {
+        this(environment, EXPIRY_TICK);
+    }
+
+    /**
+     * Creates a new session manager.
+     * @param environment The environment.
+     * @param tick        The length of a tick of the expiry wheel in milliseconds.
+     */
+    SessionManager(Environment environment, long tick) {
         this.environment = environment;
+        this.wheel = new ExpiryWheel(this, tick, EXPIRY_SLOTS);
+        environment.getHookManager().registerHooks(this);
     }
 
     /**
@@ -78,51 +154,59 @@ public class SessionManager {
             return null;
         }
 
-        session.initialize(this.environment, handle);
+        session.initialize(this.environment, handle, this);
         return session;
 
     }
 
-    /**
-     * Returns the session with the given type.
-     * @param sessions The session-container of this command-executor.
-     * @param cls      The class that contains the session-container.
-     * @param <S>      The type of the session object.
-     * @return The session-object or null if the creation of the session failed.
-     */
-    @SuppressWarnings("unchecked")
-    private <S extends Session> S _getSession(Map<Class<? extends Session>, Session> sessions, Class<S> cls, Handle<?> handle) {
-        S result = (S) sessions.get(cls);
-        if (result == null || result.isSessionExpired()) {
-            result = this.createSession(cls, handle);
-            if (result == null) return null;
-            sessions.put(cls, result);
-        }
-
-        return result;
-    }
-
     /**
      * <p>Returns the session using this object.</p>
      *
-     * <p>Sessions are stored by a synchronized map are identified by the Class of the implementing type.</p>
+     * <p>Sessions are stored by a concurrent map are identified by the Class of the implementing type.</p>
      *
      * @param handle The executor that the sessions are attached.
      * @param cls The class object.
      * @param <S> The type of the session.
      * @return null if the creation of the session failed.
      */
-    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.SYNCHRONIZED_INSTANCE)
+    @SuppressWarnings("unchecked")
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
     public <S extends Session> S getSession(Handle<?> handle, Class<S> cls) {
         this.ensureValidHandle(handle);
-        Map<Class<? extends Session>, Session> sessions = this.sessions.get(handle.getUniqueIdentifier());
+        this.expireSessions();
 
-        if (sessions == null) {
-            sessions = new HashMap<Class<? extends Session>, Session>();
-            this.sessions.put(handle.getUniqueIdentifier(), sessions);
-        }
+        UUID uuid = handle.getUniqueIdentifier();
+        while (true) {
+            ConcurrentMap<Class<? extends Session>, Session> sessions = this.getContainer(uuid);
+
+            S current = (S) sessions.get(cls);
+            if (current != null && !current.isSessionExpired())
+                return current;
+
+            S result = this.createSession(cls, handle);
+            if (result == null) {
+                this.removeIfEmpty(uuid, sessions);
+                return null;
+            }
+
+            synchronized (sessions) {
+                // The map has been removed since we looked it up.
+                if (this.sessions.get(uuid) != sessions)
+                    continue;
+
+                if (current == null) {
+                    if (sessions.putIfAbsent(cls, result) != null)
+                        continue;
+                    this.size.incrementAndGet();
+                } else if (!sessions.replace(cls, current, result)) {
+                    continue;
+                }
+            }
 
-        return this._getSession(sessions, cls, handle);
+            this.schedule(result);
+            this.evictSessions();
+            return result;
+        }
     }
 
     /**
@@ -130,7 +214,7 @@ public class SessionManager {
      * @param handle The sessions registered for the executor.
      * @return The sessions registered for the executor.
      */
-    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.SYNCHRONIZED_INSTANCE)
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
     public List<Session> getSessions(Handle handle) {
         this.ensureValidHandle(handle);
         Map<Class<? extends Session>, Session> sessions = this.sessions.get(handle.getUniqueIdentifier());
@@ -139,6 +223,223 @@ public class SessionManager {
         return new ArrayList<Session>(sessions.values());
     }
 
+    /**
+     * Returns the number of stored sessions.
+     * @return The number of stored sessions.
+     */
+    public int size() {
+        return this.size.get();
+    }
+
+    /**
+     * Returns the maximal number of sessions.
+     * @return The maximal number of sessions or 0 if the number is not limited.
+     */
+    public int getMaximumSessions() {
+        return this.maximumSessions;
+    }
+
+    /**
+     * <p>Sets the maximal number of sessions.</p>
+     * <p>
+     *     If there are more sessions, the sessions that have not been accessed for the longest
+     *     time are removed.
+     * </p>
+     * @param maximumSessions The maximal number of sessions or 0 if the number should not be limited.
+     */
+    public void setMaximumSessions(int maximumSessions) {
+        if (maximumSessions < 0)
+            throw new IllegalArgumentException("The maximal number of sessions must not be negative.");
+        this.maximumSessions = maximumSessions;
+        this.evictSessions();
+    }
+
+    /**
+     * Removes all sessions that have expired.
+     */
+    public void expireSessions() {
+        this.wheel.advance(System.currentTimeMillis());
+    }
+
+    /**
+     * Removes the sessions of an executor that logged off.
+     * @param hook The hook.
+     */
+    @HookHandler(priority = HookHandler.Priority.MONITOR)
+    public void onLogoff(PlayerLogoffHook hook) {
+        UUID uuid = hook.getExecutor().getUniqueIdentifier();
+        if (uuid == null)
+            return;
+
+        Map<Class<? extends Session>, Session> sessions;
+        while (true) {
+            sessions = this.sessions.get(uuid);
+            if (sessions == null)
+                return;
+
+            synchronized (sessions) {
+                if (this.unregister(uuid, sessions))
+                    break;
+            }
+        }
+
+        for (Session session : sessions.values())
+            this.remove(sessions, session);
+    }
+
+    /**
+     * Stops the task that removes expired sessions.
+     * @param hook The hook.
+     */
+    @HookHandler
+    public void onShutdown(ShutdownHook hook) {
+        Task sweeper = this.sweeper;
+        if (sweeper != null)
+            sweeper.cancel();
+    }
+
+    /**
+     * Returns the number of entries in the expiry wheel.
+     * @return The number of entries.
+     */
+    int getScheduledCount() {
+        return this.wheel.size();
+    }
+
+    /**
+     * Returns the number of executors that have a map of sessions.
+     * @return The number of maps.
+     */
+    int getContainerCount() {
+        return this.sessions.size();
+    }
+
+    /**
+     * Adds the session to the expiry wheel and makes sure expired sessions are removed regularly.
+     * @param session The session.
+     */
+    void schedule(Session<?> session) {
+        if (session.getExpireTime() <= 0)
+            return;
+
+        this.wheel.schedule(session);
+        if (this.sweeping.compareAndSet(false, true)) {
+            this.sweeper = this.environment.getScheduler().scheduleRepetitiveAsynchronousTask(new Runnable() {
+                @Override
+                public void run() {
+                    SessionManager.this.expireSessions();
+                }
+            }, SWEEP_PERIOD);
+        }
+    }
+
+    /**
+     * Removes the session from the manager.
+     * @param session The session.
+     */
+    void remove(Session<?> session) {
+        UUID uuid = session.getHandle().getUniqueIdentifier();
+        ConcurrentMap<Class<? extends Session>, Session> sessions = this.sessions.get(uuid);
+        if (sessions == null)
+            return;
+
+        this.remove(sessions, session);
+        this.removeIfEmpty(uuid, sessions);
+    }
+
+    /**
+     * Unregisters the sessions of an executor if there are none left.
+     * @param uuid     The unique identifier of the executor.
+     * @param sessions The sessions of the executor.
+     */
+    private void removeIfEmpty(UUID uuid, Map<Class<? extends Session>, Session> sessions) {
+        synchronized (sessions) {
+            if (sessions.isEmpty())
+                this.unregister(uuid, sessions);
+        }
+    }
+
+    /**
+     * Unregisters the sessions of an executor. The caller must hold the lock of the map.<p />
+     *
+     * Maps are compared by identity, as {@code remove(uuid, sessions)} would also remove
+     * another map with the same contents.
+     *
+     * @param uuid     The unique identifier of the executor.
+     * @param sessions The sessions of the executor.
+     * @return {@code false} if the map was not registered.
+     */
+    private boolean unregister(UUID uuid, Map<Class<? extends Session>, Session> sessions) {
+        if (this.sessions.get(uuid) != sessions)
+            return false;
+        this.sessions.remove(uuid);
+        return true;
+    }
+
+    /**
+     * Checks if the session is not stored anymore.
+     * @param session The session.
+     * @return {@code true} if the session has been removed.
+     */
+    boolean isRemoved(Session<?> session) {
+        Map<Class<? extends Session>, Session> sessions = this.sessions.get(session.getHandle().getUniqueIdentifier());
+        return sessions == null || sessions.get(session.getClass()) != session;
+    }
+
+    /**
+     * Removes a session from the map of its executor.
+     * @param sessions The sessions of the executor.
+     * @param session  The session.
+     */
+    private void remove(Map<Class<? extends Session>, Session> sessions, Session<?> session) {
+        if (sessions.remove(session.getClass(), session)) {
+            this.size.decrementAndGet();
+            session.expire();
+        }
+    }
+
+    /**
+     * Removes the least recently used sessions if there are too many sessions.<p />
+     *
+     * A tenth of the sessions are removed at once so we don't have to sort the sessions on every new session.
+     */
+    private void evictSessions() {
+        int maximum = this.maximumSessions;
+        if (maximum == 0 || this.size.get() <= maximum)
+            return;
+
+        synchronized (this.evictionLock) {
+            int count = this.size.get() - maximum;
+            if (count <= 0)
+                return;
+            count += maximum / 10;
+
+            List<Session> sessions = new ArrayList<Session>(this.size.get());
+            for (Map<Class<? extends Session>, Session> container : this.sessions.values())
+                sessions.addAll(container.values());
+            Collections.sort(sessions, LEAST_RECENTLY_USED);
+
+            for (int i = 0; i<count && i<sessions.size(); i++)
+                this.remove(sessions.get(i));
+        }
+    }
+
+    /**
+     * Returns the sessions of the executor.
+     * @param uuid The unique identifier of the executor.
+     * @return The map containing the sessions.
+     */
+    private ConcurrentMap<Class<? extends Session>, Session> getContainer(UUID uuid) {
+        ConcurrentMap<Class<? extends Session>, Session> sessions = this.sessions.get(uuid);
+        if (sessions == null) {
+            sessions = new ConcurrentHashMap<Class<? extends Session>, Session>();
+            ConcurrentMap<Class<? extends Session>, Session> previous = this.sessions.putIfAbsent(uuid, sessions);
+            if (previous != null)
+                sessions = previous;
+        }
+        return sessions;
+    }
+
     /**
      * Ensures you get a supported handle.
      * @param handle The handle.
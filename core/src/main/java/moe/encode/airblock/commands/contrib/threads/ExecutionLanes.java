@@ -0,0 +1,235 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.contrib.threads;
+
+import lombok.NonNull;
+import moe.encode.airblock.commands.core.settings.Environment;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+
+/**
+ * <p>Runs asynchronous tasks in lanes.</p>
+ * <p>
+ *     Tasks submitted to the same lane run one after another in the order they were submitted,
+ *     while different lanes run in parallel on the worker threads of the backend. Keying the
+ *     lanes by {@link moe.encode.airblock.commands.Executor#getUniqueExecutorIdentifier()}
+ *     makes sure two commands of the same player never run at the same time.
+ * </p>
+ * <p>
+ *     A lane only exists while it has queued tasks and occupies at most one worker thread.
+ *     It returns the thread after {@link #MAX_BATCH} tasks so a single busy lane cannot
+ *     keep a worker from the others.
+ * </p>
+ * <p>
+ *     If the backend rejects a lane, the lane keeps running in the current thread, so queued
+ *     tasks are never dropped.
+ * </p>
+ */
+public class ExecutionLanes {
+
+    /**
+     * How many tasks a lane runs before it gives up its worker thread.
+     */
+    public static final int MAX_BATCH = 16;
+
+    /**
+     * The lane running in the current thread. Set to {@code null} while rescheduling if the
+     * backend ran the lane in the calling thread.
+     */
+    private static final ThreadLocal<Lane> CURRENT_LANE = new ThreadLocal<Lane>();
+
+    /**
+     * The environment whose backend runs the lanes.
+     */
+    private final Environment environment;
+
+    /**
+     * The active lanes.
+     */
+    private final ConcurrentMap<String, Lane> lanes = new ConcurrentHashMap<String, Lane>();
+
+    /**
+     * Creates new execution lanes.
+     * @param environment The environment whose backend runs the lanes.
+     */
+    public ExecutionLanes(@NonNull Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Runs the runnable after all tasks previously submitted to the lane have completed.
+     * @param key       The key of the lane.
+     * @param runnable  The runnable to execute.
+     */
+    public void submit(@NonNull String key, @NonNull Runnable runnable) {
+        while (true) {
+            Lane lane = this.lanes.get(key);
+            if (lane == null) {
+                lane = new Lane(key);
+                Lane current = this.lanes.putIfAbsent(key, lane);
+                if (current != null)
+                    lane = current;
+            }
+
+            // The lane may have been closed after we looked it up. Retry with a new one then.
+            if (lane.offer(runnable))
+                return;
+        }
+    }
+
+    /**
+     * Returns the number of lanes that currently have queued or running tasks.
+     * @return The number of active lanes.
+     */
+    public int size() {
+        return this.lanes.size();
+    }
+
+    /**
+     * A single lane.
+     */
+    private class Lane implements Runnable {
+
+        /**
+         * The key of the lane.
+         */
+        private final String key;
+
+        /**
+         * The queued tasks. Guarded by the lane.
+         */
+        private final Queue<Runnable> queue = new ArrayDeque<Runnable>();
+
+        /**
+         * Is the lane currently running or scheduled. Guarded by the lane.
+         */
+        private boolean running = false;
+
+        /**
+         * Has the lane been removed. Guarded by the lane.
+         */
+        private boolean closed = false;
+
+        /**
+         * Creates a new lane.
+         * @param key The key of the lane.
+         */
+        private Lane(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Queues a task.
+         * @param runnable The task.
+         * @return {@code false} if the lane has already been closed.
+         */
+        private boolean offer(Runnable runnable) {
+            synchronized (this) {
+                if (this.closed)
+                    return false;
+                this.queue.offer(runnable);
+                if (this.running)
+                    return true;
+                this.running = true;
+            }
+
+            if (!this.schedule())
+                this.run();
+            return true;
+        }
+
+        /**
+         * Hands the lane to a worker thread.
+         * @return {@code false} if the backend rejected the lane and it has to run in the current thread.
+         */
+        private boolean schedule() {
+            try {
+                ExecutionLanes.this.environment.getBackend().runAsynchronously(this);
+                return true;
+            } catch (RuntimeException e) {
+                ExecutionLanes.this.environment.getLogger().log(
+                        Level.WARNING, "Failed to schedule lane " + this.key + ", running it in the current thread.", e
+                );
+                return false;
+            }
+        }
+
+        /**
+         * Runs the queued tasks.
+         */
+        @Override
+        public void run() {
+            if (CURRENT_LANE.get() == this) {
+                // A saturated pool handed the lane back while it was rescheduled. Tell the
+                // running loop to continue instead of growing the stack.
+                CURRENT_LANE.set(null);
+                return;
+            }
+
+            Lane outer = CURRENT_LANE.get();
+            CURRENT_LANE.set(this);
+            try {
+                // Give other lanes the chance to run after each batch.
+                while (this.runBatch()) {
+                    // Keep running the lane here if no worker thread took it.
+                    if (!this.schedule())
+                        continue;
+
+                    if (CURRENT_LANE.get() == this)
+                        return;
+                    CURRENT_LANE.set(this);
+                }
+            } finally {
+                CURRENT_LANE.set(outer);
+            }
+        }
+
+        /**
+         * Runs up to {@link #MAX_BATCH} queued tasks.
+         * @return {@code false} if the queue is empty and the lane has been closed.
+         */
+        private boolean runBatch() {
+            for (int i = 0; i<MAX_BATCH; i++) {
+                Runnable runnable;
+                synchronized (this) {
+                    runnable = this.queue.poll();
+                    if (runnable == null) {
+                        this.running = false;
+                        this.closed = true;
+                        ExecutionLanes.this.lanes.remove(this.key, this);
+                        return false;
+                    }
+                }
+
+                try {
+                    runnable.run();
+                } catch (Throwable t) {
+                    ExecutionLanes.this.environment.getLogger().log(
+                            Level.SEVERE, "Failed to run a task in lane " + this.key + ".", t
+                    );
+                }
+            }
+            return true;
+        }
+    }
+}
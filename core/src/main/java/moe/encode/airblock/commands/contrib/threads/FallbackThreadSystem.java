@@ -18,23 +18,94 @@
 
 package moe.encode.airblock.commands.contrib.threads;
 
+import lombok.NonNull;
 import moe.encode.airblock.commands.core.hooks.HookHandler;
 import moe.encode.airblock.commands.core.backend.BackendHandle;
 import moe.encode.airblock.commands.core.components.Component;
 import moe.encode.airblock.commands.core.components.Components;
 import moe.encode.airblock.commands.core.hooks.predefined.ShutdownHook;
 
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * The fallback system for asynchronous threads.
+ * <p>The fallback system for asynchronous threads.</p>
+ * <p>
+ *     The tasks are executed by a bounded thread pool. If all threads are busy and the
+ *     queue is full, the {@link RejectionPolicy} decides what happens with new tasks.
+ * </p>
  */
 @Components(ThreadManager.class)
 public class FallbackThreadSystem {
 
+    /**
+     * What happens with a task when the thread pool is saturated.
+     */
+    public static enum RejectionPolicy {
+
+        /**
+         * The task is executed by the thread that submitted it.
+         */
+        CALLER_RUNS {
+            @Override
+            RejectedExecutionHandler getHandler() {
+                return new ThreadPoolExecutor.CallerRunsPolicy();
+            }
+        },
+
+        /**
+         * A {@link RejectedExecutionException} is thrown.
+         */
+        REJECT {
+            @Override
+            RejectedExecutionHandler getHandler() {
+                return new RejectedExecutionHandler() {
+                    @Override
+                    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+                        throw new RejectedExecutionException(
+                                "The thread pool is saturated: " + executor.getActiveCount() + " tasks are running and "
+                                        + executor.getQueue().size() + " tasks are waiting."
+                        );
+                    }
+                };
+            }
+        };
+
+        /**
+         * Returns the handler for the thread pool.
+         * @return The handler.
+         */
+        abstract RejectedExecutionHandler getHandler();
+    }
+
+    /**
+     * Names the threads of the pool.
+     */
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        /**
+         * The number of the next thread.
+         */
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "AirBlock-Worker-" + this.counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * How long idle threads are kept (in seconds).
+     */
+    private static final long KEEP_ALIVE = 60;
+
+    /**
+     * The default size of the queue.
+     */
+    public static final int DEFAULT_QUEUE_SIZE = 1024;
+
     /**
      * Contains the main thread.
      */
@@ -43,7 +114,32 @@ public class FallbackThreadSystem {
     /**
      * Contains the default executor service.
      */
-    private ExecutorService service = null;
+    private volatile ThreadPoolExecutor service = null;
+
+    /**
+     * The number of threads that are kept running.
+     */
+    private final int coreSize;
+
+    /**
+     * The maximal number of threads.
+     */
+    private final int maximumSize;
+
+    /**
+     * The maximal number of waiting tasks.
+     */
+    private final int queueSize;
+
+    /**
+     * What happens when the pool is saturated.
+     */
+    private final RejectionPolicy rejectionPolicy;
+
+    /**
+     * Have the hooks been registered?
+     */
+    private boolean hooksRegistered = false;
 
     /**
      * The internal lock.
@@ -54,7 +150,31 @@ public class FallbackThreadSystem {
      * Initializes the fallback-system for threads.
      */
     public FallbackThreadSystem() {
+        this(
+                Runtime.getRuntime().availableProcessors(),
+                Runtime.getRuntime().availableProcessors() * 2,
+                DEFAULT_QUEUE_SIZE,
+                RejectionPolicy.CALLER_RUNS
+        );
+    }
+
+    /**
+     * Initializes the fallback-system for threads.
+     * @param coreSize        The number of threads that are kept running.
+     * @param maximumSize     The maximal number of threads. Threads above the core size are only
+     *                        started when the queue is full.
+     * @param queueSize       The maximal number of waiting tasks.
+     * @param rejectionPolicy What happens when all threads are busy and the queue is full.
+     */
+    public FallbackThreadSystem(int coreSize, int maximumSize, int queueSize, @NonNull RejectionPolicy rejectionPolicy) {
+        if (coreSize < 1 || maximumSize < coreSize || queueSize < 1)
+            throw new IllegalArgumentException("Invalid thread pool size.");
+
         this.mainThreadId = Thread.currentThread().getId();
+        this.coreSize = coreSize;
+        this.maximumSize = maximumSize;
+        this.queueSize = queueSize;
+        this.rejectionPolicy = rejectionPolicy;
     }
 
     /**
@@ -104,23 +224,84 @@ public class FallbackThreadSystem {
      * @param handle The new thread-pool.
      */
     private void createThreadPool(BackendHandle handle) {
-        this.service = Executors.newCachedThreadPool();
+        ThreadPoolExecutor service = new ThreadPoolExecutor(
+                this.coreSize, this.maximumSize, KEEP_ALIVE, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(this.queueSize),
+                new WorkerThreadFactory(),
+                this.rejectionPolicy.getHandler()
+        );
+        service.allowCoreThreadTimeOut(true);
+        this.service = service;
+        this.registerHooks(handle);
+    }
+
+    /**
+     * Registers the hooks of the thread system. The hooks are only registered once.
+     * @param handle The backend handle.
+     */
+    protected void registerHooks(BackendHandle handle) {
+        synchronized (this.lock) {
+            if (this.hooksRegistered)
+                return;
+            this.hooksRegistered = true;
+        }
         handle.getEnvironment().getHookManager().registerHooks(this);
     }
 
+    /**
+     * Returns the number of tasks waiting for a thread.
+     * @return The number of queued tasks.
+     */
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public int getQueueDepth(BackendHandle handle) {
+        ThreadPoolExecutor service = this.service;
+        return service == null ? 0 : service.getQueue().size();
+    }
+
+    /**
+     * Returns the number of tasks that are running right now.
+     * @return The number of running tasks.
+     */
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public int getActiveCount(BackendHandle handle) {
+        ThreadPoolExecutor service = this.service;
+        return service == null ? 0 : service.getActiveCount();
+    }
+
+    /**
+     * Returns the number of tasks that have been completed.
+     * @return The number of completed tasks.
+     */
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public long getCompletedCount(BackendHandle handle) {
+        ThreadPoolExecutor service = this.service;
+        return service == null ? 0 : service.getCompletedTaskCount();
+    }
+
     /**
      * Shuts the threads down.
      * @param hook The hook that is being attached.
      */
     @HookHandler
     public void shutdown(ShutdownHook hook) {
-        this.service.shutdown();
+        ExecutorService service = this.service;
+        if (service != null)
+            this.stop(service, hook);
+    }
+
+    /**
+     * Stops the executor service and waits for the running tasks.
+     * @param service The executor service.
+     * @param hook    The shutdown hook.
+     */
+    protected void stop(ExecutorService service, ShutdownHook hook) {
+        service.shutdown();
         try {
-            this.service.awaitTermination(30, TimeUnit.SECONDS);
+            service.awaitTermination(30, TimeUnit.SECONDS);
         } catch (InterruptedException e) {
             return;
         }
-        if (!this.service.isShutdown() && !this.service.isTerminated())
+        if (!service.isShutdown() && !service.isTerminated())
             hook.getEnvironment().getBackend().getLogger().warning("Failed to stop thread-pool.");
     }
 }
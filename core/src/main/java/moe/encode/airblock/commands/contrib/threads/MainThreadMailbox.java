@@ -0,0 +1,380 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.contrib.threads;
+
+import lombok.NonNull;
+import moe.encode.airblock.commands.contrib.scheduler.TaskPriority;
+import moe.encode.airblock.commands.core.settings.Environment;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * <p>Collects tasks that have to run in the main thread.</p>
+ * <p>
+ *     Instead of scheduling one task per call the mailbox schedules a single drain task
+ *     with {@link moe.encode.airblock.commands.Backend#runLater(Runnable)} that runs all
+ *     queued tasks. The drain stops when the time budget of the tick is used up and
+ *     continues in the next tick, so the main thread is never starved.
+ * </p>
+ * <p>
+ *     Tasks with a higher {@link TaskPriority} run first. A priority that did not get to run
+ *     for {@link #MAX_SKIPPED_DRAINS} drains runs one task before all others, so tasks with a
+ *     low priority are delayed but never starve.
+ * </p>
+ */
+public class MainThreadMailbox implements Executor {
+
+    /**
+     * The default time budget per tick in nanoseconds.
+     */
+    public static final long DEFAULT_TICK_BUDGET = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * After how many drains without running a task a priority gets to run first.
+     */
+    public static final int MAX_SKIPPED_DRAINS = 20;
+
+    /**
+     * The length of a server tick in nanoseconds.
+     */
+    private static final long TICK_LENGTH = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * The environment whose backend drains the mailbox.
+     */
+    private final Environment environment;
+
+    /**
+     * The queued tasks of each priority.
+     */
+    private final Queue<Runnable>[] queues;
+
+    /**
+     * The number of drains each priority did not run a task in. Only accessed in the main thread.
+     */
+    private final int[] skipped = new int[TaskPriority.values().length];
+
+    /**
+     * The number of queued tasks.
+     */
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    /**
+     * Is a drain task currently scheduled.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /**
+     * The time budget per tick in nanoseconds.
+     */
+    private volatile long tickBudget = DEFAULT_TICK_BUDGET;
+
+    /**
+     * When the budget of the current tick started. Only accessed in the main thread.
+     */
+    private long tickStart = System.nanoTime() - TICK_LENGTH;
+
+    /**
+     * The task that drains the mailbox.
+     */
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            MainThreadMailbox.this.drain();
+        }
+    };
+
+    /**
+     * Creates a new mailbox.
+     * @param environment The environment whose backend drains the mailbox.
+     */
+    @SuppressWarnings("unchecked")
+    public MainThreadMailbox(@NonNull Environment environment) {
+        this.environment = environment;
+        this.queues = new Queue[TaskPriority.values().length];
+        for (int i = 0; i<this.queues.length; i++)
+            this.queues[i] = new ConcurrentLinkedQueue<Runnable>();
+    }
+
+    /**
+     * Sets the time that may be spent running tasks each tick.<p />
+     *
+     * At least one task is executed per tick, regardless of the budget.
+     *
+     * @param budget  The budget.
+     * @param unit    The unit of the budget.
+     */
+    public void setTickBudget(long budget, @NonNull TimeUnit unit) {
+        if (budget < 0)
+            throw new IllegalArgumentException("The budget must not be negative.");
+        this.tickBudget = unit.toNanos(budget);
+    }
+
+    /**
+     * Returns the time budget per tick.
+     * @param unit The unit of the result.
+     * @return The budget.
+     */
+    public long getTickBudget(@NonNull TimeUnit unit) {
+        return unit.convert(this.tickBudget, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of queued tasks.
+     * @return The number of queued tasks.
+     */
+    public int size() {
+        return this.size.get();
+    }
+
+    /**
+     * Runs the runnable in the main thread.
+     * @param runnable The runnable to execute.
+     */
+    public void submit(@NonNull Runnable runnable) {
+        this.submit(runnable, TaskPriority.NORMAL);
+    }
+
+    /**
+     * Runs the runnable in the main thread.
+     * @param runnable The runnable to execute.
+     * @param priority The priority of the runnable.
+     */
+    public void submit(@NonNull Runnable runnable, @NonNull TaskPriority priority) {
+        this.offer(runnable, priority);
+        this.schedule();
+    }
+
+    /**
+     * Runs the runnable in the main thread.<p />
+     *
+     * Allows the mailbox to be used to continue {@link moe.encode.airblock.utils.Promise promises}
+     * in the main thread.
+     *
+     * @param runnable The runnable to execute.
+     */
+    @Override
+    public void execute(@NonNull Runnable runnable) {
+        this.submit(runnable);
+    }
+
+    /**
+     * Calls the callable in the main thread.
+     * @param callable  The callable to execute.
+     * @param <T> The type of the result.
+     * @return A future that completes once the callable has been executed.
+     */
+    public <T> RunnableFuture<T> submit(@NonNull Callable<T> callable) {
+        return this.submit(callable, TaskPriority.NORMAL);
+    }
+
+    /**
+     * Calls the callable in the main thread.
+     * @param callable  The callable to execute.
+     * @param priority  The priority of the callable.
+     * @param <T> The type of the result.
+     * @return A future that completes once the callable has been executed.
+     */
+    public <T> RunnableFuture<T> submit(@NonNull Callable<T> callable, @NonNull TaskPriority priority) {
+        RunnableFuture<T> future = new FutureTask<T>(callable);
+        this.submit(future, priority);
+        return future;
+    }
+
+    /**
+     * <p>Returns a runnable that passes the given runnable to the mailbox.</p>
+     * <p>
+     *     Lets a scheduler of the platform wait for the delay of a task while the task itself
+     *     runs within the time budget of the mailbox. The returned runnable must be called in
+     *     the main thread. It runs the task right away if no other tasks are queued and the
+     *     budget of the tick is not used up, otherwise it queues the task and drains the
+     *     mailbox in place. A repeating task is skipped while its previous run is still queued.
+     * </p>
+     * @param runnable The runnable to execute.
+     * @param priority The priority of the runnable.
+     * @return The runnable that passes the runnable to the mailbox.
+     */
+    public Runnable forward(@NonNull final Runnable runnable, @NonNull final TaskPriority priority) {
+        final AtomicBoolean pending = new AtomicBoolean(false);
+        final Runnable target = new Runnable() {
+            @Override
+            public void run() {
+                pending.set(false);
+                runnable.run();
+            }
+        };
+
+        return new Runnable() {
+            @Override
+            public void run() {
+                if (!pending.compareAndSet(false, true))
+                    return;
+
+                MainThreadMailbox mailbox = MainThreadMailbox.this;
+                if (mailbox.size.get() == 0 && System.nanoTime() - mailbox.getDeadline(false) < 0) {
+                    mailbox.run(target);
+                } else {
+                    mailbox.offer(target, priority);
+                    mailbox.drainInPlace();
+                }
+            }
+        };
+    }
+
+    /**
+     * <p>Runs the queued tasks until the time budget is used up.</p>
+     * <p>
+     *     This method must only be called in the main thread. It is called automatically
+     *     by the drain task but backends may call it directly from their tick loop.
+     * </p>
+     * @return The number of executed tasks.
+     */
+    public int drain() {
+        long deadline = this.getDeadline(true);
+        int executed = 0;
+        boolean[] ran = new boolean[this.queues.length];
+
+        // Priorities that have been waiting for too long run first.
+        for (int i = this.queues.length - 1; i>0; i--) {
+            if (this.skipped[i] >= MAX_SKIPPED_DRAINS && this.runNext(i)) {
+                ran[i] = true;
+                executed++;
+            }
+        }
+
+        if (executed == 0 || System.nanoTime() - deadline < 0) {
+            int priority = 0;
+            while (priority < this.queues.length) {
+                if (!this.runNext(priority)) {
+                    priority++;
+                    continue;
+                }
+                ran[priority] = true;
+                executed++;
+
+                if (System.nanoTime() - deadline >= 0)
+                    break;
+
+                // Tasks with a higher priority may have been submitted in the meantime.
+                priority = 0;
+            }
+        }
+
+        for (int i = 0; i<this.queues.length; i++) {
+            if (ran[i] || this.queues[i].isEmpty())
+                this.skipped[i] = 0;
+            else
+                this.skipped[i]++;
+        }
+
+        // Tasks submitted while draining did not schedule a drain, so check the queue
+        // after clearing the flag and continue in the next tick if necessary.
+        this.scheduled.set(false);
+        if (this.size.get() > 0)
+            this.schedule();
+
+        return executed;
+    }
+
+    /**
+     * Runs queued tasks until the budget of the current tick is used up.<p />
+     *
+     * Unlike {@link #drain()} this does not start a new tick, so it can be called any
+     * number of times from the main thread.
+     */
+    private void drainInPlace() {
+        long deadline = this.getDeadline(false);
+        int priority = 0;
+        while (priority < this.queues.length && System.nanoTime() - deadline < 0) {
+            if (this.runNext(priority))
+                priority = 0;
+            else
+                priority++;
+        }
+
+        // The remaining tasks run in the next tick.
+        if (this.size.get() > 0)
+            this.schedule();
+    }
+
+    /**
+     * Returns the end of the budget of the current tick.
+     * @param tick {@code true} if a new tick started.
+     * @return The deadline as returned by {@link System#nanoTime()}.
+     */
+    private long getDeadline(boolean tick) {
+        long now = System.nanoTime();
+        if (tick || now - this.tickStart >= TICK_LENGTH)
+            this.tickStart = now;
+        return this.tickStart + this.tickBudget;
+    }
+
+    /**
+     * Queues the runnable without scheduling a drain.
+     * @param runnable The runnable to execute.
+     * @param priority The priority of the runnable.
+     */
+    private void offer(Runnable runnable, TaskPriority priority) {
+        this.queues[priority.ordinal()].offer(runnable);
+        this.size.incrementAndGet();
+    }
+
+    /**
+     * Runs a task and logs its failure.
+     * @param runnable The task.
+     */
+    private void run(Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (Throwable t) {
+            this.environment.getLogger().log(Level.SEVERE, "Failed to run a task in the main thread.", t);
+        }
+    }
+
+    /**
+     * Runs the next task of the given priority.
+     * @param priority The ordinal of the priority.
+     * @return {@code false} if there was no task.
+     */
+    private boolean runNext(int priority) {
+        Runnable runnable = this.queues[priority].poll();
+        if (runnable == null)
+            return false;
+        this.size.decrementAndGet();
+        this.run(runnable);
+        return true;
+    }
+
+    /**
+     * Schedules the drain task if it has not been scheduled yet.
+     */
+    private void schedule() {
+        if (this.scheduled.compareAndSet(false, true))
+            this.environment.getBackend().runLater(this.drainTask);
+    }
+}
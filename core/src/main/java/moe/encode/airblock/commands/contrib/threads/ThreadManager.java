@@ -41,4 +41,22 @@ public interface ThreadManager {
      */
     public abstract boolean isInMainThread();
 
+    /**
+     * Returns the number of tasks waiting for a thread.
+     * @return The number of queued tasks.
+     */
+    public abstract int getQueueDepth();
+
+    /**
+     * Returns the number of tasks that are running right now.
+     * @return The number of running tasks.
+     */
+    public abstract int getActiveCount();
+
+    /**
+     * Returns the number of tasks that have been completed.
+     * @return The number of completed tasks.
+     */
+    public abstract long getCompletedCount();
+
 }
@@ -0,0 +1,198 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.contrib.threads;
+
+import moe.encode.airblock.commands.core.backend.BackendHandle;
+import moe.encode.airblock.commands.core.components.Component;
+import moe.encode.airblock.commands.core.components.Components;
+import moe.encode.airblock.commands.core.hooks.HookHandler;
+import moe.encode.airblock.commands.core.hooks.predefined.ShutdownHook;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>A thread system that runs every task in its own virtual thread.</p>
+ * <p>
+ *     Virtual threads are cheap, so tasks that block on I/O do not occupy a thread of the pool.
+ *     If the runtime does not support virtual threads, the bounded pool of the
+ *     {@link FallbackThreadSystem} is used.
+ * </p>
+ * <p>
+ *     To use the thread system, register it for the backend at bootstrap:
+ *     {@code @ComponentList(type = Backend.class, components = VirtualThreadSystem.class)}
+ * </p>
+ */
+@Components(ThreadManager.class)
+public class VirtualThreadSystem extends FallbackThreadSystem {
+
+    /**
+     * The factory method of the executor or {@code null} if virtual threads are not supported.
+     */
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR;
+
+    static {
+        Method method;
+        try {
+            method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            method = null;
+        }
+        NEW_VIRTUAL_THREAD_EXECUTOR = method;
+    }
+
+    /**
+     * The executor creating the virtual threads.
+     */
+    private volatile ExecutorService executor = null;
+
+    /**
+     * The number of tasks whose thread has not started yet.
+     */
+    private final AtomicInteger queued = new AtomicInteger(0);
+
+    /**
+     * The number of running tasks.
+     */
+    private final AtomicInteger active = new AtomicInteger(0);
+
+    /**
+     * The number of completed tasks.
+     */
+    private final AtomicLong completed = new AtomicLong(0);
+
+    /**
+     * The internal lock.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Creates a new thread system falling back to the default pool.
+     */
+    public VirtualThreadSystem() {
+        super();
+    }
+
+    /**
+     * Creates a new thread system.
+     * @param coreSize        The number of threads of the fallback pool that are kept running.
+     * @param maximumSize     The maximal number of threads of the fallback pool.
+     * @param queueSize       The maximal number of tasks waiting in the fallback pool.
+     * @param rejectionPolicy What happens when the fallback pool is saturated.
+     */
+    public VirtualThreadSystem(int coreSize, int maximumSize, int queueSize, RejectionPolicy rejectionPolicy) {
+        super(coreSize, maximumSize, queueSize, rejectionPolicy);
+    }
+
+    /**
+     * Checks if the runtime supports virtual threads.
+     * @return {@code true} if virtual threads are used.
+     */
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /**
+     * Runs the given runnable in a virtual thread.
+     * @param runnable The runnable that should be executed.
+     */
+    @Override
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public void runAsynchronously(BackendHandle handle, final Runnable runnable) {
+        if (!isSupported()) {
+            super.runAsynchronously(handle, runnable);
+            return;
+        }
+
+        synchronized (this.lock) {
+            if (this.executor == null) {
+                this.executor = createExecutor();
+                this.registerHooks(handle);
+            }
+        }
+
+        this.queued.incrementAndGet();
+        this.executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                VirtualThreadSystem.this.queued.decrementAndGet();
+                VirtualThreadSystem.this.active.incrementAndGet();
+                try {
+                    runnable.run();
+                } finally {
+                    VirtualThreadSystem.this.active.decrementAndGet();
+                    VirtualThreadSystem.this.completed.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    @Override
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public int getQueueDepth(BackendHandle handle) {
+        if (!isSupported())
+            return super.getQueueDepth(handle);
+        return this.queued.get();
+    }
+
+    @Override
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public int getActiveCount(BackendHandle handle) {
+        if (!isSupported())
+            return super.getActiveCount(handle);
+        return this.active.get();
+    }
+
+    @Override
+    @Component(thread = Component.ExecutionThread.SAME_THREAD, strategy = Component.ExecutionStrategy.NONE)
+    public long getCompletedCount(BackendHandle handle) {
+        if (!isSupported())
+            return super.getCompletedCount(handle);
+        return this.completed.get();
+    }
+
+    /**
+     * Stops the virtual threads.
+     * @param hook The hook that is being attached.
+     */
+    @HookHandler
+    public void shutdownVirtualThreads(ShutdownHook hook) {
+        ExecutorService executor = this.executor;
+        if (executor != null)
+            this.stop(executor, hook);
+    }
+
+    /**
+     * Creates the executor.
+     * @return The executor creating virtual threads.
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Failed to create virtual threads.", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create virtual threads.", e.getCause());
+        }
+    }
+}
@@ -61,9 +61,17 @@ public class SubCommand implements Command {
         this.commands = container;
     }
 
+    /**
+     * Returns the container of the sub-commands.
+     * @return The container of the sub-commands.
+     */
+    public Commands getContainer() {
+        return this.commands;
+    }
+
     @Override
     public boolean canExecute(@NonNull Executor executor, @NonNull String rawArguments) {
-        return this.commands.getCommand(SubCommand.splitArguments(rawArguments)[0]).size() > 0;
+        return this.commands.hasCommand(SubCommand.splitArguments(rawArguments)[0]);
     }
 
     @Override
@@ -22,11 +22,13 @@ import lombok.*;
 import moe.encode.airblock.commands.core.settings.Environment;
 
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * The wrapper for the handle.
  */
-@ToString
+@ToString(exclude = "components")
 @EqualsAndHashCode
 @RequiredArgsConstructor
 public abstract class HandleWrapper<T extends Handle> {
@@ -39,6 +41,11 @@ public abstract class HandleWrapper<T extends Handle> {
     @Getter(AccessLevel.PUBLIC)
     private final Environment environment;
 
+    /**
+     * The component proxies that have already been created for this wrapper.
+     */
+    private final transient ConcurrentMap<Class<?>, Object> components = new ConcurrentHashMap<Class<?>, Object>();
+
     /**
      * Returns the interface that is implemented by the given component.
      * @param component The component which implementation should be returned.
@@ -46,7 +53,14 @@ public abstract class HandleWrapper<T extends Handle> {
      * @return The given component.
      */
     public <C> C getComponent(Class<C> component) {
-        return this.getEnvironment().getComponentManager().getInterface(component, this);
+        Object proxy = this.components.get(component);
+        if (proxy == null) {
+            proxy = this.getEnvironment().getComponentManager().getInterface(component, this);
+            Object previous = this.components.putIfAbsent(component, proxy);
+            if (previous != null)
+                proxy = previous;
+        }
+        return component.cast(proxy);
     }
 
     /**
@@ -18,18 +18,15 @@
 
 package moe.encode.airblock.commands.core.components;
 
+import moe.encode.airblock.utils.Promise;
 import moe.encode.airblock.utils.ReflectionUtils;
 import moe.encode.airblock.commands.core.settings.Environment;
 
 import java.lang.annotation.*;
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.IdentityHashMap;
-import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.RunnableFuture;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * <p>Meta-Data for the component, such as how the component should be synchronized.</p>
@@ -52,7 +49,7 @@ public @interface Component {
          */
         NONE {
             @Override
-            public <T> T invoke(Method method, Object instance, Object... parameters) throws Throwable {
+            public <T> T invoke(Component component, Method method, Object instance, Object... parameters) throws Throwable {
                 return ReflectionUtils.invoke(method, instance, parameters);
             }
         },
@@ -65,11 +62,11 @@ public @interface Component {
             /**
              * Contains all locks.
              */
-            private final Map<Method, ReentrantLock> locks = new HashMap<Method, ReentrantLock>();
+            private final LockTable<Method> locks = new LockTable<Method>(false);
 
             @Override
-            public <T> T invoke(Method method, Object instance, Object... parameters) throws Throwable {
-                return call(this.locks, method, method, instance, parameters);
+            public <T> T invoke(Component component, Method method, Object instance, Object... parameters) throws Throwable {
+                return call(this.locks, method, false, component, method, instance, parameters);
             }
         },
 
@@ -81,12 +78,12 @@ public @interface Component {
             /**
              * Contains all locks.
              */
-            private final Map<Class<?>, ReentrantLock> locks = new HashMap<Class<?>, ReentrantLock>();
+            private final LockTable<Class<?>> locks = new LockTable<Class<?>>(false);
 
             @Override
-            public <T> T invoke(Method method, Object instance, Object... parameters) throws Throwable {
+            public <T> T invoke(Component component, Method method, Object instance, Object... parameters) throws Throwable {
                 Class<?> cls = method.getDeclaringClass();
-                return call(this.locks, cls, method, instance, parameters);
+                return call(this.locks, cls, false, component, method, instance, parameters);
             }
         },
 
@@ -100,11 +97,32 @@ public @interface Component {
             /**
              * Contains all locks.
              */
-            private final Map<Object, ReentrantLock> locks = new IdentityHashMap<Object, ReentrantLock>();
+            private final LockTable<Object> locks = new LockTable<Object>(true);
 
             @Override
-            public <T> T invoke(Method method, Object instance, Object... parameters) throws Throwable {
-                return call(this.locks, instance, method, instance, parameters);
+            public <T> T invoke(Component component, Method method, Object instance, Object... parameters) throws Throwable {
+                return call(this.locks, instance, false, component, method, instance, parameters);
+            }
+        },
+
+        /**
+         * <p>Methods marked as {@link Component#readOnly()} can be called in parallel.</p>
+         * <p>
+         *     All other methods of the instance are called exclusively, like with
+         *     {@link #SYNCHRONIZED_INSTANCE}. A read-only method must not call a method of the same
+         *     instance that is not read-only as the read lock cannot be upgraded.
+         * </p>
+         */
+        READ_WRITE {
+            /**
+             * Contains all locks.
+             */
+            private final LockTable<Object> locks = new LockTable<Object>(true);
+
+            @Override
+            public <T> T invoke(Component component, Method method, Object instance, Object... parameters) throws Throwable {
+                boolean shared = component != null && component.readOnly();
+                return call(this.locks, instance, shared, component, method, instance, parameters);
             }
         },
 
@@ -113,8 +131,10 @@ public @interface Component {
         /**
          * Synchronized implementation.
          *
-         * @param locks       The map of licks.
-         * @param key         The keys.
+         * @param locks       The lock table.
+         * @param key         The key of the lock.
+         * @param shared      Should the read lock be acquired.
+         * @param component   The annotation of the method or {@code null}.
          * @param method      The method.
          * @param instance    The instance.
          * @param parameters  The parameters.
@@ -123,67 +143,42 @@ public @interface Component {
          * @return The result of the invocation.
          * @throws Throwable If an exception is thrown.
          */
-        protected <R, T> R call(Map<T, ReentrantLock> locks, T key, Method method, Object instance, Object... parameters) throws Throwable {
-            ReentrantLock lock = this.lockOn(locks, key);
+        protected <R, T> R call(LockTable<T> locks, T key, boolean shared, Component component, Method method,
+                                Object instance, Object... parameters) throws Throwable {
+            boolean fair = component == null || component.fair();
+            LockTable.Entry entry = locks.acquire(key, fair, shared);
             try {
                 return ReflectionUtils.invoke(method, instance, parameters);
             } finally {
-                this.lockOff(lock, locks, key);
+                locks.release(entry, shared);
             }
         }
 
         /**
-         * Locks the parameter on the given object and locks the lock.
-         *
-         * @param locks   The list of locks.
-         * @param value   The key to search for the current lock.
-         * @param <T> The type of the key.
-         * @return The actual lock.
-         */
-        protected <T> ReentrantLock lockOn(Map<T, ReentrantLock> locks, T value) {
-            // Get the current lock for the component.
-            ReentrantLock lock;
-            synchronized (locks) {
-                if (locks.containsKey(value))
-                    lock = locks.get(value);
-                else
-                    locks.put(value, lock = new ReentrantLock(true));
-            }
-
-            lock.lock();
-
-            return lock;
-        }
-
-        /**
-         * Locks the parameter on the given object and locks the lock.
+         * Executes the method.
          *
-         * @param lock    The lock to unlock.
-         * @param locks   The list of locks.
-         * @param value   The key to search for the current lock.
-         * @param <T> The type of the key.
+         * @param method        The method that should be executed.
+         * @param instance      The instance on which the method will be executed.
+         * @param parameters    The parameters that should be passed to the object.
+         * @param <T> The return type.
+         * @return The result of the object.
          */
-        protected <T> void lockOff(ReentrantLock lock, Map<T, ReentrantLock> locks, T value) {
-            lock.unlock();
-
-            // Remove the lock if it is not used anymore.
-            synchronized (locks) {
-                if (lock.isHeldByCurrentThread() && lock.getHoldCount() <= 0) {
-                    locks.remove(value);
-                }
-            }
+        public <T> T invoke(Method method, Object instance, Object... parameters) throws Throwable {
+            return this.invoke(method.getAnnotation(Component.class), method, instance, parameters);
         }
 
         /**
          * Executes the method.
          *
+         * @param component     The annotation of the method or {@code null} if it is not annotated.
          * @param method        The method that should be executed.
          * @param instance      The instance on which the method will be executed.
          * @param parameters    The parameters that should be passed to the object.
          * @param <T> The return type.
          * @return The result of the object.
          */
-        public abstract <T> T invoke(Method method, Object instance, Object... parameters) throws Throwable;
+        public abstract <T> T invoke(Component component, Method method, Object instance, Object... parameters)
+                throws Throwable;
 
     }
 
@@ -216,11 +211,8 @@ public @interface Component {
                     return ExecutionThread.SAME_THREAD.invoke(environment, method, instance, parameters);
                 }
 
-                // Create a new future task for the method.
-                RunnableFuture<T> future = new FutureTask<T>(new MethodRunner<T>(method, instance, parameters));
-
-                // Make sure the method is being called.
-                environment.getBackend().runLater(future);
+                // Queue the method in the mailbox so all calls of a tick share one scheduled task.
+                RunnableFuture<T> future = environment.getMailbox().submit(new MethodRunner<T>(method, instance, parameters));
                 try {
                     // Wait until the method has been executed.
                     return future.get();
@@ -249,6 +241,40 @@ public @interface Component {
             }
         },
 
+        /**
+         * <p>Execute the function asynchronously and return a {@link Promise} for its result.</p>
+         * <p>
+         *     The interface method has to return a {@link Promise}. The implementation may return
+         *     the plain value or a promise of its own, which is then chained.
+         * </p>
+         */
+        ASYNC {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T invoke(Environment environment, final Method method, final Object instance,
+                                final Object... parameters) throws Throwable {
+                final Promise<Object> promise = new Promise<Object>();
+                environment.getBackend().runAsynchronously(new Runnable() {
+                    @Override
+                    public void run() {
+                        Object result;
+                        try {
+                            result = ComponentManager.invoke(method, instance, parameters);
+                        } catch (Throwable t) {
+                            promise.fail(t);
+                            return;
+                        }
+
+                        if (result instanceof Promise)
+                            promise.completeWith((Promise<Object>) result);
+                        else
+                            promise.complete(result);
+                    }
+                });
+                return (T) promise;
+            }
+        },
+
         ;
 
         /**
@@ -275,4 +301,23 @@ public @interface Component {
      */
     public ExecutionStrategy strategy() default ExecutionStrategy.NONE;
 
+    /**
+     * Should the locks of the strategy be fair?<p />
+     *
+     * Fair locks grant access in arrival order but are considerably slower under contention.
+     * The fairness is decided by the call that creates the lock.
+     *
+     * @return {@code true} if the locks should be fair.
+     */
+    public boolean fair() default true;
+
+    /**
+     * Does the method only read the state of the component?<p />
+     *
+     * Only used by {@link ExecutionStrategy#READ_WRITE}.
+     *
+     * @return {@code true} if the method can be called in parallel to other read-only methods.
+     */
+    public boolean readOnly() default false;
+
 }
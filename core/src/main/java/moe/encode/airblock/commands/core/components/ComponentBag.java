@@ -26,6 +26,7 @@ import org.apache.commons.lang3.ArrayUtils;
 
 import javax.annotation.Nullable;
 import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -40,34 +41,61 @@ import java.util.Map;
 public class ComponentBag {
 
     /**
-     * The registered method.
+     * The registered method.<p />
+     *
+     * The map is never modified after it has been published. Registrations replace it with an updated copy.
      */
-    private Map<Class<?>, Object> methods = new HashMap<Class<?>, Object>();
+    private volatile Map<Class<?>, Object> methods = Collections.emptyMap();
+
+    /**
+     * Creates a new empty bag.
+     */
+    public ComponentBag() {}
+
+    /**
+     * Creates a copy of the given bag.
+     * @param other The bag to copy.
+     */
+    ComponentBag(@NonNull ComponentBag other) {
+        this.methods = other.methods;
+    }
 
     /**
      * Registers the new component.
      * @param o The object to register.
      */
     public void registerComponent(@NonNull Object o) {
-        this.registerComponent(o.getClass(), o);
+        this.registerComponents(o);
+    }
+
+    /**
+     * Registers multiple components at once.
+     * @param objects The objects to register.
+     */
+    public synchronized void registerComponents(@NonNull Object... objects) {
+        Map<Class<?>, Object> methods = new HashMap<Class<?>, Object>(this.methods);
+        for (Object o : objects)
+            this.registerComponent(methods, o.getClass(), o);
+        this.methods = Collections.unmodifiableMap(methods);
     }
 
     /**
      * Register the implemented interfaces of the superclass.
-     * @param cls The type of the object.
-     * @param obj The object to register.
+     * @param methods The map the interfaces are added to.
+     * @param cls     The type of the object.
+     * @param obj     The object to register.
      */
-    private void registerComponent(Class<?> cls, Object obj) {
+    private void registerComponent(Map<Class<?>, Object> methods, Class<?> cls, Object obj) {
         Components components = cls.getAnnotation(Components.class);
         if (components == null)
             return;
 
         for (Class<?> interfaceCls : components.value()) {
-            if (!this.methods.containsKey(interfaceCls))
-                this.methods.put(interfaceCls, obj);
+            if (!methods.containsKey(interfaceCls))
+                methods.put(interfaceCls, obj);
         }
 
-        this.registerComponent(cls.getSuperclass(), obj);
+        this.registerComponent(methods, cls.getSuperclass(), obj);
     }
 
     /**
@@ -95,14 +123,67 @@ public class ComponentBag {
     @Nullable
     public <T> T call(@NonNull Class<?> cls, @NonNull Method method, @NonNull HandleWrapper<?> handle, Object... objects) throws Throwable {
         Handle<?> hObj = handle.getHandle();
+        return this.bind(cls, method, hObj.getClass()).invoke(handle.getEnvironment(), hObj, objects);
+    }
+
+    /**
+     * <p>Resolves the implementation of the component method.</p>
+     * <p>
+     *     The result only depends on the types involved so it can be reused for
+     *     every handle of the given type until new components are registered.
+     * </p>
+     * @param cls        The interface class that is implemented.
+     * @param method     The method.
+     * @param handleCls  The type of the handle.
+     * @return The bound method.
+     */
+    ComponentInvoker bind(Class<?> cls, Method method, Class<?> handleCls) {
         if (this.methods.containsKey(cls))
-            return this.callExternal(cls, method, handle.getEnvironment(), hObj, objects);
-        else if (cls.isInstance(hObj))
-            return this.callInternal(method, handle.getEnvironment(), hObj, objects);
+            return this.bindExternal(cls, method, handleCls);
+        else if (cls.isAssignableFrom(handleCls))
+            return this.bindInternal(method, handleCls);
         else
             throw new UnsupportedOperationException("Interface has not been implemented.");
     }
 
+    /**
+     * Resolves the internal implementation of the method.
+     * @param method     The methods of the call.
+     * @param handleCls  The type of the handle.
+     * @return The bound method.
+     */
+    private ComponentInvoker bindInternal(Method method, Class<?> handleCls) {
+        Method aMethod;
+        try {
+            aMethod = handleCls.getDeclaredMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            throw new UnsupportedOperationException("The implementation does not implement the called method.");
+        }
+        return new ComponentInvoker(aMethod, null);
+    }
+
+    /**
+     * Resolves the component implementing the method.
+     * @param cls        The type that should be searched.
+     * @param method     The methods of the call.
+     * @param handleCls  The type of the handle.
+     * @return The bound method.
+     */
+    private ComponentInvoker bindExternal(Class<?> cls, Method method, Class<?> handleCls) {
+        Object container = this.methods.get(cls);
+        if (container == null)
+            throw new UnsupportedOperationException("Unsupported interface: " + cls.getSimpleName());
+
+        Method aMethod = this.getMethod(container.getClass(), method, handleCls);
+        if (aMethod == null) {
+            throw new UnsupportedOperationException(
+                    "The implementation of the interface does not implement the called method."
+            );
+        }
+
+        return new ComponentInvoker(aMethod, container);
+    }
+
     /**
      * Calls the internal implementation of the method.
      * @param method       The methods of the call.
@@ -114,13 +195,7 @@ public class ComponentBag {
      * @throws Throwable If the method throws an exception.
      */
     <T> T callInternal(Method method, Environment environment, Handle<?> handle, Object... parameters) throws Throwable {
-        Method aMethod;
-        try {
-            aMethod = handle.getClass().getDeclaredMethod(method.getName(), method.getParameterTypes());
-        } catch (NoSuchMethodException e) {
-            throw new UnsupportedOperationException("The implementation does not implement the called method.");
-        }
-        return this.invoke(aMethod, environment, handle, parameters);
+        return this.bindInternal(method, handle.getClass()).invoke(environment, handle, parameters);
     }
 
     /**
@@ -136,18 +211,7 @@ public class ComponentBag {
      */
     <T> T callExternal(Class<?> cls, Method method, Environment environment, Handle<?> handle, Object... parameters)
             throws Throwable {
-        Object container = this.methods.get(cls);
-        if (container == null)
-            throw new UnsupportedOperationException("Unsupported interface: " + cls.getSimpleName());
-
-        Method aMethod = this.getMethod(container.getClass(), method, handle);
-        if (aMethod == null) {
-            throw new UnsupportedOperationException(
-                    "The implementation of the interface does not implement the called method."
-            );
-        }
-
-        return this.invoke(aMethod, environment, container, ArrayUtils.add(parameters, 0, handle));
+        return this.bindExternal(cls, method, handle.getClass()).invoke(environment, handle, parameters);
     }
 
     /**
@@ -158,40 +222,34 @@ public class ComponentBag {
      * @param handle  The handle that is affected by the holder.
      * @return The method or {@code null} if the method was not found.
      */
-    @SuppressWarnings("unchecked")
     Method getMethod(Class<?> cls, Method method, Handle<?> handle) {
+        return this.getMethod(cls, method, handle.getClass());
+    }
+
+    /**
+     * Returns the correct method for the implementation.
+     *
+     * @param cls        The class which method should be searched.
+     * @param method     The method that should be found.
+     * @param handleCls  The type of the handle that is affected by the holder.
+     * @return The method or {@code null} if the method was not found.
+     */
+    Method getMethod(Class<?> cls, Method method, Class<?> handleCls) {
         Class<?> current = cls;
         while (current.getAnnotation(Components.class) != null) {
-            Class<?> handleCls = handle.getClass();
-            while (Handle.class.isAssignableFrom(handleCls)) {
+            Class<?> parameterCls = handleCls;
+            while (Handle.class.isAssignableFrom(parameterCls)) {
                 try {
                     return current.getDeclaredMethod(
                             method.getName(),
-                            ArrayUtils.add(method.getParameterTypes(), 0, handleCls)
+                            ArrayUtils.add(method.getParameterTypes(), 0, parameterCls)
                     );
                 } catch (NoSuchMethodException ignored) {
-                    handleCls = handleCls.getSuperclass();
+                    parameterCls = parameterCls.getSuperclass();
                 }
             }
             current = current.getSuperclass();
         }
         return null;
     }
-
-    /**
-     * Invokes the function in the way described by the function that has been annotated.
-     * @param method       The method that should be called.
-     * @param instance     The instance that should be implemented.
-     * @param parameters   The parameters
-     * @return The result of the method or the callable.
-     * @throws Throwable If the method throws an exception.
-     */
-    <T> T invoke(Method method, Environment environment, Object instance, Object... parameters) throws Throwable {
-        Component component = method.getAnnotation(Component.class);
-        Component.ExecutionThread syncstate = Component.ExecutionThread.SAME_THREAD;
-        if (component != null) {
-            syncstate = (component!=null)?component.thread(): Component.ExecutionThread.SAME_THREAD;
-        }
-        return syncstate.invoke(environment, method, instance, parameters);
-    }
 }
@@ -0,0 +1,106 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.core.components;
+
+import moe.encode.airblock.commands.core.backend.HandleWrapper;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>The resolved implementation of an interface for a wrapper type and handle type.</p>
+ * <p>
+ *     Bindings are created by the {@link ComponentManager} and become stale as soon as
+ *     new components are registered.
+ * </p>
+ */
+final class ComponentBinding {
+
+    /**
+     * The generation of the component manager this binding was created in.
+     */
+    final int generation;
+
+    /**
+     * The interface that is implemented.
+     */
+    private final Class<?> interfaceCls;
+
+    /**
+     * The type of the handle.
+     */
+    private final Class<?> handleCls;
+
+    /**
+     * The bag implementing the interface or {@code null} if the interface is not implemented.
+     */
+    private final ComponentBag bag;
+
+    /**
+     * The invokers that have already been resolved.
+     */
+    private final ConcurrentMap<Method, ComponentInvoker> invokers = new ConcurrentHashMap<Method, ComponentInvoker>();
+
+    /**
+     * Creates a new binding.
+     * @param generation    The generation of the component manager.
+     * @param interfaceCls  The interface that is implemented.
+     * @param handleCls     The type of the handle.
+     * @param bag           The bag implementing the interface or {@code null}.
+     */
+    ComponentBinding(int generation, Class<?> interfaceCls, Class<?> handleCls, ComponentBag bag) {
+        this.generation = generation;
+        this.interfaceCls = interfaceCls;
+        this.handleCls = handleCls;
+        this.bag = bag;
+    }
+
+    /**
+     * Checks if the interface has been implemented.
+     * @return {@code true} if the interface has been implemented.
+     */
+    boolean isImplemented() {
+        return this.bag != null;
+    }
+
+    /**
+     * Calls the given method of the interface.
+     * @param method      The method of the interface.
+     * @param wrapper     The wrapper that calls the method.
+     * @param parameters  The parameters that should be passed.
+     * @param <T> The return type.
+     * @return The result of the method.
+     * @throws Throwable If the method throws an exception.
+     */
+    <T> T call(Method method, HandleWrapper<?> wrapper, Object[] parameters) throws Throwable {
+        if (this.bag == null)
+            throw new UnsupportedOperationException("Interface is not supported.");
+
+        ComponentInvoker invoker = this.invokers.get(method);
+        if (invoker == null) {
+            invoker = this.bag.bind(this.interfaceCls, method, this.handleCls);
+            ComponentInvoker previous = this.invokers.putIfAbsent(method, invoker);
+            if (previous != null)
+                invoker = previous;
+        }
+
+        return invoker.invoke(wrapper.getEnvironment(), wrapper.getHandle(), parameters);
+    }
+}
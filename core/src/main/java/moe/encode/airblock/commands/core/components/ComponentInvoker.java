@@ -0,0 +1,88 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.core.components;
+
+import moe.encode.airblock.commands.core.backend.Handle;
+import moe.encode.airblock.commands.core.settings.Environment;
+
+import java.lang.reflect.Method;
+
+/**
+ * <p>A component method that has been bound to its implementation.</p>
+ * <p>
+ *     The implementing method and its execution thread are resolved once so calling
+ *     the component does not need any further reflective lookups.
+ * </p>
+ */
+final class ComponentInvoker {
+
+    /**
+     * The implementing method.
+     */
+    private final Method method;
+
+    /**
+     * The external component or {@code null} if the handle implements the method itself.
+     */
+    private final Object container;
+
+    /**
+     * The thread the method is executed in.
+     */
+    private final Component.ExecutionThread thread;
+
+    /**
+     * Creates a new invoker.
+     * @param method     The implementing method.
+     * @param container  The external component or {@code null} if the handle implements the method.
+     */
+    ComponentInvoker(Method method, Object container) {
+        this.method = method;
+        this.container = container;
+
+        Component component = method.getAnnotation(Component.class);
+        this.thread = component != null ? component.thread() : Component.ExecutionThread.SAME_THREAD;
+
+        if (!method.isAccessible())
+            method.setAccessible(true);
+    }
+
+    /**
+     * Invokes the method.
+     * @param environment  The environment of the handle.
+     * @param handle       The handle that is called.
+     * @param parameters   The parameters passed to the interface method.
+     * @param <T> The return type.
+     * @return The result of the method.
+     * @throws Throwable If the method throws an exception.
+     */
+    <T> T invoke(Environment environment, Handle<?> handle, Object[] parameters) throws Throwable {
+        if (this.container == null)
+            return this.thread.invoke(environment, this.method, handle, parameters);
+
+        // External components receive the handle as their first argument.
+        int length = parameters == null ? 0 : parameters.length;
+        Object[] arguments = new Object[length + 1];
+        arguments[0] = handle;
+        if (length > 0)
+            System.arraycopy(parameters, 0, arguments, 1, length);
+
+        return this.thread.invoke(environment, this.method, this.container, arguments);
+    }
+}
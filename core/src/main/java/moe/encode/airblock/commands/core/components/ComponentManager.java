@@ -22,10 +22,17 @@ package moe.encode.airblock.commands.core.components;
 import lombok.NonNull;
 import moe.encode.airblock.commands.core.backend.HandleWrapper;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * <p>The manager for components.</p>
@@ -37,24 +44,53 @@ import java.util.Map;
 public class ComponentManager {
 
     /**
-     * Contains all bags.
+     * Contains all bags.<p />
+     *
+     * This is an immutable snapshot that is replaced as a whole whenever components are registered,
+     * so lookups never need to lock.
+     */
+    private volatile Map<Class<?>, ComponentBag> bags = Collections.emptyMap();
+
+    /**
+     * The resolved bindings for each interface, wrapper type and handle type.
      */
-    private Map<Class<?>, ComponentBag> bags = new HashMap<Class<?>, ComponentBag>();
+    private final ConcurrentMap<BindingKey, ComponentBinding> bindings =
+            new ConcurrentHashMap<BindingKey, ComponentBinding>();
 
     /**
-     * Registers a new wrapper type.
+     * Incremented each time a component is registered so stale bindings can be detected.
+     */
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * The constructors of the proxy classes for each interface.
+     */
+    private final ConcurrentMap<Class<?>, Constructor<?>> proxies = new ConcurrentHashMap<Class<?>, Constructor<?>>();
+
+    /**
+     * Registers new components for a wrapper type.<p />
      *
-     * @param wrapperType     The wrapper to implement.
-     * @param implementation  The implementation of the given interfaces.
+     * All components are published at once.
+     *
+     * @param wrapperType      The wrapper to implement.
+     * @param implementations  The implementations of the given interfaces.
      */
-    public void register(@NonNull Class<?> wrapperType, @NonNull Object implementation) {
+    public void register(@NonNull Class<?> wrapperType, @NonNull Object... implementations) {
         if (!HandleWrapper.class.isAssignableFrom(wrapperType))
             throw new IllegalArgumentException("Invalid argument");
 
-        if (!this.bags.containsKey(wrapperType))
-            this.bags.put(wrapperType, new ComponentBag());
+        synchronized (this) {
+            Map<Class<?>, ComponentBag> bags = new HashMap<Class<?>, ComponentBag>(this.bags);
+
+            ComponentBag bag = bags.get(wrapperType);
+            bag = bag == null ? new ComponentBag() : new ComponentBag(bag);
+            bag.registerComponents(implementations);
+            bags.put(wrapperType, bag);
 
-        this.bags.get(wrapperType).registerComponent(implementation);
+            this.bags = Collections.unmodifiableMap(bags);
+            this.generation.incrementAndGet();
+            this.bindings.clear();
+        }
     }
 
     /**
@@ -64,14 +100,53 @@ public class ComponentManager {
      * @return {@code true} if the component has been implemented.
      */
     public boolean isImplemented(@NonNull Class<?> interfaceCls, @NonNull HandleWrapper<?> wrapper) {
+        return this.getBinding(interfaceCls, wrapper).isImplemented();
+    }
+
+    /**
+     * Returns the binding of the interface for the given wrapper.
+     * @param interfaceCls  The interface class.
+     * @param wrapper       The wrapper.
+     * @return The binding. It might not implement the interface.
+     */
+    ComponentBinding getBinding(Class<?> interfaceCls, HandleWrapper<?> wrapper) {
+        BindingKey key = new BindingKey(interfaceCls, wrapper.getClass(), wrapper.getHandle().getClass());
+        ComponentBinding binding = this.bindings.get(key);
+        if (binding != null && this.isCurrent(binding))
+            return binding;
+
+        int generation = this.generation.get();
+        binding = new ComponentBinding(generation, interfaceCls, key.handle, this.resolve(interfaceCls, wrapper));
+        this.bindings.put(key, binding);
+        return binding;
+    }
+
+    /**
+     * Checks if the binding is still valid.
+     * @param binding  The binding to check.
+     * @return {@code true} if no components have been registered since the binding was created.
+     */
+    boolean isCurrent(ComponentBinding binding) {
+        return binding.generation == this.generation.get();
+    }
+
+    /**
+     * Searches the bag that implements the given interface.
+     * @param interfaceCls  The interface class.
+     * @param wrapper       The wrapper.
+     * @return The bag or {@code null} if the interface has not been implemented.
+     */
+    private ComponentBag resolve(Class<?> interfaceCls, HandleWrapper<?> wrapper) {
+        Map<Class<?>, ComponentBag> bags = this.bags;
+
         Class<?> cur = wrapper.getClass();
         while (HandleWrapper.class.isAssignableFrom(cur)) {
-            if (this.bags.containsKey(cur))
-                if (this.bags.get(cur).isImplemented(interfaceCls, wrapper))
-                    return true;
+            ComponentBag bag = bags.get(cur);
+            if (bag != null && bag.isImplemented(interfaceCls, wrapper))
+                return bag;
             cur = cur.getSuperclass();
         }
-        return false;
+        return null;
     }
 
     /**
@@ -86,22 +161,7 @@ public class ComponentManager {
      * @throws Throwable If we fail to execute the function.
      */
     public <T> T call(HandleWrapper<?> wrapper, Class<?> interfaceCls, Method method, Object... parameters) throws Throwable {
-        ComponentBag bag = null;
-
-        Class<?> cur = wrapper.getClass();
-        while (HandleWrapper.class.isAssignableFrom(cur)) {
-            if (this.bags.containsKey(cur))
-                if (this.bags.get(cur).isImplemented(interfaceCls, wrapper)) {
-                    bag = this.bags.get(cur);
-                    break;
-                }
-            cur = cur.getSuperclass();
-        }
-
-        if (bag == null)
-            throw new UnsupportedOperationException("Interface is not supported.");
-
-        return bag.call(interfaceCls, method, wrapper, parameters);
+        return this.getBinding(interfaceCls, wrapper).call(method, wrapper, parameters);
     }
 
     /**
@@ -119,9 +179,38 @@ public class ComponentManager {
         if (!this.isImplemented(interfaceCls, wrapper))
             throw new IllegalArgumentException("Unsupported interface.");
 
-        return (T)Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class[]{interfaceCls}, new WrapperInvocationHandler(
-                wrapper, interfaceCls
-        ));
+        try {
+            return (T)this.getProxyConstructor(interfaceCls).newInstance(new WrapperInvocationHandler(
+                    wrapper, interfaceCls
+            ));
+        } catch (InstantiationException e) {
+            throw new IllegalStateException("Failed to create the proxy.", e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Failed to create the proxy.", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create the proxy.", e.getTargetException());
+        }
+    }
+
+    /**
+     * Returns the constructor of the proxy class for the given interface.
+     * @param interfaceCls  The interface class.
+     * @return The constructor taking the invocation handler.
+     */
+    private Constructor<?> getProxyConstructor(Class<?> interfaceCls) {
+        Constructor<?> constructor = this.proxies.get(interfaceCls);
+        if (constructor != null)
+            return constructor;
+
+        Class<?> proxyCls = Proxy.getProxyClass(this.getClass().getClassLoader(), interfaceCls);
+        try {
+            constructor = proxyCls.getConstructor(InvocationHandler.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Proxy class without invocation handler constructor.", e);
+        }
+
+        Constructor<?> previous = this.proxies.putIfAbsent(interfaceCls, constructor);
+        return previous != null ? previous : constructor;
     }
 
     /**
@@ -140,6 +229,57 @@ public class ComponentManager {
         if (component != null)
             strategy = component.strategy();
 
-        return strategy.invoke(method, instance, parameters);
+        return strategy.invoke(component, method, instance, parameters);
+    }
+
+    /**
+     * The key of a binding.
+     */
+    private static final class BindingKey {
+
+        /**
+         * The interface class.
+         */
+        final Class<?> interfaceCls;
+
+        /**
+         * The type of the wrapper.
+         */
+        final Class<?> wrapper;
+
+        /**
+         * The type of the handle.
+         */
+        final Class<?> handle;
+
+        /**
+         * The precomputed hash code.
+         */
+        private final int hash;
+
+        BindingKey(Class<?> interfaceCls, Class<?> wrapper, Class<?> handle) {
+            this.interfaceCls = interfaceCls;
+            this.wrapper = wrapper;
+            this.handle = handle;
+            this.hash = 31 * (31 * interfaceCls.hashCode() + wrapper.hashCode()) + handle.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof BindingKey))
+                return false;
+
+            BindingKey other = (BindingKey) o;
+            return this.interfaceCls == other.interfaceCls
+                    && this.wrapper == other.wrapper
+                    && this.handle == other.handle;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
     }
 }
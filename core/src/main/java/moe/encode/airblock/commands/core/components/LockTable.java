@@ -0,0 +1,182 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.core.components;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>A table of reference counted read-write locks.</p>
+ * <p>
+ *     Locks are created when the first thread acquires them and removed as soon as
+ *     the last thread releases them, so the table only holds locks that are in use.
+ *     Lookups do not contend on a shared monitor.
+ * </p>
+ *
+ * @param <K> The type of the keys.
+ */
+final class LockTable<K> {
+
+    /**
+     * The lock of a single key.
+     */
+    static final class Entry {
+
+        /**
+         * The actual lock.
+         */
+        final ReentrantReadWriteLock lock;
+
+        /**
+         * The number of threads currently holding or waiting for the lock.
+         * Zero means the entry has been retired.
+         */
+        final AtomicInteger references = new AtomicInteger(1);
+
+        /**
+         * The key of the entry in the table.
+         */
+        final Object key;
+
+        Entry(Object key, boolean fair) {
+            this.key = key;
+            this.lock = new ReentrantReadWriteLock(fair);
+        }
+
+        /**
+         * Tries to add a reference to the entry.
+         * @return {@code false} if the entry has already been retired.
+         */
+        boolean retain() {
+            int current;
+            do {
+                current = this.references.get();
+                if (current == 0)
+                    return false;
+            } while (!this.references.compareAndSet(current, current + 1));
+            return true;
+        }
+    }
+
+    /**
+     * Wraps keys that should be compared by identity.
+     */
+    private static final class IdentityKey {
+
+        /**
+         * The wrapped object.
+         */
+        private final Object object;
+
+        IdentityKey(Object object) {
+            this.object = object;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey && ((IdentityKey) o).object == this.object;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.object);
+        }
+    }
+
+    /**
+     * The locks that are currently in use.
+     */
+    private final ConcurrentMap<Object, Entry> entries = new ConcurrentHashMap<Object, Entry>();
+
+    /**
+     * Should the keys be compared by identity.
+     */
+    private final boolean identity;
+
+    /**
+     * Creates a new lock table.
+     * @param identity {@code true} if the keys should be compared by identity instead of {@code equals}.
+     */
+    LockTable(boolean identity) {
+        this.identity = identity;
+    }
+
+    /**
+     * Acquires the lock of the given key.
+     * @param key       The key.
+     * @param fair      Should a newly created lock be fair. Existing locks keep their fairness.
+     * @param shared    {@code true} to acquire the read lock, {@code false} for the write lock.
+     * @return The entry that has to be passed to {@link #release(Entry, boolean)}.
+     */
+    Entry acquire(K key, boolean fair, boolean shared) {
+        Object mapKey = this.identity ? new IdentityKey(key) : key;
+
+        Entry entry;
+        while (true) {
+            entry = this.entries.get(mapKey);
+            if (entry == null) {
+                Entry created = new Entry(mapKey, fair);
+                entry = this.entries.putIfAbsent(mapKey, created);
+                if (entry == null) {
+                    entry = created;
+                    break;
+                }
+            }
+
+            // The entry might have been retired between the lookup and now.
+            if (entry.retain())
+                break;
+        }
+
+        this.getLock(entry, shared).lock();
+        return entry;
+    }
+
+    /**
+     * Releases the lock.
+     * @param entry   The entry returned by {@link #acquire(Object, boolean, boolean)}.
+     * @param shared  Has the read lock been acquired.
+     */
+    void release(Entry entry, boolean shared) {
+        this.getLock(entry, shared).unlock();
+        if (entry.references.decrementAndGet() == 0)
+            this.entries.remove(entry.key, entry);
+    }
+
+    /**
+     * Returns the number of locks that are currently in use.
+     * @return The number of locks.
+     */
+    int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the lock of the entry.
+     * @param entry   The entry.
+     * @param shared  Should the read lock be returned.
+     * @return The lock.
+     */
+    private Lock getLock(Entry entry, boolean shared) {
+        return shared ? entry.lock.readLock() : entry.lock.writeLock();
+    }
+}
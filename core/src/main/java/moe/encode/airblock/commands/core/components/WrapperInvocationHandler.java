@@ -38,6 +38,11 @@ public class WrapperInvocationHandler implements InvocationHandler {
      */
     final Class<?> interfaceCls;
 
+    /**
+     * The last binding resolved for the wrapper.
+     */
+    private volatile ComponentBinding binding;
+
     /**
      * The invocation handler.
      * @param wrapper        The wrapper.
@@ -50,11 +55,13 @@ public class WrapperInvocationHandler implements InvocationHandler {
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        return this.wrapper.getEnvironment().getComponentManager().call(
-                this.wrapper,
-                this.interfaceCls,
-                method,
-                args
-        );
+        ComponentManager manager = this.wrapper.getEnvironment().getComponentManager();
+
+        // The wrapper and its handle never change, so the binding stays valid until new components are registered.
+        ComponentBinding binding = this.binding;
+        if (binding == null || !manager.isCurrent(binding))
+            this.binding = binding = manager.getBinding(this.interfaceCls, this.wrapper);
+
+        return binding.call(method, this.wrapper, args);
     }
 }
@@ -80,4 +80,26 @@ public @interface HookHandler {
      */
     public Priority priority() default Priority.MEDIUM;
 
+    /**
+     * <p>Should the handler run in the thread pool?</p>
+     * <p>
+     *     Asynchronous handlers are called after all synchronous handlers of the hook have
+     *     been called. They are called one after another in the same order as synchronous
+     *     handlers, so the order is guaranteed per hook instance.
+     * </p>
+     * @return {@code true} if the handler should run asynchronously.
+     */
+    public boolean async() default false;
+
+    /**
+     * <p>Should the handler run in parallel to the other parallel handlers of the hook?</p>
+     * <p>
+     *     Only allowed for handlers with the {@link Priority#MONITOR} priority as there is no
+     *     order between them. Parallel handlers are always asynchronous and are started after
+     *     all other asynchronous handlers have been called.
+     * </p>
+     * @return {@code true} if the handler may run in parallel.
+     */
+    public boolean parallel() default false;
+
 }
@@ -19,11 +19,17 @@
 package moe.encode.airblock.commands.core.hooks;
 
 import moe.encode.airblock.commands.core.settings.Environment;
-import moe.encode.airblock.utils.ReflectionUtils;
+import moe.encode.airblock.utils.Promise;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 /**
@@ -42,17 +48,17 @@ public class HookManager {
     /**
      * Contains the actual hooks.
      */
-    private class HookData {
+    private static class HookData {
 
         /**
-         * The method that should be used.
+         * The method.
          */
         private final Method method;
 
         /**
-         * The instance of that should be used.
+         * The method bound to its instance with the type {@code (Object[])Object}.
          */
-        private final Object instance;
+        private final MethodHandle handle;
 
         /**
          * Contains the handler for the hooks.
@@ -66,20 +72,106 @@ public class HookManager {
          */
         private HookData(Method method, Object instance) {
             this.method = method;
-            this.instance = instance;
-            this.handler = this.method.getAnnotation(HookHandler.class);
+            this.handle = bind(method, instance);
+            this.handler = method.getAnnotation(HookHandler.class);
+        }
+
+        /**
+         * Resolves the handle of the method.
+         * @param method    The method.
+         * @param instance  The instance. Ignored for static methods.
+         * @return A handle with the type {@code (Object[])Object}.
+         */
+        private static MethodHandle bind(Method method, Object instance) {
+            if (!method.isAccessible())
+                method.setAccessible(true);
+
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.lookup().unreflect(method);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Invalid handler format: Method not accessible.", e);
+            }
+
+            if (!Modifier.isStatic(method.getModifiers()))
+                handle = handle.bindTo(instance);
+
+            // Core compiles with source level 1.6, where javac does not treat invokeExact as
+            // signature polymorphic. A call always passes an Object[] and returns an Object.
+            return handle.asType(MethodType.genericMethodType(1)).asSpreader(Object[].class, 1);
+        }
+    }
+
+    /**
+     * Sorts the handlers by their priority, highest priority first.
+     */
+    private static final Comparator<HookData> PRIORITY_ORDER = new Comparator<HookData>() {
+        @Override
+        public int compare(HookData o1, HookData o2) {
+            return o2.handler.priority().ordinal() - o1.handler.priority().ordinal();
+        }
+    };
+
+    /**
+     * An array without any handlers.
+     */
+    private static final HookData[] NO_HANDLERS = new HookData[0];
+
+    /**
+     * The compiled handlers of a hook type.
+     */
+    private static final class HookChain {
+
+        /**
+         * The handlers called in the firing thread.
+         */
+        private final HookData[] sync;
+
+        /**
+         * The handlers called one after another in the thread pool.
+         */
+        private final HookData[] async;
+
+        /**
+         * The handlers called in parallel in the thread pool.
+         */
+        private final HookData[] parallel;
+
+        private HookChain(HookData[] sync, HookData[] async, HookData[] parallel) {
+            this.sync = sync;
+            this.async = async;
+            this.parallel = parallel;
         }
     }
 
+    /**
+     * A chain without any handlers.
+     */
+    private static final HookChain NO_CHAIN = new HookChain(NO_HANDLERS, NO_HANDLERS, NO_HANDLERS);
+
+    /**
+     * Returned by {@link #call(Hook)} if there are no asynchronous handlers.
+     */
+    private static final Promise<Void> COMPLETED = Promise.completed(null);
+
     /**
      * The internal environment that is used by the hook-handler.
      */
     private final Environment environment;
 
     /**
-     * The actual registered hooks.
+     * The actual registered hooks. Guarded by this manager.
+     */
+    private final Map<Class<?>, List<HookData>> hooks = new HashMap<Class<?>, List<HookData>>();
+
+    /**
+     * <p>The compiled handler chains for each hook type.</p>
+     * <p>
+     *     A chain contains the handlers of the hook type and of all its superclasses in the
+     *     order they are called. The map is replaced whenever the registered hooks change.
+     * </p>
      */
-    private Map<Class<?>, List<HookData>> hooks = new ConcurrentHashMap<Class<?>, List<HookData>>();
+    private volatile ConcurrentMap<Class<?>, HookChain> chains = new ConcurrentHashMap<Class<?>, HookChain>();
 
     /**
      * Registers all hooks.
@@ -97,7 +189,7 @@ public class HookManager {
      * @param cls     The current class.
      * @param object  The object.
      */
-    void registerHooks(Class<?> cls, Object object) {
+    synchronized void registerHooks(Class<?> cls, Object object) {
         if (cls == null)
             return;
 
@@ -113,6 +205,9 @@ public class HookManager {
                 throw new IllegalArgumentException("Invalid handler format: Argument-Type not a hook.");
             }
 
+            if (handler.parallel() && handler.priority() != HookHandler.Priority.MONITOR)
+                throw new IllegalArgumentException("Invalid handler format: Only monitors can run in parallel.");
+
             if (!hooks.containsKey(method.getParameterTypes()[0])) {
                 hooks.put(method.getParameterTypes()[0], new ArrayList<HookData>());
             }
@@ -121,54 +216,199 @@ public class HookManager {
         }
 
         this.registerHooks(cls.getSuperclass(), object);
+        this.chains = new ConcurrentHashMap<Class<?>, HookChain>();
     }
 
     /**
-     * Calls the hook.
+     * <p>Calls the hook.</p>
+     * <p>
+     *     The synchronous handlers have been called when this method returns. The asynchronous
+     *     handlers are called in the thread pool afterwards.
+     * </p>
      * @param hook The hook that should be called.
+     * @return A promise that completes when all handlers have been called.
      */
-    public void call(Hook hook) {
-        this.call(hook.getClass(), hook);
+    public Promise<Void> call(Hook hook) {
+        HookChain chain = this.getChain(hook.getClass());
+        if (chain == NO_CHAIN)
+            return COMPLETED;
+
+        // The handles do not keep the argument array, so all handlers can share it.
+        Object[] arguments = {hook};
+        Throwable failure = this.callAll(chain.sync, arguments);
+        if (failure != null)
+            return Promise.failed(failure);
+
+        if (chain.async.length == 0 && chain.parallel.length == 0)
+            return COMPLETED;
+
+        Promise<Void> promise = new Promise<Void>();
+        this.environment.getBackend().runAsynchronously(new AsyncDispatch(chain, arguments, promise));
+        return promise;
     }
 
     /**
-     * Calls the hook.
-     * @param type   The type of the hook.
-     * @param hook   The hook itself.
+     * Calls the handlers one after another.
+     * @param handlers   The handlers.
+     * @param arguments  The arguments containing the hook.
+     * @return The exception thrown by a handler or {@code null}. No further handlers are called after a failure.
      */
-    void call(Class<?> type, Hook hook) {
-        if (!Hook.class.isAssignableFrom(type))
-            return;
+    private Throwable callAll(HookData[] handlers, Object[] arguments) {
+        for (HookData data : handlers) {
+            Throwable failure = this.callOne(data, arguments);
+            if (failure != null)
+                return failure;
+        }
+        return null;
+    }
+
+    /**
+     * Calls a single handler.
+     * @param data       The handler.
+     * @param arguments  The arguments containing the hook.
+     * @return The exception thrown by the handler or {@code null}.
+     */
+    private Throwable callOne(HookData data, Object[] arguments) {
+        try {
+            data.handle.invokeExact(arguments);
+            return null;
+        } catch (Throwable e) {
+            this.environment.getBackend().getLogger().log(
+                    Level.SEVERE, "Error in hook-handler: " + data.method, e
+            );
+            return e;
+        }
+    }
+
+    /**
+     * Calls the asynchronous handlers of a hook.
+     */
+    private final class AsyncDispatch implements Runnable {
+
+        /**
+         * The chain of the hook.
+         */
+        private final HookChain chain;
+
+        /**
+         * The arguments containing the hook.
+         */
+        private final Object[] arguments;
+
+        /**
+         * Completed when all handlers have been called.
+         */
+        private final Promise<Void> promise;
+
+        /**
+         * The number of parallel handlers that are still running.
+         */
+        private final AtomicInteger running;
+
+        private AsyncDispatch(HookChain chain, Object[] arguments, Promise<Void> promise) {
+            this.chain = chain;
+            this.arguments = arguments;
+            this.promise = promise;
+            this.running = new AtomicInteger(chain.parallel.length);
+        }
 
-        if (this.hooks.containsKey(type)) {
-            List<HookData> hooks = new ArrayList<HookData>(this.hooks.get(type));
-
-            Collections.sort(hooks, new Comparator<HookData>() {
-                @Override
-                public int compare(HookData o1, HookData o2) {
-                    return ((Integer) o1.handler.priority().ordinal()).compareTo(o2.handler.priority().ordinal());
-                }
-            });
-            Collections.reverse(hooks);
-
-            for (HookData data : hooks) {
-                try {
-                    ReflectionUtils.invoke(data.method, data.instance, hook);
-                } catch (Throwable e) {
-                    e.printStackTrace();
-                    this.environment.getBackend().getLogger().log(Level.SEVERE, "Error in hook-handler: " + data.method, e);
-                    return;
-                }
+        @Override
+        public void run() {
+            Throwable failure = HookManager.this.callAll(this.chain.async, this.arguments);
+            if (failure != null) {
+                this.promise.fail(failure);
+                return;
+            }
+
+            if (this.chain.parallel.length == 0) {
+                this.promise.complete(null);
+                return;
+            }
+
+            for (final HookData data : this.chain.parallel) {
+                HookManager.this.environment.getBackend().runAsynchronously(new Runnable() {
+                    @Override
+                    public void run() {
+                        Throwable failure = HookManager.this.callOne(data, AsyncDispatch.this.arguments);
+                        if (failure != null)
+                            AsyncDispatch.this.promise.fail(failure);
+                        if (AsyncDispatch.this.running.decrementAndGet() == 0)
+                            AsyncDispatch.this.promise.complete(null);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Returns the compiled handler chain of the hook type.
+     * @param type The type of the hook.
+     * @return The handlers of the hook.
+     */
+    HookChain getChain(Class<?> type) {
+        ConcurrentMap<Class<?>, HookChain> chains = this.chains;
+        HookChain chain = chains.get(type);
+        if (chain == null) {
+            chain = this.compile(type);
+            chains.putIfAbsent(type, chain);
+        }
+        return chain;
+    }
+
+    /**
+     * Compiles the handler chain of the hook type.<p />
+     *
+     * The handlers of each class are sorted by their priority, the handlers of the
+     * superclasses are called after the handlers of their subclasses.
+     *
+     * @param type The type of the hook.
+     * @return The handlers of the hook.
+     */
+    private synchronized HookChain compile(Class<?> type) {
+        List<HookData> sync = new ArrayList<HookData>();
+        List<HookData> async = new ArrayList<HookData>();
+        List<HookData> parallel = new ArrayList<HookData>();
+        for (Class<?> cur = type; cur != null && Hook.class.isAssignableFrom(cur); cur = cur.getSuperclass()) {
+            List<HookData> handlers = this.hooks.get(cur);
+            if (handlers == null)
+                continue;
+
+            // Equal priorities are called in reverse registration order.
+            List<HookData> sorted = new ArrayList<HookData>(handlers);
+            Collections.reverse(sorted);
+            Collections.sort(sorted, PRIORITY_ORDER);
+
+            for (HookData data : sorted) {
+                if (data.handler.parallel())
+                    parallel.add(data);
+                else if (data.handler.async())
+                    async.add(data);
+                else
+                    sync.add(data);
             }
         }
 
-        this.call(type.getSuperclass(), hook);
+        if (sync.isEmpty() && async.isEmpty() && parallel.isEmpty())
+            return NO_CHAIN;
+        return new HookChain(HookManager.toArray(sync), HookManager.toArray(async), HookManager.toArray(parallel));
+    }
+
+    /**
+     * Converts the list of handlers into an array.
+     * @param handlers The handlers.
+     * @return The array.
+     */
+    private static HookData[] toArray(List<HookData> handlers) {
+        if (handlers.isEmpty())
+            return NO_HANDLERS;
+        return handlers.toArray(new HookData[handlers.size()]);
     }
 
     /**
      * Disable all existing hooks.
      */
-    public void clear() {
+    public synchronized void clear() {
         this.hooks.clear();
+        this.chains = new ConcurrentHashMap<Class<?>, HookChain>();
     }
 }
@@ -0,0 +1,38 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.core.list;
+
+import lombok.NonNull;
+
+/**
+ * A command that can also be invoked by other names.
+ */
+public interface AliasedCommand extends Command {
+
+    /**
+     * Returns the aliases of the command.<p />
+     *
+     * Aliases are matched case-insensitively, just like the value of the command.
+     *
+     * @return The aliases of the command. Never {@code null}.
+     */
+    @NonNull
+    public String[] getAliases();
+
+}
@@ -22,18 +22,37 @@ import lombok.NonNull;
 import moe.encode.airblock.commands.Executor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 
 /**
- * The implementation of the command net.stuxcrystal.airblock.commands.
+ * The implementation of the command net.stuxcrystal.airblock.commands.<p />
+ *
+ * Commands are indexed by their lower-cased value and aliases. The index is
+ * replaced on each registration (copy-on-write) so lookups never need to lock
+ * or allocate.
  */
 public class CommandList {
 
+    /**
+     * An empty command array.
+     */
+    private static final Command[] NO_COMMANDS = new Command[0];
+
     /**
      * Contains all commands of the net.stuxcrystal.airblock.commands.
      */
-    private List<Command> commands = new ArrayList<Command>();
+    private volatile Command[] commands = NO_COMMANDS;
+
+    /**
+     * Maps the lower-cased names and aliases to the commands registered under that name.
+     */
+    private volatile Map<String, Command[]> index = Collections.emptyMap();
 
     /**
      * Contains all commands.
@@ -49,7 +68,7 @@ public class CommandList {
         Objects.requireNonNull(command);
 
         if (command instanceof Command) {
-            this.commands.add((Command) command);
+            this.addCommand((Command) command);
             return;
         }
 
@@ -58,6 +77,71 @@ public class CommandList {
         }
     }
 
+    /**
+     * Adds the command to the command table.
+     * @param command The command to add.
+     */
+    private synchronized void addCommand(@NonNull Command command) {
+        Command[] commands = Arrays.copyOf(this.commands, this.commands.length + 1);
+        commands[commands.length - 1] = command;
+
+        Map<String, Command[]> index = new HashMap<String, Command[]>(this.index);
+        CommandList.addKey(index, command.getName(), command);
+        if (command instanceof AliasedCommand) {
+            for (String alias : ((AliasedCommand) command).getAliases())
+                CommandList.addKey(index, alias, command);
+        }
+
+        this.commands = commands;
+        this.index = index;
+    }
+
+    /**
+     * Adds the command under the given key.
+     * @param index    The index to modify.
+     * @param name     The name or alias of the command.
+     * @param command  The command.
+     */
+    private static void addKey(Map<String, Command[]> index, String name, Command command) {
+        String key = CommandList.normalize(name);
+        Command[] current = index.get(key);
+        if (current == null) {
+            index.put(key, new Command[] {command});
+            return;
+        }
+
+        // Don't add the command twice if an alias equals its value.
+        for (Command existing : current)
+            if (existing == command)
+                return;
+
+        Command[] result = Arrays.copyOf(current, current.length + 1);
+        result[current.length] = command;
+        index.put(key, result);
+    }
+
+    /**
+     * Normalizes the value of a command so it can be used as a key.
+     * @param name The value of the command.
+     * @return The key.
+     */
+    private static String normalize(String name) {
+        // String.toLowerCase returns the same instance if nothing changes.
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Returns the commands registered under the given name or alias.
+     * @param name The name of the command.
+     * @return The commands. The returned array must not be modified.
+     */
+    private Command[] lookup(String name) {
+        Command[] result = this.index.get(CommandList.normalize(name));
+        if (result == null)
+            return NO_COMMANDS;
+        return result;
+    }
+
     /**
      * Adds a registrar to the command list.
      * @param registrar The new command list.
@@ -73,22 +157,28 @@ public class CommandList {
      */
     @NonNull
     public List<Command> getCommands() {
-        return new ArrayList<Command>(this.commands);
+        return new ArrayList<Command>(Arrays.asList(this.commands));
     }
 
     /**
      * Returns the commands for the list.
-     * @param name The value of the command.
+     * @param name The value or an alias of the command.
      * @return All commands with the given value.
      */
     @NonNull
     public List<Command> getCommand(@NonNull String name) {
         Objects.requireNonNull(name);
-        List<Command> commands = new ArrayList<Command>(this.commands.size());
-        for (Command command : this.commands)
-            if (command.getName().equals(name))
-                commands.add(command);
-        return commands;
+        return new ArrayList<Command>(Arrays.asList(this.lookup(name)));
+    }
+
+    /**
+     * Checks if there is a command with the given value or alias.
+     * @param name The value or an alias of the command.
+     * @return {@code true} if there is at least one command with this name.
+     */
+    public boolean hasCommand(@NonNull String name) {
+        Objects.requireNonNull(name);
+        return this.lookup(name).length != 0;
     }
 
     /**
@@ -100,7 +190,7 @@ public class CommandList {
      * @return {@code true} if the command has been found and executed.
      */
     public boolean execute(@NonNull String command, @NonNull Executor executor, @NonNull String args) {
-        for (Command cmd : this.getCommand(command)) {
+        for (Command cmd : this.lookup(command)) {
             if (cmd.canExecute(executor, args)) {
                 cmd.execute(executor, args);
                 return true;
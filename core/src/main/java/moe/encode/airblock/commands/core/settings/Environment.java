@@ -30,7 +30,9 @@ import moe.encode.airblock.commands.arguments.split.ArgumentSplitter;
 import moe.encode.airblock.commands.arguments.split.SimpleSplit;
 import moe.encode.airblock.commands.Backend;
 import moe.encode.airblock.commands.contrib.scheduler.Scheduler;
-import moe.encode.airblock.commands.contrib.scheduler.fallback.FallbackScheduler;
+import moe.encode.airblock.commands.contrib.scheduler.wheel.TimingWheelScheduler;
+import moe.encode.airblock.commands.contrib.threads.ExecutionLanes;
+import moe.encode.airblock.commands.contrib.threads.MainThreadMailbox;
 import moe.encode.airblock.commands.core.exceptions.ExceptionHandlerBag;
 import moe.encode.airblock.commands.core.hooks.HookManager;
 
@@ -85,6 +87,18 @@ public class Environment implements CommandSettings {
     @NonNull
     public final Backend backend;
 
+    /**
+     * The mailbox for calls that have to run in the main thread.
+     */
+    @NonNull
+    public MainThreadMailbox mailbox = new MainThreadMailbox(this);
+
+    /**
+     * The lanes that serialize asynchronous commands per executor.
+     */
+    @NonNull
+    public ExecutionLanes executionLanes = new ExecutionLanes(this);
+
     /**
      * The exception handler
      */
@@ -126,7 +140,7 @@ public class Environment implements CommandSettings {
      */
     public Scheduler getScheduler() {
         if (!this.getBackend().hasComponent(Scheduler.class))
-            this.registerComponent(Backend.class, new FallbackScheduler(this));
+            this.registerComponent(Backend.class, new TimingWheelScheduler(this));
         return this.getBackend().getComponent(Scheduler.class);
     }
 
@@ -34,6 +34,14 @@ public class LocalStorage extends SingleStringSeparatedLocationStorage {
         this.ft = ft;
     }
 
+    /**
+     * Returns the directory the files are stored in.
+     * @return The base-dir.
+     */
+    public File getBaseDir() {
+        return this.baseDir;
+    }
+
     /**
      * The given configuration location.
      *
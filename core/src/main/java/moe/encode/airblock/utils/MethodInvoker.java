@@ -0,0 +1,104 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.utils;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * <p>A method that has been bound to an instance.</p>
+ * <p>
+ *     The method is resolved to a {@link MethodHandle} once when the invoker is created. The
+ *     handle is bound to the instance and takes the parameters as an array, so every call is
+ *     a single {@link MethodHandle#invokeExact(Object...)} the JIT can inline.
+ * </p>
+ */
+public final class MethodInvoker {
+
+    /**
+     * The method that is invoked.
+     */
+    @Getter
+    private final Method method;
+
+    /**
+     * The instance the method is invoked on. {@code null} for static methods.
+     */
+    @Getter
+    private final Object instance;
+
+    /**
+     * The handle of the method with the type {@code (Object[])Object}.
+     */
+    private final MethodHandle handle;
+
+    /**
+     * Binds the method to the instance.
+     * @param method    The method.
+     * @param instance  The instance. Ignored for static methods.
+     */
+    public MethodInvoker(@NonNull Method method, @Nullable Object instance) {
+        if (!method.isAccessible())
+            method.setAccessible(true);
+
+        this.method = method;
+        this.instance = Modifier.isStatic(method.getModifiers()) ? null : instance;
+        this.handle = bind(method, this.instance);
+    }
+
+    /**
+     * Invokes the method.
+     * @param parameters The parameters that should be passed.
+     * @param <T>        The return type.
+     * @return The return value of the method.
+     * @throws Throwable The exception thrown by the method.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T invoke(Object... parameters) throws Throwable {
+        return (T) (Object) this.handle.invokeExact(parameters);
+    }
+
+    /**
+     * Resolves the handle of the method.
+     * @param method    The method.
+     * @param instance  The instance or {@code null} for static methods.
+     * @return A handle with the type {@code (Object[])Object}.
+     */
+    private static MethodHandle bind(Method method, Object instance) {
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.lookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Failed to access method", e);
+        }
+
+        if (!Modifier.isStatic(method.getModifiers()))
+            handle = handle.bindTo(instance);
+
+        int count = method.getParameterTypes().length;
+        return handle.asType(MethodType.genericMethodType(count)).asSpreader(Object[].class, count);
+    }
+}
@@ -0,0 +1,435 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.utils;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>A future that can be completed manually and composed with continuations.</p>
+ * <p>
+ *     As we use Java 6 this is a small replacement for {@code CompletableFuture}.
+ *     Continuations run in the thread that completes the promise unless an executor is
+ *     passed, e.g. the {@link moe.encode.airblock.commands.contrib.threads.MainThreadMailbox}
+ *     to continue in the main thread.
+ * </p>
+ * @param <T> The type of the result.
+ */
+public class Promise<T> implements Future<T> {
+
+    /**
+     * Transforms the result of a promise.
+     * @param <I> The type of the input.
+     * @param <O> The type of the output.
+     */
+    public static interface Transformer<I, O> {
+
+        /**
+         * Transforms the value.
+         * @param value The result of the promise.
+         * @return The transformed value.
+         * @throws Exception If the transformation fails.
+         */
+        public O apply(I value) throws Exception;
+
+    }
+
+    /**
+     * Gets notified when the promise completes.
+     * @param <T> The type of the result.
+     */
+    public static interface Callback<T> {
+
+        /**
+         * Called when the promise completed successfully.
+         * @param value The result.
+         */
+        public void onSuccess(T value);
+
+        /**
+         * Called when the promise failed or has been cancelled.
+         * @param throwable The cause of the failure.
+         */
+        public void onFailure(Throwable throwable);
+
+    }
+
+    /**
+     * Runs the continuations in the thread that completes the promise.
+     */
+    public static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            command.run();
+        }
+    };
+
+    /**
+     * Logs listeners that failed. Promises do not know the environment they are used in.
+     */
+    private static final Logger LOGGER = Logger.getLogger(Promise.class.getName());
+
+    /**
+     * Released when the promise completes.
+     */
+    private final CountDownLatch latch = new CountDownLatch(1);
+
+    /**
+     * The continuations that run once the promise completes.
+     * Set to {@code null} after completion.
+     */
+    private List<Runnable> listeners = new ArrayList<Runnable>(2);
+
+    /**
+     * The result of the promise.
+     */
+    private T value;
+
+    /**
+     * The cause of the failure or {@code null} if the promise did not fail.
+     */
+    private Throwable failure;
+
+    /**
+     * Has the promise been completed.
+     */
+    private boolean completed = false;
+
+    /**
+     * Has the promise been cancelled.
+     */
+    private boolean cancelled = false;
+
+    /**
+     * Creates a promise that has already been completed.
+     * @param value The result.
+     * @param <T> The type of the result.
+     * @return The promise.
+     */
+    public static <T> Promise<T> completed(T value) {
+        Promise<T> promise = new Promise<T>();
+        promise.complete(value);
+        return promise;
+    }
+
+    /**
+     * Creates a promise that has already failed.
+     * @param throwable The cause of the failure.
+     * @param <T> The type of the result.
+     * @return The promise.
+     */
+    public static <T> Promise<T> failed(@NonNull Throwable throwable) {
+        Promise<T> promise = new Promise<T>();
+        promise.fail(throwable);
+        return promise;
+    }
+
+    /**
+     * Calls the callable with the given executor.
+     * @param callable  The callable.
+     * @param executor  The executor running the callable.
+     * @param <T> The type of the result.
+     * @return A promise for the result of the callable.
+     */
+    public static <T> Promise<T> supply(@NonNull final Callable<T> callable, @NonNull Executor executor) {
+        final Promise<T> promise = new Promise<T>();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (promise.isDone())
+                    return;
+
+                try {
+                    promise.complete(callable.call());
+                } catch (Throwable t) {
+                    promise.fail(t);
+                }
+            }
+        });
+        return promise;
+    }
+
+    /**
+     * Completes the promise.
+     * @param value The result.
+     * @return {@code false} if the promise has already been completed.
+     */
+    public boolean complete(T value) {
+        synchronized (this) {
+            if (this.completed)
+                return false;
+            this.completed = true;
+            this.value = value;
+        }
+        this.finish();
+        return true;
+    }
+
+    /**
+     * Lets the promise fail.
+     * @param throwable The cause of the failure.
+     * @return {@code false} if the promise has already been completed.
+     */
+    public boolean fail(@NonNull Throwable throwable) {
+        synchronized (this) {
+            if (this.completed)
+                return false;
+            this.completed = true;
+            this.failure = throwable;
+        }
+        this.finish();
+        return true;
+    }
+
+    /**
+     * Completes this promise with the outcome of another promise.
+     * @param other The other promise.
+     */
+    public void completeWith(@NonNull Promise<? extends T> other) {
+        other.addCallback(new Callback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                Promise.this.complete(value);
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                Promise.this.fail(throwable);
+            }
+        });
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        synchronized (this) {
+            if (this.completed)
+                return false;
+            this.completed = true;
+            this.cancelled = true;
+            this.failure = new CancellationException();
+        }
+        this.finish();
+        return true;
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return this.completed;
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        this.latch.await();
+        return this.getResult();
+    }
+
+    @Override
+    public T get(long timeout, @NonNull TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!this.latch.await(timeout, unit))
+            throw new TimeoutException();
+        return this.getResult();
+    }
+
+    /**
+     * Adds a callback that is called in the completing thread.
+     * @param callback The callback.
+     * @return This promise.
+     */
+    public Promise<T> addCallback(@NonNull Callback<? super T> callback) {
+        return this.addCallback(callback, DIRECT);
+    }
+
+    /**
+     * Adds a callback.
+     * @param callback  The callback.
+     * @param executor  The executor that runs the callback.
+     * @return This promise.
+     */
+    public Promise<T> addCallback(@NonNull final Callback<? super T> callback, @NonNull final Executor executor) {
+        this.addListener(new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        Throwable failure;
+                        T value;
+                        synchronized (Promise.this) {
+                            failure = Promise.this.failure;
+                            value = Promise.this.value;
+                        }
+
+                        if (failure != null)
+                            callback.onFailure(failure);
+                        else
+                            callback.onSuccess(value);
+                    }
+                });
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Transforms the result in the completing thread.
+     * @param transformer  The transformation.
+     * @param <R> The type of the new result.
+     * @return A promise for the transformed result.
+     */
+    public <R> Promise<R> map(@NonNull Transformer<? super T, ? extends R> transformer) {
+        return this.map(transformer, DIRECT);
+    }
+
+    /**
+     * Transforms the result.
+     * @param transformer  The transformation.
+     * @param executor     The executor that runs the transformation.
+     * @param <R> The type of the new result.
+     * @return A promise for the transformed result.
+     */
+    public <R> Promise<R> map(@NonNull final Transformer<? super T, ? extends R> transformer, @NonNull Executor executor) {
+        final Promise<R> result = new Promise<R>();
+        this.addCallback(new Callback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                try {
+                    result.complete(transformer.apply(value));
+                } catch (Throwable t) {
+                    result.fail(t);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                result.fail(throwable);
+            }
+        }, executor);
+        return result;
+    }
+
+    /**
+     * Continues with another asynchronous operation in the completing thread.
+     * @param transformer  Starts the next operation.
+     * @param <R> The type of the new result.
+     * @return A promise for the result of the next operation.
+     */
+    public <R> Promise<R> flatMap(@NonNull Transformer<? super T, ? extends Promise<R>> transformer) {
+        return this.flatMap(transformer, DIRECT);
+    }
+
+    /**
+     * Continues with another asynchronous operation.
+     * @param transformer  Starts the next operation.
+     * @param executor     The executor that starts the next operation.
+     * @param <R> The type of the new result.
+     * @return A promise for the result of the next operation.
+     */
+    public <R> Promise<R> flatMap(@NonNull final Transformer<? super T, ? extends Promise<R>> transformer,
+                                  @NonNull Executor executor) {
+        final Promise<R> result = new Promise<R>();
+        this.addCallback(new Callback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                try {
+                    result.completeWith(transformer.apply(value));
+                } catch (Throwable t) {
+                    result.fail(t);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                result.fail(throwable);
+            }
+        }, executor);
+        return result;
+    }
+
+    /**
+     * Runs the listener once the promise completes.
+     * @param listener The listener.
+     */
+    private void addListener(Runnable listener) {
+        synchronized (this) {
+            if (this.listeners != null) {
+                this.listeners.add(listener);
+                return;
+            }
+        }
+        Promise.run(listener);
+    }
+
+    /**
+     * Marks the promise as done and runs the listeners.
+     */
+    private void finish() {
+        List<Runnable> listeners;
+        synchronized (this) {
+            listeners = this.listeners;
+            this.listeners = null;
+        }
+        this.latch.countDown();
+
+        for (Runnable listener : listeners)
+            Promise.run(listener);
+    }
+
+    /**
+     * Runs a listener. A failing listener must neither skip the other listeners
+     * nor fail the code that completed the promise.
+     * @param listener The listener.
+     */
+    private static void run(Runnable listener) {
+        try {
+            listener.run();
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, "A listener of a promise failed.", t);
+        }
+    }
+
+    /**
+     * Returns the result of a completed promise.
+     * @return The result.
+     * @throws ExecutionException If the promise failed.
+     */
+    private synchronized T getResult() throws ExecutionException {
+        if (this.cancelled)
+            throw (CancellationException) this.failure;
+        if (this.failure != null)
+            throw new ExecutionException(this.failure);
+        return this.value;
+    }
+}
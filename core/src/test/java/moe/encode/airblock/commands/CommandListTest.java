@@ -18,6 +18,7 @@
 
 package moe.encode.airblock.commands;
 
+import moe.encode.airblock.commands.core.list.AliasedCommand;
 import moe.encode.airblock.commands.core.list.Command;
 import moe.encode.airblock.commands.core.list.CommandList;
 import moe.encode.airblock.commands.core.list.CommandRegistrar;
@@ -113,6 +114,36 @@ public class CommandListTest {
         verify(cmd2, never()).execute(any(Executor.class), any(String.class));
     }
 
+    @Test
+    public void testCaseInsensitiveSearching() {
+        CommandList cl = new CommandList();
+        for (String name : CommandListTest.names)
+            cl.register(this.createNewCommand(name));
+
+        assertThat(cl.getCommand("BLOCK"), hasSize(1));
+        assertTrue(cl.hasCommand("Air"));
+        assertFalse(cl.hasCommand("spam"));
+        assertThat(cl.getCommand("spam"), hasSize(0));
+    }
+
+    @Test
+    public void testAliasSearching() {
+        CommandList cl = new CommandList();
+        AliasedCommand cmd = mock(AliasedCommand.class);
+        when(cmd.getName()).thenReturn("teleport");
+        when(cmd.getAliases()).thenReturn(new String[]{"tp", "TELEPORT"});
+        when(cmd.canExecute(any(Executor.class), any(String.class))).thenReturn(true);
+        cl.register(cmd);
+        cl.register(this.createNewCommand("tp"));
+
+        assertThat(cl.getCommand("teleport"), hasSize(1));
+        assertThat(cl.getCommand("TP"), hasSize(2));
+        assertThat(cl.getCommands(), hasSize(2));
+
+        assertTrue(cl.execute("tp", mock(Executor.class), ""));
+        verify(cmd, times(1)).execute(any(Executor.class), any(String.class));
+    }
+
     private Command createNewCommand(String name) {
         Command cmd = mock(Command.class);
         when(cmd.getName()).thenReturn(name);
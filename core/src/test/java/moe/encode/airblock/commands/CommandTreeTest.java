@@ -0,0 +1,111 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands;
+
+import moe.encode.airblock.commands.core.ExecutionFilter;
+import moe.encode.airblock.commands.core.list.Command;
+import moe.encode.airblock.commands.core.list.CommandList;
+import moe.encode.airblock.commands.core.settings.Environment;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the compiled dispatch tree.
+ */
+public class CommandTreeTest {
+
+    private Commands newCommands() {
+        return new Commands(new CommandList(), new ArrayList<Commands.ChildHandler>(), mock(Environment.class));
+    }
+
+    private Command newCommand(String name, boolean executable) {
+        Command cmd = mock(Command.class);
+        when(cmd.getName()).thenReturn(name);
+        when(cmd.canExecute(any(Executor.class), any(String.class))).thenReturn(executable);
+        return cmd;
+    }
+
+    @Test
+    public void testSubCommandResolution() {
+        Commands root = newCommands();
+        Commands sub = newCommands();
+        Command leaf = newCommand("b", true);
+        sub.register(leaf);
+        root.register(sub.asSubCommand("a"));
+
+        assertTrue(root.getTree().dispatch("A", mock(Executor.class), "b c d"));
+        verify(leaf, times(1)).execute(any(Executor.class), eq("c d"));
+
+        assertNull(root.getTree().dispatch("a", mock(Executor.class), "unknown"));
+        assertFalse(root.getTree().dispatch("unknown", mock(Executor.class), ""));
+    }
+
+    @Test
+    public void testChildFilters() {
+        Commands root = newCommands();
+        Commands denied = newCommands();
+        Commands allowed = newCommands();
+
+        Command hidden = newCommand("cmd", true);
+        Command visible = newCommand("cmd", true);
+        denied.register(hidden);
+        allowed.register(visible);
+
+        root.addChild(denied, new ExecutionFilter() {
+            @Override
+            public boolean canExecute(Executor executor, String label, String arguments) {
+                return false;
+            }
+        });
+        root.addChild(allowed);
+
+        assertTrue(root.getTree().dispatch("cmd", mock(Executor.class), ""));
+        verify(hidden, never()).execute(any(Executor.class), any(String.class));
+        verify(visible, times(1)).execute(any(Executor.class), any(String.class));
+    }
+
+    @Test
+    public void testPermissionDenied() {
+        Commands root = newCommands();
+        root.register(newCommand("cmd", false));
+        assertNull(root.getTree().dispatch("cmd", mock(Executor.class), ""));
+    }
+
+    @Test
+    public void testInvalidation() {
+        Commands root = newCommands();
+        Commands child = newCommands();
+        root.addChild(child);
+
+        CommandTree tree = root.getTree();
+        assertSame(tree, root.getTree());
+        assertFalse(tree.contains("cmd"));
+
+        child.register(newCommand("cmd", true));
+        assertNotSame(tree, root.getTree());
+        assertTrue(root.getTree().contains("cmd"));
+
+        root.removeChild(child);
+        assertFalse(root.getTree().contains("cmd"));
+    }
+}
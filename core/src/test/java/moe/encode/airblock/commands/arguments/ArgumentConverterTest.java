@@ -20,12 +20,17 @@ package moe.encode.airblock.commands.arguments;
 
 import moe.encode.airblock.commands.Executor;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
-import static org.junit.Assert.assertEquals;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 public class ArgumentConverterTest {
 
@@ -43,6 +48,64 @@ public class ArgumentConverterTest {
         assertEquals(execparse, ac.getParserFor(Executor.class));
     }
 
+    @Test
+    public void testResolutionCache() {
+        ArgumentConverter ac = new ArgumentConverter();
+        ArgumentParser<?> intparse = this.createParser(Integer.class);
+        ac.registerParser(intparse);
+
+        assertEquals(intparse, ac.getParserFor(Integer.class));
+        assertEquals(intparse, ac.getParserFor(Integer.class));
+        assertNull(ac.getParserFor(String.class));
+        assertNull(ac.getParserFor(String.class));
+        verify(intparse, times(1)).canConvert(any(ArgumentConverter.class), eq(Integer.class));
+        verify(intparse, times(1)).canConvert(any(ArgumentConverter.class), eq(String.class));
+
+        // Registering a parser invalidates the cache.
+        ArgumentParser<?> stringparse = this.createParser(String.class);
+        ac.registerParser(stringparse);
+        assertEquals(stringparse, ac.getParserFor(String.class));
+    }
+
+    @Test
+    public void testRegistrationDuringResolution() {
+        final ArgumentConverter ac = new ArgumentConverter();
+        final ArgumentParser<?> stringparse = this.createParser(String.class);
+        ArgumentParser<?> intparse = this.createParser(Integer.class);
+        doAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                // Simulates a registration while another thread resolves the type.
+                ac.registerParser(stringparse);
+                return false;
+            }
+        }).when(intparse).canConvert(any(ArgumentConverter.class), eq(String.class));
+        ac.registerParser(intparse);
+
+        assertNull(ac.getParserFor(String.class));
+
+        // The result of the outdated resolution must not be cached.
+        assertEquals(stringparse, ac.getParserFor(String.class));
+    }
+
+    /**
+     * Used to obtain a parameterized list type.
+     */
+    public List<String> stringList;
+
+    @Test
+    public void testContainerParsers() throws Exception {
+        ArgumentConverter ac = ArgumentConverter.getSimpleArgumentConverter();
+        Executor executor = mock(Executor.class);
+
+        assertArrayEquals(new String[]{"a", "b"}, (String[]) ac.parse(executor, String[].class, "a,b"));
+
+        Type listType = ArgumentConverterTest.class.getField("stringList").getGenericType();
+        assertSame(ac.getParserFor(listType), ac.getParserFor(listType));
+        assertEquals(Arrays.asList("a", "b"), ac.parse(executor, listType, "a,b"));
+        assertNull(ac.getParserFor(List.class));
+    }
+
     private ArgumentParser<?> createParser(Class<?> cls) {
         ArgumentParser parser = mock(ArgumentParser.class);
         when(parser.canConvert(any(ArgumentConverter.class), any(Class.class))).thenReturn(false);
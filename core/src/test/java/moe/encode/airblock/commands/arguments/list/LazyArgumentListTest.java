@@ -0,0 +1,77 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.arguments.list;
+
+import moe.encode.airblock.commands.Executor;
+import moe.encode.airblock.commands.arguments.ArgumentConverter;
+import moe.encode.airblock.commands.arguments.split.QuotedSplit;
+import moe.encode.airblock.commands.arguments.split.TokenCursor;
+import moe.encode.airblock.commands.core.settings.CommandSettings;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+public class LazyArgumentListTest {
+
+    private String createArguments(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++)
+            sb.append(i).append(' ');
+        return sb.toString();
+    }
+
+    @Test
+    public void testPartialTokenization() {
+        TokenCursor cursor = spy(new QuotedSplit().tokenize(this.createArguments(200), true));
+        LazyArgumentList list = new LazyArgumentList(cursor, mock(Executor.class));
+
+        assertEquals("0", list.get(0));
+        assertEquals("5", list.get(5));
+        assertTrue(list.hasArgument(199));
+        assertFalse(list.hasArgument(200));
+        verify(cursor, never()).size();
+
+        assertEquals("199", list.get(-1));
+        assertEquals(200, list.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testConversionCache() {
+        ArgumentConverter converter = mock(ArgumentConverter.class);
+        when(converter.parse(any(Executor.class), eq((Type) int.class), anyString())).thenReturn(1);
+
+        CommandSettings settings = mock(CommandSettings.class);
+        when(settings.getArgumentConverter()).thenReturn(converter);
+
+        Executor executor = mock(Executor.class);
+        when(executor.getContext()).thenReturn(settings);
+
+        LazyArgumentList list = new LazyArgumentList(new QuotedSplit().tokenize("1 2", true), executor);
+        assertEquals(1, list.getInt(0));
+        assertEquals(1, list.getInt(0));
+        verify(converter, times(1)).parse(any(Executor.class), any(Type.class), anyString());
+    }
+}
@@ -49,7 +49,7 @@ public class SliceIterableTest {
         @SuppressWarnings("unchecked")
         public <E> E get(int index, Type cls) {
             if (String.class.equals(ReflectionUtils.toClass(cls)))
-                return (E)this.values[this.getRealIndex(index)];
+                return (E)this.values.getToken(this.getRealIndex(index));
             return null;
         }
     }
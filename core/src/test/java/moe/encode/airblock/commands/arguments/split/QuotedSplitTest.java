@@ -21,7 +21,7 @@ package moe.encode.airblock.commands.arguments.split;
 import org.apache.commons.lang3.ArrayUtils;
 import org.junit.Test;
 
-import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.*;
 
 public class QuotedSplitTest {
 
@@ -51,6 +51,7 @@ public class QuotedSplitTest {
 
             "test a\"test test\"",
             "test \"\" test",
+            "'' -f foo",
     };
 
     static String[][] OUTPUT = new String[][] {
@@ -73,6 +74,7 @@ public class QuotedSplitTest {
 
             new String[] {"", "test", "atest test"},
             new String[] {"", "test", "", "test"},
+            new String[] {"f", "", "foo"},
     };
 
     @Test
@@ -87,4 +89,36 @@ public class QuotedSplitTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCursor() throws Exception {
+        String raw = "-fx first \"second arg\" third";
+        TokenCursor cursor = this.qs.tokenize(raw, true);
+
+        assertTrue(cursor.hasFlag('f'));
+        assertTrue(cursor.hasFlag('x'));
+        assertFalse(cursor.hasFlag('t'));
+        assertEquals("fx", cursor.getFlags());
+
+        assertEquals("first", cursor.getToken(0));
+        assertEquals("second arg", cursor.getToken(1));
+        assertTrue(cursor.hasToken(2));
+        assertFalse(cursor.hasToken(3));
+        assertEquals(3, cursor.size());
+
+        // A single unquoted token is the input itself.
+        assertSame("single", this.qs.tokenize("single", false).getToken(0));
+        assertEquals("a\"b c", this.qs.tokenize("a'\"b c'", false).getToken(0));
+    }
+
+    @Test
+    public void testFlagsAfterEmptyToken() throws Exception {
+        // Empty quoted arguments do not end the flags.
+        TokenCursor cursor = this.qs.tokenize("'' -f foo", true);
+        assertTrue(cursor.hasFlag('f'));
+        assertEquals("f", cursor.getFlags());
+        assertEquals("", cursor.getToken(0));
+        assertEquals("foo", cursor.getToken(1));
+        assertEquals(2, cursor.size());
+    }
+}
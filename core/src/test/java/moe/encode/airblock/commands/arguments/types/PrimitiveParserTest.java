@@ -0,0 +1,92 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.arguments.types;
+
+import moe.encode.airblock.commands.Executor;
+import moe.encode.airblock.commands.contrib.locales.LocaleResolver;
+import moe.encode.airblock.commands.core.settings.Environment;
+import moe.encode.airblock.commands.localization.TranslationManager;
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class PrimitiveParserTest {
+
+    PrimitiveParser parser = new PrimitiveParser();
+
+    private Executor createExecutor(final Locale locale) {
+        Executor executor = mock(Executor.class);
+        when(executor.hasComponent(LocaleResolver.class)).thenReturn(true);
+        when(executor.getComponent(LocaleResolver.class)).thenReturn(new LocaleResolver() {
+            @Override
+            public Locale getLocale() {
+                return locale;
+            }
+        });
+        return executor;
+    }
+
+    @Test
+    public void testNumbers() {
+        Executor english = this.createExecutor(Locale.ENGLISH);
+        assertEquals(-123, this.parser.parseInt(english, "-123"));
+        assertEquals(1000L, this.parser.parseLong(english, "1,000"));
+        assertEquals(1.5, this.parser.parseDouble(english, "1.5"), 0);
+        assertEquals(-0.0, this.parser.convert(english, null, Double.class, "-0"));
+        assertEquals((byte) 12, this.parser.convert(english, null, byte.class, "12"));
+
+        Executor german = this.createExecutor(Locale.GERMAN);
+        assertEquals(1.5, this.parser.parseDouble(german, "1,5"), 0);
+        assertEquals(1000, this.parser.parseInt(german, "1.000"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testInvalidNumber() {
+        this.parser.parseInt(this.createExecutor(Locale.ENGLISH), "abc");
+    }
+
+    @Test
+    public void testCharacters() {
+        assertEquals('a', this.parser.convert(mock(Executor.class), null, char.class, "a"));
+        try {
+            this.parser.convert(mock(Executor.class), null, char.class, "ab");
+            fail("Parsed two characters.");
+        } catch (NumberFormatException ignored) {}
+    }
+
+    @Test
+    public void testBooleanVocabulary() {
+        TranslationManager manager = mock(TranslationManager.class);
+        when(manager.translate(Locale.ENGLISH, "true")).thenReturn("True,Yes");
+        when(manager.translate(Locale.ENGLISH, "false")).thenReturn("false,no");
+
+        Environment environment = mock(Environment.class);
+        when(environment.getTranslationManager()).thenReturn(manager);
+
+        Executor executor = this.createExecutor(Locale.ENGLISH);
+        when(executor.getEnvironment()).thenReturn(environment);
+
+        assertEquals(true, this.parser.convert(executor, null, boolean.class, "yes"));
+        assertEquals(false, this.parser.convert(executor, null, boolean.class, "NO"));
+        verify(manager, times(1)).translate(Locale.ENGLISH, "true");
+    }
+}
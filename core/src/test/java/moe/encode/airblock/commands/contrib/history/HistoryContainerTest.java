@@ -0,0 +1,452 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.contrib.history;
+
+import moe.encode.airblock.commands.Executor;
+import moe.encode.airblock.commands.core.backend.ExecutorHandle;
+import moe.encode.airblock.commands.core.settings.Environment;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the ring buffer of the history.
+ */
+public class HistoryContainerTest {
+
+    /**
+     * An action that counts how often it has been done.
+     */
+    public static class CountingAction extends Action {
+
+        int done = 0;
+
+        final long size;
+
+        public CountingAction(long size) {
+            super(null, null);
+            this.size = size;
+        }
+
+        @Override
+        public void undo() {
+            this.done--;
+        }
+
+        @Override
+        public void redo() {
+            this.done++;
+        }
+
+        @Override
+        public String getDescription(Executor executor) {
+            return "counting";
+        }
+
+        @Override
+        public long getEstimatedSize() {
+            return this.size;
+        }
+    }
+
+    /**
+     * An action that adds a value to a counter and merges with other additions.
+     */
+    public static class AddAction extends Action {
+
+        final int[] counter;
+
+        final int value;
+
+        public AddAction(int[] counter, int value) {
+            super(null, null);
+            this.counter = counter;
+            this.value = value;
+        }
+
+        @Override
+        public void undo() {
+            this.counter[0] -= this.value;
+        }
+
+        @Override
+        public void redo() {
+            this.counter[0] += this.value;
+        }
+
+        @Override
+        public Action coalesce(Action next) {
+            if (!(next instanceof AddAction) || ((AddAction) next).counter != this.counter)
+                return null;
+            return new AddAction(this.counter, this.value + ((AddAction) next).value);
+        }
+
+        @Override
+        public String getDescription(Executor executor) {
+            return "add";
+        }
+    }
+
+    /**
+     * An action that sets a value in a shared array and can be written to disk.
+     */
+    public static class SetAction extends Action implements SerializableAction {
+
+        static final int[] VALUES = new int[16];
+
+        final int index;
+
+        final int before;
+
+        final int after;
+
+        public SetAction(int index, int before, int after) {
+            super(null, null);
+            this.index = index;
+            this.before = before;
+            this.after = after;
+        }
+
+        @Override
+        public void undo() {
+            VALUES[this.index] = this.before;
+        }
+
+        @Override
+        public void redo() {
+            VALUES[this.index] = this.after;
+        }
+
+        @Override
+        public String getDescription(Executor executor) {
+            return "set";
+        }
+
+        @Override
+        public void write(DataOutput output) throws IOException {
+            output.writeInt(this.index);
+            output.writeInt(this.before);
+            output.writeInt(this.after);
+        }
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testUndoRedo() throws Exception {
+        HistoryContainer container = new HistoryContainer();
+        CountingAction a = new CountingAction(1);
+        CountingAction b = new CountingAction(1);
+        container.execute(a);
+        container.execute(b);
+
+        assertSame(b, container.getLastAction());
+        assertTrue(container.undo());
+        assertEquals(0, b.done);
+        assertSame(b, container.getNextAction());
+        assertTrue(container.redo());
+        assertEquals(1, b.done);
+        assertFalse(container.redo());
+
+        assertTrue(container.undo());
+        assertTrue(container.undo());
+        assertFalse(container.undo());
+
+        // Executing a new action drops the undone actions.
+        CountingAction c = new CountingAction(1);
+        container.execute(c);
+        assertEquals(1, container.getActions().size());
+        assertNull(container.getNextAction());
+    }
+
+    @Test
+    public void testMaximumDepth() throws Exception {
+        HistoryContainer container = new HistoryContainer();
+        container.setMaximumDepth(3);
+
+        CountingAction[] actions = new CountingAction[5];
+        for (int i = 0; i<actions.length; i++)
+            container.execute(actions[i] = new CountingAction(1));
+
+        List<Action> history = container.getActions();
+        assertEquals(3, history.size());
+        assertSame(actions[2], history.get(0));
+        assertSame(actions[4], history.get(2));
+
+        assertTrue(container.undo());
+        assertTrue(container.undo());
+        assertTrue(container.undo());
+        assertFalse(container.undo());
+    }
+
+    @Test
+    public void testSnapshotIsImmutable() throws Exception {
+        HistoryContainer container = new HistoryContainer();
+        CountingAction a = new CountingAction(1);
+        container.execute(a);
+
+        List<Action> snapshot = container.getActions();
+        container.undo();
+        for (int i = 0; i<40; i++)
+            container.execute(new CountingAction(1));
+
+        assertEquals(1, snapshot.size());
+        assertSame(a, snapshot.get(0));
+        assertEquals(40, container.getActions().size());
+    }
+
+    @Test
+    public void testBudgetEvictsOldestActions() throws Exception {
+        HistoryBudget budget = new HistoryBudget(100);
+        HistoryContainer first = new HistoryContainer();
+        HistoryContainer second = new HistoryContainer();
+        first.setBudget(budget);
+        second.setBudget(budget);
+
+        first.execute(new CountingAction(40));
+        second.execute(new CountingAction(40));
+        assertEquals(80, budget.getUsed());
+
+        CountingAction last = new CountingAction(40);
+        first.execute(last);
+
+        assertTrue(budget.getUsed() <= 100);
+        assertEquals(1, first.getActions().size());
+        assertSame(last, first.getLastAction());
+        assertEquals(1, second.getActions().size());
+    }
+
+    @Test
+    public void testBudgetReserveAfterRemoval() throws Exception {
+        HistoryBudget budget = new HistoryBudget(100);
+        HistoryContainer container = new HistoryContainer();
+        HistoryContainer.Entry entry = new HistoryContainer.Entry(container, new CountingAction(40), budget);
+
+        // The container removed the action before it could be counted.
+        entry.removed = true;
+        budget.release(entry);
+        budget.reserve(entry);
+        assertEquals(0, budget.getUsed());
+
+        HistoryContainer.Entry other = new HistoryContainer.Entry(container, new CountingAction(40), budget);
+        budget.reserve(other);
+        budget.reserve(other);
+        assertEquals(40, budget.getUsed());
+        other.removed = true;
+        budget.release(other);
+        budget.release(other);
+        assertEquals(0, budget.getUsed());
+    }
+
+    @Test
+    public void testTransaction() throws Exception {
+        HistoryContainer container = new HistoryContainer();
+        CountingAction[] actions = new CountingAction[100];
+
+        container.beginTransaction();
+        for (int i = 0; i<actions.length; i++)
+            container.execute(actions[i] = new CountingAction(1));
+        assertTrue(container.getActions().isEmpty());
+        container.commitTransaction();
+
+        assertEquals(1, container.getActions().size());
+        assertTrue(container.getLastAction() instanceof CompoundAction);
+        assertEquals(100, container.getLastAction().getEstimatedSize());
+
+        assertTrue(container.undo());
+        for (CountingAction action : actions)
+            assertEquals(0, action.done);
+        assertFalse(container.undo());
+
+        assertTrue(container.redo());
+        for (CountingAction action : actions)
+            assertEquals(1, action.done);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUndoInTransaction() throws Exception {
+        HistoryContainer container = new HistoryContainer();
+        container.beginTransaction();
+        container.undo();
+    }
+
+    @Test
+    public void testRollback() throws Exception {
+        HistoryContainer container = new HistoryContainer();
+        int[] counter = new int[1];
+        container.execute(new AddAction(counter, 1));
+
+        container.beginTransaction();
+        container.execute(new CountingAction(1));
+        container.beginTransaction();
+        container.execute(new AddAction(counter, 10));
+        container.execute(new AddAction(counter, 100));
+        assertEquals(111, counter[0]);
+
+        container.rollbackTransaction();
+        assertFalse(container.isInTransaction());
+        assertEquals(1, counter[0]);
+        assertEquals(1, container.getActions().size());
+
+        // The history is usable again.
+        assertTrue(container.undo());
+        assertEquals(0, counter[0]);
+    }
+
+    @Test
+    public void testCoalesce() throws Exception {
+        HistoryContainer container = new HistoryContainer();
+        int[] counter = new int[1];
+        container.execute(new AddAction(counter, 1));
+        container.execute(new AddAction(counter, 2));
+        container.execute(new CountingAction(1));
+        container.execute(new AddAction(counter, 3));
+        assertEquals(6, counter[0]);
+        assertEquals(3, container.getActions().size());
+
+        container.undo();
+        container.undo();
+        assertEquals(3, counter[0]);
+        container.undo();
+        assertEquals(0, counter[0]);
+    }
+
+    @Test
+    public void testSpill() throws Exception {
+        HistorySpill spill = new HistorySpill(this.folder.getRoot(), 2);
+        spill.registerReader(SetAction.class, new HistorySpill.Reader() {
+            @Override
+            public Action read(ExecutorHandle owner, Environment environment, DataInput input) throws IOException {
+                return new SetAction(input.readInt(), input.readInt(), input.readInt());
+            }
+        });
+
+        HistoryContainer container = new HistoryContainer();
+        container.setSpill(spill);
+        for (int i = 0; i<8; i++)
+            container.execute(new SetAction(i, 0, i + 1));
+        assertTrue(spill.getFile().length() > 0);
+
+        List<Action> actions = container.getActions();
+        assertEquals(8, actions.size());
+        assertEquals(1, ((SetAction) actions.get(0)).after);
+
+        for (int i = 7; i>=0; i--) {
+            assertEquals(i + 1, SetAction.VALUES[i]);
+            assertTrue(container.undo());
+            assertEquals(0, SetAction.VALUES[i]);
+        }
+        assertTrue(container.redo());
+        assertEquals(1, SetAction.VALUES[0]);
+
+        // Dropping the actions frees the spill.
+        container.execute(new SetAction(15, 0, 1));
+        container.setMaximumDepth(1);
+        assertEquals(0, spill.getFile().length());
+        spill.close();
+    }
+
+    @Test
+    public void testSpilledActionsFaultBack() throws Exception {
+        HistorySpill spill = this.createSpill();
+        HistoryContainer container = new HistoryContainer();
+        container.setSpill(spill);
+        for (int i = 0; i<8; i++)
+            container.execute(new SetAction(i, 0, i + 1));
+
+        List<Action> snapshot = container.getActions();
+        Action first = snapshot.get(0);
+        assertSame(first, snapshot.get(0));
+
+        // Undo and redo have to work on the same instance.
+        for (int i = 0; i<8; i++)
+            assertTrue(container.undo());
+        Action next = container.getNextAction();
+        assertTrue(container.redo());
+        assertSame(next, container.getLastAction());
+
+        // Removed actions stay readable in the snapshot.
+        container.execute(new SetAction(15, 0, 1));
+        container.setMaximumDepth(1);
+        assertEquals(2, ((SetAction) snapshot.get(1)).after);
+        assertSame(first, snapshot.get(0));
+        spill.close();
+    }
+
+    @Test
+    public void testSnapshotAfterRemoval() throws Exception {
+        HistorySpill spill = this.createSpill();
+        HistoryContainer container = new HistoryContainer();
+        container.setSpill(spill);
+        for (int i = 0; i<8; i++)
+            container.execute(new SetAction(i, 0, i + 1));
+
+        // No action of the snapshot has been read before the spill was freed.
+        List<Action> snapshot = container.getActions();
+        container.setMaximumDepth(1);
+        assertEquals(0, spill.getFile().length());
+        for (int i = 0; i<8; i++)
+            assertEquals(i + 1, ((SetAction) snapshot.get(i)).after);
+        spill.close();
+    }
+
+    @Test
+    public void testSpillIsCompacted() throws Exception {
+        HistorySpill spill = this.createSpill();
+        HistoryContainer container = new HistoryContainer();
+        container.setSpill(spill);
+        container.setMaximumDepth(100);
+
+        // Without compaction the file would grow to about 480 KiB.
+        for (int i = 0; i<40000; i++)
+            container.execute(new SetAction(i % 16, i, i + 1));
+        assertTrue(spill.getFile().length() < 160 * 1024);
+
+        // The moved actions are still read from the right place.
+        for (int i = 39999; i>=39900; i--) {
+            assertTrue(container.undo());
+            assertEquals(i + 1, ((SetAction) container.getNextAction()).after);
+        }
+        spill.close();
+    }
+
+    /**
+     * Creates a spill that keeps two actions on the heap.
+     * @return The spill.
+     * @throws IOException If the file cannot be created.
+     */
+    private HistorySpill createSpill() throws IOException {
+        HistorySpill spill = new HistorySpill(this.folder.getRoot(), 2);
+        spill.registerReader(SetAction.class, new HistorySpill.Reader() {
+            @Override
+            public Action read(ExecutorHandle owner, Environment environment, DataInput input) throws IOException {
+                return new SetAction(input.readInt(), input.readInt(), input.readInt());
+            }
+        });
+        return spill;
+    }
+}
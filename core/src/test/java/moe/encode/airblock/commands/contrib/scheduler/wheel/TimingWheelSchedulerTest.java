@@ -0,0 +1,219 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.contrib.scheduler.wheel;
+
+import moe.encode.airblock.commands.Backend;
+import moe.encode.airblock.commands.contrib.scheduler.Task;
+import moe.encode.airblock.commands.contrib.threads.MainThreadMailbox;
+import moe.encode.airblock.commands.core.hooks.HookManager;
+import moe.encode.airblock.commands.core.settings.Environment;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the timing wheel.
+ */
+public class TimingWheelSchedulerTest {
+
+    /**
+     * Counts its runs.
+     */
+    private static class Counter implements Runnable {
+
+        int runs = 0;
+
+        @Override
+        public void run() {
+            this.runs++;
+        }
+    }
+
+    private Environment environment;
+
+    private Backend backend;
+
+    private MainThreadMailbox mailbox;
+
+    private TimingWheelScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        Environment environment = this.environment = mock(Environment.class);
+        Backend backend = this.backend = mock(Backend.class);
+        when(environment.getBackend()).thenReturn(backend);
+        when(environment.getHookManager()).thenReturn(new HookManager(environment));
+        when(environment.getLogger()).thenReturn(Logger.getLogger(TimingWheelSchedulerTest.class.getName()));
+
+        // Asynchronous tasks run right away.
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                ((Runnable) invocation.getArguments()[0]).run();
+                return null;
+            }
+        }).when(backend).runAsynchronously(any(Runnable.class));
+
+        this.mailbox = new MainThreadMailbox(environment);
+        when(environment.getMailbox()).thenReturn(this.mailbox);
+        this.scheduler = new TimingWheelScheduler(environment, 50, false);
+    }
+
+    @Test
+    public void testDelay() throws Exception {
+        Counter counter = new Counter();
+        Task task = this.scheduler.scheduleTask(null, counter, 100);
+
+        this.scheduler.advanceTo(1);
+        this.mailbox.drain();
+        assertEquals(0, counter.runs);
+
+        this.scheduler.advanceTo(2);
+        this.mailbox.drain();
+        assertEquals(1, counter.runs);
+        assertTrue(task.isCompleted());
+        assertEquals(0, this.scheduler.size());
+    }
+
+    @Test
+    public void testCascade() throws Exception {
+        Counter near = new Counter();
+        Counter far = new Counter();
+        this.scheduler.scheduleTaskAsynchronously(null, near, 6000 * 50);
+        this.scheduler.scheduleTaskAsynchronously(null, far, 70000 * 50);
+
+        this.scheduler.advanceTo(5999);
+        assertEquals(0, near.runs);
+        this.scheduler.advanceTo(6000);
+        assertEquals(1, near.runs);
+
+        this.scheduler.advanceTo(69999);
+        assertEquals(0, far.runs);
+        this.scheduler.advanceTo(70000);
+        assertEquals(1, far.runs);
+    }
+
+    @Test
+    public void testRepeat() throws Exception {
+        Counter counter = new Counter();
+        this.scheduler.scheduleRepetitiveAsynchronousTask(null, counter, 50, 100);
+
+        for (int tick = 1; tick<=10; tick++)
+            this.scheduler.advanceTo(tick);
+        assertEquals(5, counter.runs);
+        assertEquals(1, this.scheduler.size());
+    }
+
+    @Test
+    public void testSkipPendingRuns() throws Exception {
+        Counter counter = new Counter();
+        this.scheduler.scheduleRepetitiveTask(null, counter, 50, 50);
+
+        this.scheduler.advanceTo(10);
+        assertEquals(1, this.mailbox.size());
+        this.mailbox.drain();
+        assertEquals(1, counter.runs);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        Counter counter = new Counter();
+        Task task = this.scheduler.scheduleRepetitiveAsynchronousTask(null, counter, 50, 50);
+        assertEquals(1, this.scheduler.size());
+
+        task.cancel();
+        assertTrue(task.isCancelled());
+        assertEquals(0, this.scheduler.size());
+
+        this.scheduler.advanceTo(10);
+        assertEquals(0, counter.runs);
+    }
+
+    @Test
+    public void testFailedDispatch() throws Exception {
+        final Answer run = new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                ((Runnable) invocation.getArguments()[0]).run();
+                return null;
+            }
+        };
+
+        // The first task that is dispatched is rejected.
+        doThrow(new IllegalStateException("Rejected")).doAnswer(run)
+                .when(this.backend).runAsynchronously(any(Runnable.class));
+
+        Counter first = new Counter();
+        Counter second = new Counter();
+        this.scheduler.scheduleTaskAsynchronously(null, first, 50);
+        this.scheduler.scheduleTaskAsynchronously(null, second, 50);
+        this.scheduler.advanceTo(1);
+        assertEquals(1, first.runs + second.runs);
+
+        // A rejected repeating task runs again in its next period.
+        doThrow(new IllegalStateException("Rejected")).doAnswer(run)
+                .when(this.backend).runAsynchronously(any(Runnable.class));
+
+        Counter repeating = new Counter();
+        this.scheduler.scheduleRepetitiveAsynchronousTask(null, repeating, 50, 50);
+        this.scheduler.advanceTo(2);
+        assertEquals(0, repeating.runs);
+        this.scheduler.advanceTo(3);
+        assertEquals(1, repeating.runs);
+    }
+
+    @Test
+    public void testBlockingPoolDoesNotStallTimers() throws Exception {
+        final CountDownLatch blocking = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+
+        // A saturated pool that runs the task in the calling thread.
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                blocking.countDown();
+                released.await();
+                return null;
+            }
+        }).when(this.backend).runAsynchronously(any(Runnable.class));
+
+        TimingWheelScheduler scheduler = new TimingWheelScheduler(this.environment, 10, true);
+        try {
+            scheduler.scheduleTaskAsynchronously(null, new Counter(), 10);
+            assertTrue(blocking.await(5, TimeUnit.SECONDS));
+
+            scheduler.scheduleTask(null, new Counter(), 20);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (this.mailbox.size() == 0 && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+            assertEquals(1, this.mailbox.size());
+        } finally {
+            released.countDown();
+            scheduler.onShutdown(null);
+        }
+    }
+}
@@ -20,11 +20,20 @@ package moe.encode.airblock.commands.contrib.sessions;
 
 import moe.encode.airblock.commands.core.backend.Handle;
 import moe.encode.airblock.commands.core.backend.HandleWrapper;
+import moe.encode.airblock.commands.Executor;
+import moe.encode.airblock.commands.contrib.scheduler.Scheduler;
+import moe.encode.airblock.commands.contrib.scheduler.Task;
+import moe.encode.airblock.commands.core.hooks.HookManager;
+import moe.encode.airblock.commands.core.hooks.predefined.PlayerLogoffHook;
+import moe.encode.airblock.commands.core.hooks.predefined.ShutdownHook;
 import moe.encode.airblock.commands.core.settings.Environment;
 import org.junit.Test;
 
 import javax.annotation.Nullable;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -77,9 +86,18 @@ public class SessionManagerTest {
 
     }
 
+    /**
+     * A session that cannot be created.
+     */
+    public static class BrokenSession extends Session {
+
+        public BrokenSession(String argument) {}
+
+    }
+
     @Test
     public void testGetSession() throws Exception {
-        SessionManager manager = new SessionManager(mock(Environment.class));
+        SessionManager manager = this.createManager();
 
         UUID sameHandle = UUID.randomUUID();
         Handle a = this.createMockHandle(sameHandle);
@@ -102,7 +120,7 @@ public class SessionManagerTest {
         Handle b = this.createMockHandle(UUID.randomUUID());
         assertFalse("Asserting that the handles A and B are not the same.", a.equals(b));
 
-        SessionManager manager = new SessionManager(mock(Environment.class));
+        SessionManager manager = this.createManager();
         manager.getSession(a, SessionImpl.class);
         manager.getSession(a, SessionImpl2.class);
         manager.getSession(b, SessionImpl.class);
@@ -115,13 +133,154 @@ public class SessionManagerTest {
         UUID uuid = UUID.randomUUID();
         Handle a = this.createMockHandle(uuid);
 
-        SessionManager manager = new SessionManager(mock(Environment.class));
+        SessionManager manager = this.createManager();
         manager.getSession(a, SessionImpl.class);
 
         SessionImpl impl = manager.getSession(this.createMockHandle(uuid), SessionImpl.class);
         assertEquals(a, impl.getOwner().getHandle());
     }
 
+    @Test
+    public void testExpiredSessionsAreRemoved() throws Exception {
+        SessionManager manager = this.createManager();
+        Handle a = this.createMockHandle(UUID.randomUUID());
+
+        SessionImpl impl = manager.getSession(a, SessionImpl.class);
+        impl.setExpireTime(200);
+        manager.getSession(a, SessionImpl2.class);
+        assertEquals(2, manager.size());
+
+        Thread.sleep(300);
+        manager.expireSessions();
+        assertTrue(impl.isSessionExpired());
+        assertEquals(1, manager.size());
+        assertEquals(1, manager.getSessions(a).size());
+    }
+
+    @Test
+    public void testAccessedSessionsAreKept() throws Exception {
+        SessionManager manager = this.createManager();
+        Handle a = this.createMockHandle(UUID.randomUUID());
+
+        SessionImpl impl = manager.getSession(a, SessionImpl.class);
+        impl.setExpireTime(60000);
+
+        Thread.sleep(10);
+        manager.expireSessions();
+        assertFalse(impl.isSessionExpired());
+        assertTrue(impl == manager.getSession(a, SessionImpl.class));
+    }
+
+    @Test
+    public void testLogoffRemovesSessions() throws Exception {
+        SessionManager manager = this.createManager();
+        UUID uuid = UUID.randomUUID();
+        Handle a = this.createMockHandle(uuid);
+
+        SessionImpl impl = manager.getSession(a, SessionImpl.class);
+        manager.getSession(a, SessionImpl2.class);
+
+        Executor executor = mock(Executor.class);
+        when(executor.getUniqueIdentifier()).thenReturn(uuid);
+        manager.onLogoff(new PlayerLogoffHook(executor));
+
+        assertEquals(0, manager.size());
+        assertTrue(impl.isSessionExpired());
+        assertTrue(manager.getSessions(a).isEmpty());
+    }
+
+    @Test
+    public void testMaximumSessions() throws Exception {
+        SessionManager manager = this.createManager();
+        manager.setMaximumSessions(10);
+
+        Handle first = this.createMockHandle(UUID.randomUUID());
+        SessionImpl oldest = manager.getSession(first, SessionImpl.class);
+        Thread.sleep(2);
+        for (int i = 0; i<10; i++)
+            manager.getSession(this.createMockHandle(UUID.randomUUID()), SessionImpl.class);
+
+        assertTrue(manager.size() <= 10);
+        assertTrue(oldest.isSessionExpired());
+        assertTrue(manager.getSessions(first).isEmpty());
+    }
+
+    @Test
+    public void testRefreshKeepsOneEntry() throws Exception {
+        SessionManager manager = this.createManager();
+        Handle a = this.createMockHandle(UUID.randomUUID());
+
+        SessionImpl impl = manager.getSession(a, SessionImpl.class);
+        for (int i = 0; i<1000; i++) {
+            impl.updateAccessTime();
+            impl.setExpireTime(60000);
+        }
+        assertEquals(1, manager.getScheduledCount());
+
+        // Shortening the expire time replaces the entry, the old one is dropped once it is due.
+        impl.setExpireTime(5);
+        assertEquals(2, manager.getScheduledCount());
+    }
+
+    @Test
+    public void testShutdownCancelsSweeper() throws Exception {
+        Environment environment = mock(Environment.class);
+        Scheduler scheduler = mock(Scheduler.class);
+        Task sweeper = mock(Task.class);
+        when(environment.getHookManager()).thenReturn(new HookManager(environment));
+        when(environment.getScheduler()).thenReturn(scheduler);
+        when(scheduler.scheduleRepetitiveAsynchronousTask(any(Runnable.class), anyInt())).thenReturn(sweeper);
+        SessionManager manager = new SessionManager(environment, 1);
+
+        manager.getSession(this.createMockHandle(UUID.randomUUID()), SessionImpl.class).setExpireTime(60000);
+        manager.onShutdown(new ShutdownHook(environment));
+        verify(sweeper).cancel();
+    }
+
+    @Test
+    public void testFailedCreationKeepsNoMap() throws Exception {
+        SessionManager manager = this.createManager();
+        Handle a = this.createMockHandle(UUID.randomUUID());
+
+        assertNull(manager.getSession(a, BrokenSession.class));
+        assertEquals(0, manager.getContainerCount());
+    }
+
+    @Test
+    public void testConcurrentRemoval() throws Exception {
+        final SessionManager manager = this.createManager();
+        final Handle a = this.createMockHandle(UUID.randomUUID());
+        final CountDownLatch latch = new CountDownLatch(4);
+
+        for (int i = 0; i<4; i++) {
+            final Class<? extends Session> cls = i % 2 == 0 ? SessionImpl.class : SessionImpl2.class;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j<2000; j++)
+                        manager.remove(manager.getSession(a, cls));
+                    latch.countDown();
+                }
+            }).start();
+        }
+
+        // Every stored session has to be found in a registered map.
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertEquals(manager.size(), manager.getSessions(a).size());
+    }
+
+    /**
+     * Creates a session manager with a short expiry tick.
+     * @return The session manager.
+     */
+    private SessionManager createManager() {
+        Environment environment = mock(Environment.class);
+        when(environment.getHookManager()).thenReturn(new HookManager(environment));
+        when(environment.getScheduler()).thenReturn(mock(Scheduler.class));
+        when(environment.getLogger()).thenReturn(Logger.getLogger(SessionManagerTest.class.getName()));
+        return new SessionManager(environment, 1);
+    }
+
     /**
      * Creates a mock hand
      * @param uuid Unique identifier that should be returned.
@@ -0,0 +1,251 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.contrib.threads;
+
+import moe.encode.airblock.commands.Backend;
+import moe.encode.airblock.commands.core.settings.Environment;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ExecutionLanesTest {
+
+    private ExecutorService pool;
+
+    private Backend backend;
+
+    private ExecutionLanes lanes;
+
+    @Before
+    public void setUp() {
+        this.pool = Executors.newFixedThreadPool(4);
+        Environment environment = mock(Environment.class);
+        Backend backend = this.backend = mock(Backend.class);
+        when(environment.getBackend()).thenReturn(backend);
+        when(environment.getLogger()).thenReturn(Logger.getLogger(ExecutionLanesTest.class.getName()));
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                ExecutionLanesTest.this.pool.execute((Runnable) invocation.getArguments()[0]);
+                return null;
+            }
+        }).when(backend).runAsynchronously(any(Runnable.class));
+        this.lanes = new ExecutionLanes(environment);
+    }
+
+    @After
+    public void tearDown() {
+        this.pool.shutdownNow();
+    }
+
+    @Test
+    public void testSerialPerLane() throws Exception {
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger overlaps = new AtomicInteger(0);
+        final int[] order = new int[100];
+        final int[] position = {0};
+        final CountDownLatch latch = new CountDownLatch(100);
+
+        for (int i = 0; i<100; i++) {
+            final int index = i;
+            this.lanes.submit("player", new Runnable() {
+                @Override
+                public void run() {
+                    if (running.incrementAndGet() != 1)
+                        overlaps.incrementAndGet();
+                    order[position[0]++] = index;
+                    running.decrementAndGet();
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, overlaps.get());
+        for (int i = 0; i<100; i++)
+            assertEquals(i, order[i]);
+    }
+
+    @Test
+    public void testParallelLanes() throws Exception {
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch done = new CountDownLatch(2);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    // Only completes if the other lane runs at the same time.
+                    if (started.await(5, TimeUnit.SECONDS))
+                        done.countDown();
+                } catch (InterruptedException ignored) {}
+            }
+        };
+
+        this.lanes.submit("first", task);
+        this.lanes.submit("second", task);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testLaneRemovedWhenIdle() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        this.lanes.submit("player", new Runnable() {
+            @Override
+            public void run() {
+                throw new RuntimeException("Failing task");
+            }
+        });
+        this.lanes.submit("player", new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        this.pool.shutdown();
+        assertTrue(this.pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, this.lanes.size());
+    }
+
+    @Test
+    public void testRejectedLaneKeepsRunning() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final int tasks = ExecutionLanes.MAX_BATCH * 3;
+        final int[] order = new int[tasks];
+        final int[] position = {0};
+        final CountDownLatch latch = new CountDownLatch(tasks);
+
+        // Only the first lane gets a worker thread.
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                ExecutionLanesTest.this.pool.execute((Runnable) invocation.getArguments()[0]);
+                return null;
+            }
+        }).doThrow(new IllegalStateException("Rejected")).when(this.backend).runAsynchronously(any(Runnable.class));
+
+        this.lanes.submit("player", new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i<tasks; i++) {
+            final int index = i;
+            this.lanes.submit("player", new Runnable() {
+                @Override
+                public void run() {
+                    order[position[0]++] = index;
+                    latch.countDown();
+                }
+            });
+        }
+        release.countDown();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i<tasks; i++)
+            assertEquals(i, order[i]);
+
+        // A new lane that is rejected runs in the submitting thread.
+        final Thread caller = Thread.currentThread();
+        final Thread[] thread = {null};
+        this.lanes.submit("other", new Runnable() {
+            @Override
+            public void run() {
+                thread[0] = Thread.currentThread();
+            }
+        });
+        assertSame(caller, thread[0]);
+    }
+
+    @Test
+    public void testCallerRunsDoesNotGrowStack() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final int tasks = ExecutionLanes.MAX_BATCH * 200;
+        final int[] depth = {Integer.MAX_VALUE, 0};
+        final CountDownLatch latch = new CountDownLatch(tasks);
+
+        // Only the first lane gets a worker thread, the saturated pool runs everything else in the caller.
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                ExecutionLanesTest.this.pool.execute((Runnable) invocation.getArguments()[0]);
+                return null;
+            }
+        }).doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                ((Runnable) invocation.getArguments()[0]).run();
+                return null;
+            }
+        }).when(this.backend).runAsynchronously(any(Runnable.class));
+
+        this.lanes.submit("player", new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i<tasks; i++) {
+            this.lanes.submit("player", new Runnable() {
+                @Override
+                public void run() {
+                    int current = Thread.currentThread().getStackTrace().length;
+                    depth[0] = Math.min(depth[0], current);
+                    depth[1] = Math.max(depth[1], current);
+                    latch.countDown();
+                }
+            });
+        }
+        release.countDown();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(depth[0], depth[1]);
+    }
+}
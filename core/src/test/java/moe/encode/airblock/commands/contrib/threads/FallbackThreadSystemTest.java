@@ -0,0 +1,145 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.contrib.threads;
+
+import moe.encode.airblock.commands.core.backend.BackendHandle;
+import moe.encode.airblock.commands.core.components.ComponentBagTest;
+import moe.encode.airblock.commands.core.hooks.HookManager;
+import moe.encode.airblock.commands.core.settings.Environment;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the bounded thread pool.
+ */
+public class FallbackThreadSystemTest {
+
+    @Test
+    public void testCounters() throws Exception {
+        FallbackThreadSystem system = new FallbackThreadSystem(1, 1, 4, FallbackThreadSystem.RejectionPolicy.REJECT);
+        BackendHandle handle = this.createHandle();
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        system.runAsynchronously(handle, new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {}
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        final CountDownLatch done = new CountDownLatch(2);
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        };
+        system.runAsynchronously(handle, runnable);
+        system.runAsynchronously(handle, runnable);
+
+        assertEquals(1, system.getActiveCount(handle));
+        assertEquals(2, system.getQueueDepth(handle));
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i<100 && system.getCompletedCount(handle) < 3; i++)
+            Thread.sleep(10);
+        assertEquals(3, system.getCompletedCount(handle));
+    }
+
+    @Test
+    public void testRejection() throws Exception {
+        FallbackThreadSystem system = new FallbackThreadSystem(1, 1, 1, FallbackThreadSystem.RejectionPolicy.REJECT);
+        BackendHandle handle = this.createHandle();
+
+        final CountDownLatch release = new CountDownLatch(1);
+        Runnable blocking = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {}
+            }
+        };
+
+        system.runAsynchronously(handle, blocking);
+        system.runAsynchronously(handle, blocking);
+        try {
+            system.runAsynchronously(handle, blocking);
+            fail("The task should have been rejected.");
+        } catch (RejectedExecutionException expected) {
+            // The pool is saturated.
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testCallerRuns() throws Exception {
+        FallbackThreadSystem system = new FallbackThreadSystem(1, 1, 1, FallbackThreadSystem.RejectionPolicy.CALLER_RUNS);
+        BackendHandle handle = this.createHandle();
+
+        final CountDownLatch release = new CountDownLatch(1);
+        Runnable blocking = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {}
+            }
+        };
+        system.runAsynchronously(handle, blocking);
+        system.runAsynchronously(handle, blocking);
+
+        final Thread caller = Thread.currentThread();
+        final boolean[] ranInCaller = new boolean[1];
+        system.runAsynchronously(handle, new Runnable() {
+            @Override
+            public void run() {
+                ranInCaller[0] = Thread.currentThread() == caller;
+            }
+        });
+        release.countDown();
+        assertTrue(ranInCaller[0]);
+    }
+
+    /**
+     * Creates a backend handle.
+     * @return The backend handle.
+     */
+    private BackendHandle createHandle() {
+        Environment environment = mock(Environment.class);
+        when(environment.getHookManager()).thenReturn(new HookManager(environment));
+
+        BackendHandle handle = new ComponentBagTest.FakeBackendHandle(new Object());
+        handle.setEnvironment(environment);
+        return handle;
+    }
+}
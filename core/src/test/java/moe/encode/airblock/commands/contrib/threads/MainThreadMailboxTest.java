@@ -0,0 +1,170 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.contrib.threads;
+
+import moe.encode.airblock.commands.Backend;
+import moe.encode.airblock.commands.contrib.scheduler.TaskPriority;
+import moe.encode.airblock.commands.core.settings.Environment;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class MainThreadMailboxTest {
+
+    private Backend backend;
+
+    private MainThreadMailbox mailbox;
+
+    @Before
+    public void setUp() {
+        Environment environment = mock(Environment.class);
+        this.backend = mock(Backend.class);
+        when(environment.getBackend()).thenReturn(this.backend);
+        this.mailbox = new MainThreadMailbox(environment);
+    }
+
+    @Test
+    public void testSingleDrainTask() throws Exception {
+        final int[] counter = {0};
+        Runnable increment = new Runnable() {
+            @Override
+            public void run() {
+                counter[0]++;
+            }
+        };
+
+        for (int i = 0; i<100; i++)
+            this.mailbox.submit(increment);
+        Future<String> future = this.mailbox.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return "done";
+            }
+        });
+
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(this.backend, times(1)).runLater(captor.capture());
+
+        captor.getValue().run();
+        assertEquals(100, counter[0]);
+        assertEquals("done", future.get(0, TimeUnit.SECONDS));
+        assertEquals(0, this.mailbox.size());
+
+        // The next submission has to schedule a new drain.
+        this.mailbox.submit(increment);
+        verify(this.backend, times(2)).runLater(any(Runnable.class));
+    }
+
+    @Test
+    public void testTickBudget() {
+        this.mailbox.setTickBudget(0, TimeUnit.NANOSECONDS);
+        for (int i = 0; i<3; i++)
+            this.mailbox.submit(mock(Runnable.class));
+
+        // Every drain executes at least one task and reschedules itself for the rest.
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(this.backend, times(1)).runLater(captor.capture());
+        assertEquals(1, this.mailbox.drain());
+        assertEquals(2, this.mailbox.size());
+        verify(this.backend, times(2)).runLater(any(Runnable.class));
+    }
+
+    private Runnable record(final List<String> log, final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                log.add(name);
+            }
+        };
+    }
+
+    @Test
+    public void testPriorityOrder() {
+        List<String> log = new ArrayList<String>();
+        this.mailbox.submit(this.record(log, "low"), TaskPriority.LOW);
+        this.mailbox.submit(this.record(log, "normal"));
+        this.mailbox.submit(this.record(log, "high"), TaskPriority.HIGH);
+
+        assertEquals(3, this.mailbox.drain());
+        assertEquals(Arrays.asList("high", "normal", "low"), log);
+    }
+
+    @Test
+    public void testNoStarvation() {
+        List<String> log = new ArrayList<String>();
+        this.mailbox.setTickBudget(0, TimeUnit.NANOSECONDS);
+        this.mailbox.submit(this.record(log, "low"), TaskPriority.LOW);
+        for (int i = 0; i<MainThreadMailbox.MAX_SKIPPED_DRAINS + 5; i++)
+            this.mailbox.submit(this.record(log, "high"), TaskPriority.HIGH);
+
+        for (int i = 0; i<MainThreadMailbox.MAX_SKIPPED_DRAINS; i++)
+            assertEquals(1, this.mailbox.drain());
+        assertFalse(log.contains("low"));
+
+        // The low priority task has waited long enough and runs before the others.
+        assertEquals(1, this.mailbox.drain());
+        assertEquals("low", log.get(log.size() - 1));
+    }
+
+    @Test
+    public void testForward() {
+        List<String> log = new ArrayList<String>();
+        Runnable forward = this.mailbox.forward(this.record(log, "high"), TaskPriority.HIGH);
+
+        // An empty mailbox runs the task right away.
+        forward.run();
+        assertEquals(Arrays.asList("high"), log);
+        verify(this.backend, never()).runLater(any(Runnable.class));
+
+        // Queued tasks are drained in place in the order of their priority.
+        this.mailbox.submit(this.record(log, "normal"));
+        forward.run();
+        assertEquals(Arrays.asList("high", "high", "normal"), log);
+        assertEquals(0, this.mailbox.size());
+    }
+
+    @Test
+    public void testForwardWithoutBudget() {
+        List<String> log = new ArrayList<String>();
+        Runnable forward = this.mailbox.forward(this.record(log, "task"), TaskPriority.NORMAL);
+        this.mailbox.setTickBudget(0, TimeUnit.NANOSECONDS);
+        this.mailbox.drain();
+
+        // The budget of the tick is used up, so the task runs in the next tick.
+        forward.run();
+        assertTrue(log.isEmpty());
+        verify(this.backend, times(1)).runLater(any(Runnable.class));
+
+        // A run that is still queued is not queued again.
+        forward.run();
+        assertEquals(1, this.mailbox.size());
+        assertEquals(1, this.mailbox.drain());
+        assertEquals(Arrays.asList("task"), log);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.contrib.threads;
+
+import moe.encode.airblock.commands.core.backend.BackendHandle;
+import moe.encode.airblock.commands.core.components.ComponentBagTest;
+import moe.encode.airblock.commands.core.hooks.HookManager;
+import moe.encode.airblock.commands.core.settings.Environment;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the virtual thread system.
+ */
+public class VirtualThreadSystemTest {
+
+    @Test
+    public void testRunAsynchronously() throws Exception {
+        VirtualThreadSystem system = new VirtualThreadSystem();
+        BackendHandle handle = this.createHandle();
+
+        final CountDownLatch done = new CountDownLatch(100);
+        for (int i = 0; i<100; i++) {
+            system.runAsynchronously(handle, new Runnable() {
+                @Override
+                public void run() {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i<100 && system.getCompletedCount(handle) < 100; i++)
+            Thread.sleep(10);
+        assertEquals(100, system.getCompletedCount(handle));
+        assertEquals(0, system.getQueueDepth(handle));
+    }
+
+    @Test
+    public void testRunsOnVirtualThreadsWhenSupported() throws Exception {
+        VirtualThreadSystem system = new VirtualThreadSystem();
+        BackendHandle handle = this.createHandle();
+
+        final Thread[] runner = new Thread[1];
+        final CountDownLatch done = new CountDownLatch(1);
+        system.runAsynchronously(handle, new Runnable() {
+            @Override
+            public void run() {
+                runner[0] = Thread.currentThread();
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        if (VirtualThreadSystem.isSupported()) {
+            assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(runner[0]));
+        } else {
+            // Without virtual threads the tasks run in the worker pool of the fallback system.
+            assertTrue(runner[0].getName().startsWith("AirBlock-Worker-"));
+        }
+    }
+
+    @Test
+    public void testNotSupportedBeforeJava19() throws Exception {
+        String version = System.getProperty("java.specification.version");
+        int major = version.startsWith("1.") ? Integer.parseInt(version.substring(2)) : Integer.parseInt(version);
+        if (major < 19)
+            assertFalse(VirtualThreadSystem.isSupported());
+    }
+
+    /**
+     * Creates a backend handle.
+     * @return The backend handle.
+     */
+    private BackendHandle createHandle() {
+        Environment environment = mock(Environment.class);
+        when(environment.getHookManager()).thenReturn(new HookManager(environment));
+
+        BackendHandle handle = new ComponentBagTest.FakeBackendHandle(new Object());
+        handle.setEnvironment(environment);
+        return handle;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.core.components;
+
+import moe.encode.airblock.commands.Backend;
+import moe.encode.airblock.commands.core.settings.Environment;
+import moe.encode.airblock.utils.Promise;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ComponentManagerTest {
+
+    @Test
+    public void testCachedDispatch() throws Exception {
+        ComponentManager manager = new ComponentManager();
+        Environment env = mock(Environment.class);
+        when(env.getComponentManager()).thenReturn(manager);
+        manager.register(Backend.class, new Object());
+
+        ComponentBagTest.FakeBackendHandle handle = spy(new ComponentBagTest.FakeBackendHandle(new Object()));
+        Backend backend = new Backend(handle, env);
+
+        ComponentBagTest.TestInterface component = backend.getComponent(ComponentBagTest.TestInterface.class);
+        assertSame(component, backend.getComponent(ComponentBagTest.TestInterface.class));
+
+        component.something();
+        component.something();
+        verify(handle, times(2)).something();
+
+        // Registering a component has to invalidate the bindings of existing proxies.
+        ComponentBagTest.ComponentResolverTest crt = new ComponentBagTest.ComponentResolverTest();
+        manager.register(Backend.class, crt);
+        component.something();
+
+        verify(handle, times(2)).something();
+        assertEquals(1, crt.called);
+        assertSame(handle, crt.handle);
+    }
+
+    @Test
+    public void testNotImplemented() throws Exception {
+        ComponentManager manager = new ComponentManager();
+        Environment env = mock(Environment.class);
+        when(env.getComponentManager()).thenReturn(manager);
+        manager.register(Backend.class, new Object());
+
+        Backend backend = new Backend(new ComponentBagTest.FakeBackendHandle(new Object()), env);
+        assertTrue(backend.hasComponent(ComponentBagTest.TestInterface.class));
+        assertFalse(backend.hasComponent(Runnable.class));
+    }
+
+    public static class AsyncComponent {
+
+        @Component(thread = Component.ExecutionThread.ASYNC)
+        public String value() {
+            return Thread.currentThread().getName();
+        }
+
+        @Component(thread = Component.ExecutionThread.ASYNC)
+        public Promise<String> promise() {
+            return Promise.completed("promised");
+        }
+    }
+
+    private Environment createAsyncEnvironment() {
+        Environment env = mock(Environment.class);
+        Backend backend = mock(Backend.class);
+        when(env.getBackend()).thenReturn(backend);
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                Thread thread = new Thread((Runnable) invocation.getArguments()[0], "async-component");
+                thread.start();
+                return null;
+            }
+        }).when(backend).runAsynchronously(any(Runnable.class));
+        return env;
+    }
+
+    @Test
+    public void testAsyncValue() throws Throwable {
+        Method method = AsyncComponent.class.getMethod("value");
+        Promise<String> result = Component.ExecutionThread.ASYNC.invoke(
+                this.createAsyncEnvironment(), method, new AsyncComponent()
+        );
+        assertEquals("async-component", result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAsyncPromise() throws Throwable {
+        Method method = AsyncComponent.class.getMethod("promise");
+        Promise<String> result = Component.ExecutionThread.ASYNC.invoke(
+                this.createAsyncEnvironment(), method, new AsyncComponent()
+        );
+
+        // A returned promise is flattened instead of being the result itself.
+        assertEquals("promised", result.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.commands.core.components;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LockTableTest {
+
+    @Test
+    public void testRemovesUnusedLocks() {
+        LockTable<Object> table = new LockTable<Object>(true);
+        Object key = new Object();
+
+        LockTable.Entry outer = table.acquire(key, false, false);
+        LockTable.Entry inner = table.acquire(key, false, false);
+        assertSame(outer, inner);
+        assertEquals(1, table.size());
+
+        table.release(inner, false);
+        assertEquals(1, table.size());
+        table.release(outer, false);
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testIdentityKeys() {
+        LockTable<Object> table = new LockTable<Object>(true);
+        LockTable.Entry a = table.acquire("key", false, false);
+        LockTable.Entry b = table.acquire(new String("key"), false, false);
+        assertNotSame(a, b);
+        table.release(a, false);
+        table.release(b, false);
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testSharedLocks() throws InterruptedException {
+        final LockTable<Object> table = new LockTable<Object>(true);
+        final Object key = new Object();
+        final CountDownLatch acquired = new CountDownLatch(1);
+
+        LockTable.Entry entry = table.acquire(key, false, true);
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                LockTable.Entry other = table.acquire(key, false, true);
+                acquired.countDown();
+                table.release(other, true);
+            }
+        };
+        reader.start();
+
+        // The second reader must not wait for the first one.
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        reader.join();
+        table.release(entry, true);
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testExclusiveLocks() throws InterruptedException {
+        final LockTable<Object> table = new LockTable<Object>(true);
+        final Object key = new Object();
+        final CountDownLatch acquired = new CountDownLatch(1);
+
+        LockTable.Entry entry = table.acquire(key, false, true);
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                LockTable.Entry other = table.acquire(key, false, false);
+                acquired.countDown();
+                table.release(other, false);
+            }
+        };
+        writer.start();
+
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        table.release(entry, true);
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        writer.join();
+        assertEquals(0, table.size());
+    }
+
+    public static class ReadWriteComponent {
+
+        @Component(strategy = Component.ExecutionStrategy.READ_WRITE, readOnly = true, fair = false)
+        public boolean read(CountDownLatch readers) throws InterruptedException {
+            readers.countDown();
+            // Only succeeds if the other reader holds the lock at the same time.
+            return readers.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testReadWriteStrategy() throws Throwable {
+        final ReadWriteComponent component = new ReadWriteComponent();
+        final Method read = ReadWriteComponent.class.getMethod("read", CountDownLatch.class);
+        final CountDownLatch readers = new CountDownLatch(2);
+        final boolean[] result = new boolean[1];
+
+        Thread other = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    result[0] = Component.ExecutionStrategy.READ_WRITE.<Boolean>invoke(read, component, readers);
+                } catch (Throwable ignored) {}
+            }
+        };
+        other.start();
+
+        assertTrue(Component.ExecutionStrategy.READ_WRITE.<Boolean>invoke(read, component, readers));
+        other.join();
+        assertTrue(result[0]);
+    }
+}
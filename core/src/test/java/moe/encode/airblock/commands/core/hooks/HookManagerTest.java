@@ -18,13 +18,19 @@
 
 package moe.encode.airblock.commands.core.hooks;
 
+import moe.encode.airblock.commands.Backend;
 import moe.encode.airblock.commands.core.settings.Environment;
+import moe.encode.airblock.utils.Promise;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Stack;
 
-import static org.junit.Assert.assertEquals;
-import static org.mockito.Mockito.mock;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
 
 public class HookManagerTest {
 
@@ -34,6 +40,36 @@ public class HookManagerTest {
 
     }
 
+    public static class SubHookImpl extends HookImpl {}
+
+    public static class SubHookHandlerImpl {
+
+        @HookHandler(priority = HookHandler.Priority.LOWEST)
+        public void subTest(SubHookImpl impl) {
+            impl.lc.push("sub");
+        }
+
+    }
+
+    public static class AsyncHookHandlerImpl {
+
+        @HookHandler(priority = HookHandler.Priority.HIGH, async = true)
+        public void asyncTest(HookImpl impl) {
+            impl.lc.push("async");
+        }
+
+        @HookHandler(priority = HookHandler.Priority.MONITOR, parallel = true)
+        public void monitorTest(HookImpl impl) {
+            impl.lc.push("monitor");
+        }
+
+        @HookHandler(priority = HookHandler.Priority.LOWEST)
+        public void syncTest(HookImpl impl) {
+            impl.lc.push("sync");
+        }
+
+    }
+
     public static class HookHandlerImpl {
 
         @HookHandler(priority = HookHandler.Priority.HIGH)
@@ -69,4 +105,74 @@ public class HookManagerTest {
         assertEquals("high", hi.lc.pop());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSuperclassChain() throws Exception {
+        HookManager hm = new HookManager(mock(Environment.class));
+        hm.registerHooks(new HookHandlerImpl());
+
+        SubHookImpl first = new SubHookImpl();
+        hm.call(first);
+        assertEquals(3, first.lc.size());
+
+        // Registering new handlers has to rebuild the compiled chain.
+        hm.registerHooks(new SubHookHandlerImpl());
+        SubHookImpl second = new SubHookImpl();
+        hm.call(second);
+
+        // Handlers of the subclass run before the handlers of the superclass.
+        assertEquals("low", second.lc.pop());
+        assertEquals("medium", second.lc.pop());
+        assertEquals("high", second.lc.pop());
+        assertEquals("sub", second.lc.pop());
+
+        hm.clear();
+        HookImpl third = new HookImpl();
+        hm.call(third);
+        assertEquals(0, third.lc.size());
+    }
+
+    @Test
+    public void testAsyncHandlers() throws Exception {
+        final List<Runnable> pool = new ArrayList<Runnable>();
+        Backend backend = mock(Backend.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                pool.add((Runnable) invocation.getArguments()[0]);
+                return null;
+            }
+        }).when(backend).runAsynchronously(any(Runnable.class));
+
+        Environment environment = mock(Environment.class);
+        when(environment.getBackend()).thenReturn(backend);
+
+        HookManager hm = new HookManager(environment);
+        hm.registerHooks(new AsyncHookHandlerImpl());
+
+        HookImpl hi = new HookImpl();
+        Promise<Void> promise = hm.call(hi);
+
+        // Only the synchronous handler has been called yet.
+        assertEquals(1, hi.lc.size());
+        assertFalse(promise.isDone());
+
+        // The asynchronous handlers run after the synchronous ones and start the monitors.
+        pool.remove(0).run();
+        assertEquals("async", hi.lc.peek());
+        assertFalse(promise.isDone());
+
+        pool.remove(0).run();
+        assertEquals("monitor", hi.lc.peek());
+        assertTrue(promise.isDone());
+        assertTrue(pool.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelRequiresMonitor() {
+        new HookManager(mock(Environment.class)).registerHooks(new Object() {
+            @HookHandler(parallel = true)
+            public void invalid(HookImpl impl) {}
+        });
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MethodInvokerTest {
+
+    private int calls = 0;
+
+    private int add(int a, int b) {
+        this.calls++;
+        return a + b;
+    }
+
+    public static String concat(String a, String b) {
+        return a + b;
+    }
+
+    public void fail() {
+        throw new IllegalStateException("Failed");
+    }
+
+    @Test
+    public void testInstanceMethod() throws Throwable {
+        MethodInvoker invoker = new MethodInvoker(
+                MethodInvokerTest.class.getDeclaredMethod("add", int.class, int.class), this
+        );
+        int result = invoker.<Integer>invoke(1, 2);
+        assertEquals(3, result);
+        assertEquals(1, this.calls);
+    }
+
+    @Test
+    public void testStaticMethod() throws Throwable {
+        MethodInvoker invoker = new MethodInvoker(
+                MethodInvokerTest.class.getMethod("concat", String.class, String.class), this
+        );
+        assertNull(invoker.getInstance());
+        assertEquals("ab", invoker.invoke("a", "b"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testExceptionIsNotWrapped() throws Throwable {
+        new MethodInvoker(MethodInvokerTest.class.getMethod("fail"), this).invoke();
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * AirBlock - Framework for Multi-Platform Minecraft-Plugins.
+ * Copyright (C) 2014 stux!
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package moe.encode.airblock.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+public class PromiseTest {
+
+    @Test
+    public void testMap() throws Exception {
+        Promise<Integer> promise = new Promise<Integer>();
+        Promise<String> mapped = promise.map(new Promise.Transformer<Integer, String>() {
+            @Override
+            public String apply(Integer value) {
+                return "value=" + value;
+            }
+        });
+
+        assertFalse(mapped.isDone());
+        assertTrue(promise.complete(5));
+        assertFalse(promise.complete(6));
+        assertEquals("value=5", mapped.get(0, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFlatMap() throws Exception {
+        final Promise<String> inner = new Promise<String>();
+        Promise<String> chained = Promise.completed(1).flatMap(new Promise.Transformer<Integer, Promise<String>>() {
+            @Override
+            public Promise<String> apply(Integer value) {
+                return inner;
+            }
+        });
+
+        assertFalse(chained.isDone());
+        inner.complete("done");
+        assertEquals("done", chained.get());
+    }
+
+    @Test
+    public void testFailurePropagates() throws Exception {
+        Promise<Integer> promise = new Promise<Integer>();
+        Promise<Integer> mapped = promise.map(new Promise.Transformer<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer value) {
+                throw new AssertionError("Must not be called.");
+            }
+        });
+
+        IllegalStateException cause = new IllegalStateException();
+        promise.fail(cause);
+
+        try {
+            mapped.get();
+            fail("The promise should have failed.");
+        } catch (ExecutionException e) {
+            assertSame(cause, e.getCause());
+        }
+    }
+
+    @Test
+    public void testCallbackExecutor() {
+        final List<Runnable> queued = new ArrayList<Runnable>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queued.add(command);
+            }
+        };
+
+        final String[] received = {null};
+        Promise<String> promise = new Promise<String>();
+        promise.addCallback(new Promise.Callback<String>() {
+            @Override
+            public void onSuccess(String value) {
+                received[0] = value;
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                fail();
+            }
+        }, executor);
+
+        promise.complete("value");
+        assertNull(received[0]);
+        assertEquals(1, queued.size());
+
+        queued.get(0).run();
+        assertEquals("value", received[0]);
+    }
+
+    @Test(expected = CancellationException.class)
+    public void testCancel() throws Exception {
+        Promise<String> promise = new Promise<String>();
+        assertTrue(promise.cancel(false));
+        assertTrue(promise.isCancelled());
+        assertFalse(promise.complete("too late"));
+        promise.get();
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void testTimeout() throws Exception {
+        new Promise<String>().get(1, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testFailingListener() throws Exception {
+        final List<String> received = new ArrayList<String>();
+        Promise<String> promise = new Promise<String>();
+        promise.addCallback(new Promise.Callback<String>() {
+            @Override
+            public void onSuccess(String value) {
+                throw new IllegalStateException("Failing listener");
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {}
+        });
+        Promise<String> mapped = promise.map(new Promise.Transformer<String, String>() {
+            @Override
+            public String apply(String value) {
+                received.add(value);
+                return value;
+            }
+        });
+
+        // The failure must neither reach the completing code nor skip the other listeners.
+        assertTrue(promise.complete("value"));
+        assertEquals("value", mapped.get(0, TimeUnit.SECONDS));
+        assertEquals(1, received.size());
+    }
+}
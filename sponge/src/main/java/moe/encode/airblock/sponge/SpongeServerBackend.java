@@ -1,6 +1,7 @@
 package moe.encode.airblock.sponge;
 
 import moe.encode.airblock.commands.contrib.scheduler.Task;
+import moe.encode.airblock.commands.contrib.scheduler.TaskPriority;
 import moe.encode.airblock.commands.core.CommandImplementation;
 import moe.encode.airblock.commands.core.backend.ExecutorHandle;
 import moe.encode.airblock.commands.core.backend.MinecraftVersion;
@@ -98,12 +99,32 @@ public class SpongeServerBackend extends BackendHandle<Object, CommandSource> im
     }
 
     public Task scheduleTask(Runnable runnable, int delay, int repeat, boolean async) {
+        return this.scheduleTask(runnable, delay, repeat, async, TaskPriority.NORMAL);
+    }
+
+    /**
+     * Schedules a new task.<p />
+     *
+     * Sponge only waits for the delay of a synchronous task. The task itself is passed to the
+     * mailbox, so it runs within the time budget of the tick in the order of its priority.
+     *
+     * @param runnable  The runnable to schedule.
+     * @param delay     The time to wait in milliseconds.
+     * @param repeat    The repetition period (0 means it won't be repeated)
+     * @param async     {@code true} and it runs in it's own thread | {@code false} and it runs in the main thread.
+     * @param priority  The priority of the task.
+     * @return The task.
+     */
+    public Task scheduleTask(Runnable runnable, int delay, int repeat, boolean async, TaskPriority priority) {
         org.spongepowered.api.scheduler.Task.Builder builder = Sponge.getScheduler().createTaskBuilder();
         SpongeTaskWrapper.SpongeTaskRunner runner = new SpongeTaskWrapper.SpongeTaskRunner(runnable, repeat!=0);
-        builder.execute(runnable);
 
-        if (async)
+        if (async) {
+            builder.execute(runner);
             builder.async();
+        } else {
+            builder.execute(this.getEnvironment().getMailbox().forward(runner, priority));
+        }
 
         if (delay != 0)
             builder.delay(delay, TimeUnit.MILLISECONDS);
@@ -147,4 +168,8 @@ public class SpongeServerBackend extends BackendHandle<Object, CommandSource> im
     public Task runTaskAsync(Runnable runnable) {
         return this.scheduleTask(runnable, 0, 0, true);
     }
+
+    public Task runTask(Runnable runnable, TaskPriority priority) {
+        return this.scheduleTask(runnable, 0, 0, false, priority);
+    }
 }